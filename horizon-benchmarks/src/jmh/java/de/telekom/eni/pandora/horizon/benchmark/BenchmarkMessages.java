@@ -0,0 +1,53 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.benchmark;
+
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import de.telekom.eni.pandora.horizon.model.event.Event;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import de.telekom.eni.pandora.horizon.model.meta.EventRetentionTime;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Messages shared by the benchmarks, shaped like the ones multiplexed by galaxy.
+ */
+public final class BenchmarkMessages {
+
+    private BenchmarkMessages() {
+    }
+
+    public static SubscriptionEventMessage createMessage(int dataFields) {
+        var data = new LinkedHashMap<String, Object>();
+        for (int i = 0; i < dataFields; i++) {
+            data.put("field" + i, "some value with ümläuts " + i);
+        }
+
+        var event = new Event();
+        event.setId(UUID.randomUUID().toString());
+        event.setType("de.telekom.horizon.benchmark.v1");
+        event.setSource("http://horizon.benchmark");
+        event.setSpecVersion("1.0");
+        event.setDataContentType("application/json");
+        event.setTime("2024-01-01T00:00:00Z");
+        event.setData(data);
+
+        var additionalFields = new HashMap<String, Object>(Map.of(
+                "subscriber-id", "eni--pandora--benchmark",
+                "callback-url", "https://benchmark.example.com/callback"));
+
+        var httpHeaders = new HashMap<String, List<String>>(Map.of(
+                "x-b3-traceid", List.of("463ac35c9f6413ad48485a3953bb6124"),
+                "x-b3-spanid", List.of("a2fb4a1d1a96d312")));
+
+        return new SubscriptionEventMessage(event, "integration", DeliveryType.CALLBACK, UUID.randomUUID().toString(),
+                UUID.randomUUID().toString(), EventRetentionTime.DEFAULT, new ArrayList<>(), additionalFields, httpHeaders);
+    }
+}
@@ -0,0 +1,87 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.benchmark.cache;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import de.telekom.eni.pandora.horizon.benchmark.BenchmarkMessages;
+import de.telekom.eni.pandora.horizon.cache.config.CacheProperties;
+import de.telekom.eni.pandora.horizon.cache.service.DeDuplicationService;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the de-duplication of events against an embedded hazelcast member for every {@link CacheProperties.KeyEncoding}.
+ * <p>
+ * Without network round trips the numbers mostly show the client side costs: building and encoding the key,
+ * serializing key and value, and the allocations for all of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DeDuplicationBenchmark {
+
+    private static final String CACHE_NAME = "deduplication-benchmark";
+
+    @Param({"STRING", "COMPACT"})
+    private CacheProperties.KeyEncoding keyEncoding;
+
+    private HazelcastInstance hazelcastInstance;
+
+    private DeDuplicationService deDuplicationService;
+
+    private SubscriptionEventMessage message;
+
+    private String trackedKey;
+
+    @Setup
+    public void setUp() {
+        var config = new Config();
+        config.setClusterName("horizon-benchmarks");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+
+        var cacheProperties = new CacheProperties();
+        cacheProperties.setEnabled(true);
+        cacheProperties.getDeDuplication().setEnabled(true);
+        cacheProperties.getDeDuplication().setTtlInSeconds(300);
+        cacheProperties.getDeDuplication().setKeyEncoding(keyEncoding);
+
+        deDuplicationService = new DeDuplicationService(hazelcastInstance, cacheProperties);
+        message = BenchmarkMessages.createMessage(10);
+
+        trackedKey = deDuplicationService.generateKey(message);
+        deDuplicationService.track(CACHE_NAME, trackedKey, message.getUuid());
+    }
+
+    @TearDown
+    public void tearDown() {
+        hazelcastInstance.shutdown();
+    }
+
+    @Benchmark
+    public String generateKey() {
+        return deDuplicationService.generateKey(message);
+    }
+
+    @Benchmark
+    public boolean isDuplicate() {
+        return deDuplicationService.isDuplicate(CACHE_NAME, trackedKey);
+    }
+
+    @Benchmark
+    public boolean isDuplicateOfNewKey() {
+        return deDuplicationService.isDuplicate(CACHE_NAME, UUID.randomUUID() + "--" + message.getSubscriptionId());
+    }
+
+    @Benchmark
+    public String track() {
+        return deDuplicationService.track(CACHE_NAME, trackedKey, message.getUuid());
+    }
+}
@@ -0,0 +1,97 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.benchmark.cache;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastJsonValue;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicate;
+import de.telekom.eni.pandora.horizon.cache.util.Query;
+import de.telekom.eni.pandora.horizon.kubernetes.resource.SubscriptionResource;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the sql predicates of {@link Query#toSqlPredicate()} with the compiled ones of {@link Query#toPredicate()}.
+ * <p>
+ * {@code buildSqlString} measures {@link Query#toString()}, which the sql predicate is parsed from. The {@code build}
+ * benchmarks measure what is done per lookup before anything is sent to hazelcast, the {@code values} benchmarks run
+ * the query against a map of subscriptions on an embedded member.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBenchmark {
+
+    private static final String EVENT_TYPE = "pandora.benchmark.v7";
+
+    @Param({"10000"})
+    private int subscriptions;
+
+    private HazelcastInstance hazelcastInstance;
+
+    private IMap<String, HazelcastJsonValue> map;
+
+    @Setup
+    public void setUp() {
+        var config = new Config();
+        config.setClusterName("horizon-benchmarks");
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+        map = hazelcastInstance.getMap("subscriptions");
+
+        for (int i = 0; i < subscriptions; i++) {
+            map.set(String.valueOf(i), new HazelcastJsonValue(format(
+                    "{\"spec\":{\"subscription\":{\"subscriptionId\":\"%d\",\"type\":\"pandora.benchmark.v%d\",\"deliveryType\":\"%s\"}}}",
+                    i, i % 100, i % 2 == 0 ? "callback" : "sse"
+            )));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        hazelcastInstance.shutdown();
+    }
+
+    @Benchmark
+    public String buildSqlString() {
+        return createQuery().toString();
+    }
+
+    @Benchmark
+    public Predicate<String, HazelcastJsonValue> buildSqlPredicate() {
+        return createQuery().toSqlPredicate();
+    }
+
+    @Benchmark
+    public Predicate<String, HazelcastJsonValue> buildCompiledPredicate() {
+        return createQuery().toPredicate();
+    }
+
+    @Benchmark
+    public Collection<HazelcastJsonValue> valuesSqlPredicate() {
+        return map.values(createQuery().toSqlPredicate());
+    }
+
+    @Benchmark
+    public Collection<HazelcastJsonValue> valuesCompiledPredicate() {
+        return map.values(createQuery().toPredicate());
+    }
+
+    // routing creates a new query for every event, so the query is part of the measurement
+    private static Query createQuery() {
+        return Query.builder(SubscriptionResource.class)
+                .addMatcher("spec.subscription.type", EVENT_TYPE)
+                .addMatchers("spec.subscription.deliveryType", "callback", "sse")
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.benchmark.kafka;
+
+import de.telekom.eni.pandora.horizon.benchmark.BenchmarkMessages;
+import de.telekom.eni.pandora.horizon.kafka.event.EventWriter;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import de.telekom.eni.pandora.horizon.model.meta.HorizonComponentId;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes events with the {@link EventWriter} into an embedded kafka broker, one by one and as a batch.
+ * <p>
+ * The broker runs in the same JVM, so the numbers include its work as well. They are meant for comparing changes to
+ * the writer and the producer configuration, not as absolute throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class EventWriterBenchmark {
+
+    private static final String TOPIC = "subscribed";
+
+    private static final int BATCH_SIZE = 100;
+
+    private EmbeddedKafkaBroker broker;
+
+    private DefaultKafkaProducerFactory<String, String> producerFactory;
+
+    private EventWriter eventWriter;
+
+    private SubscriptionEventMessage message;
+
+    private List<SubscriptionEventMessage> batch;
+
+    @Setup
+    public void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, 1, TOPIC);
+        broker.afterPropertiesSet();
+
+        producerFactory = new DefaultKafkaProducerFactory<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString(),
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.ACKS_CONFIG, "1",
+                ProducerConfig.LINGER_MS_CONFIG, 5
+        ));
+        eventWriter = new EventWriter(new KafkaTemplate<>(producerFactory), HorizonComponentId.MULTIPLEXER);
+
+        message = BenchmarkMessages.createMessage(10);
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(BenchmarkMessages.createMessage(10));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        producerFactory.destroy();
+        broker.destroy();
+    }
+
+    @Benchmark
+    public Object send() throws Exception {
+        return eventWriter.send(TOPIC, message).get();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public Object sendAll() throws Exception {
+        return eventWriter.sendAll(TOPIC, batch).get();
+    }
+}
@@ -0,0 +1,101 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.benchmark.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import de.telekom.eni.pandora.horizon.benchmark.BenchmarkMessages;
+import de.telekom.eni.pandora.horizon.json.HorizonJsonCodec;
+import de.telekom.eni.pandora.horizon.json.WireFormat;
+import de.telekom.eni.pandora.horizon.kafka.event.ByteArrayEventWriter;
+import de.telekom.eni.pandora.horizon.kafka.event.EventWriter;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import de.telekom.eni.pandora.horizon.model.meta.HorizonComponentId;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares what the {@link EventWriter} and the {@link ByteArrayEventWriter} do per record before it is handed over
+ * to the producer: serializing the message with the {@link HorizonJsonCodec}, creating the record with its headers
+ * and serializing the record value with the serializer of the producer ({@link StringSerializer} for the former,
+ * {@link ByteArraySerializer} for the latter).
+ * <p>
+ * The writers send into a {@link KafkaTemplate} that only applies the value serializer and completes immediately, so
+ * that no broker is involved. The interesting number is {@code gc.alloc.rate.norm}, the bytes allocated per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EventWriterSerializationBenchmark {
+
+    private static final String TOPIC = "subscribed";
+
+    @Param({"10", "100"})
+    private int dataFields;
+
+    private EventWriter eventWriter;
+
+    private ByteArrayEventWriter byteArrayEventWriter;
+
+    private ByteArrayEventWriter smileEventWriter;
+
+    private SubscriptionEventMessage message;
+
+    @Setup
+    public void setUp() {
+        var jsonCodec = HorizonJsonCodec.getDefault();
+
+        eventWriter = new EventWriter(new SerializingKafkaTemplate<>(new StringSerializer()), HorizonComponentId.MULTIPLEXER, jsonCodec);
+        byteArrayEventWriter = new ByteArrayEventWriter(new SerializingKafkaTemplate<>(new ByteArraySerializer()), HorizonComponentId.MULTIPLEXER, jsonCodec);
+        smileEventWriter = new ByteArrayEventWriter(new SerializingKafkaTemplate<>(new ByteArraySerializer()), HorizonComponentId.MULTIPLEXER, jsonCodec, WireFormat.SMILE);
+        message = BenchmarkMessages.createMessage(dataFields);
+    }
+
+    @Benchmark
+    public Object eventWriter() throws JsonProcessingException {
+        return eventWriter.send(TOPIC, message);
+    }
+
+    @Benchmark
+    public Object byteArrayEventWriter() throws JsonProcessingException {
+        return byteArrayEventWriter.send(TOPIC, message);
+    }
+
+    @Benchmark
+    public Object byteArrayEventWriterSmile() throws JsonProcessingException {
+        return smileEventWriter.send(TOPIC, message);
+    }
+
+    /**
+     * Applies the value serializer like the producer would and completes the send right away.
+     */
+    private static class SerializingKafkaTemplate<V> extends KafkaTemplate<String, V> {
+
+        private final Serializer<V> valueSerializer;
+
+        // keeps the serialized values reachable, so that their serialization is not eliminated
+        private byte[] lastValue;
+
+        private SerializingKafkaTemplate(Serializer<V> valueSerializer) {
+            super(new DefaultKafkaProducerFactory<>(Map.of()));
+            this.valueSerializer = valueSerializer;
+        }
+
+        @Override
+        public CompletableFuture<SendResult<String, V>> send(ProducerRecord<String, V> record) {
+            lastValue = valueSerializer.serialize(record.topic(), record.headers(), record.value());
+            return CompletableFuture.completedFuture(new SendResult<>(record, null));
+        }
+    }
+}
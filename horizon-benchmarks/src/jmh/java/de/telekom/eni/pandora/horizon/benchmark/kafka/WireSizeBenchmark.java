@@ -0,0 +1,117 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.benchmark.kafka;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.luben.zstd.Zstd;
+import de.telekom.eni.pandora.horizon.benchmark.BenchmarkMessages;
+import de.telekom.eni.pandora.horizon.json.HorizonJsonCodec;
+import de.telekom.eni.pandora.horizon.json.WireFormat;
+import de.telekom.eni.pandora.horizon.kafka.compression.ZstdDictionaryCompressor;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes batches of {@link SubscriptionEventMessage}s in every {@link WireFormat}, either uncompressed, compressed as
+ * a whole like the producer compresses its batches, or compressed per record by the {@link ZstdDictionaryCompressor}.
+ * <p>
+ * Besides the time per batch, the encoded {@link WireSize#bytes bytes} and {@link WireSize#events events} are reported
+ * as secondary results, bytes on the wire per event being their ratio. They do not include the record and batch
+ * overhead of kafka, which is the same for all variants.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireSizeBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final int DICTIONARY_SAMPLES = 2_000;
+
+    private static final int DICTIONARY_SIZE = 16_384;
+
+    private static final int LEVEL = 3;
+
+    public enum Compression {
+        NONE, BATCH, DICTIONARY
+    }
+
+    @Param({"JSON", "SMILE"})
+    private WireFormat wireFormat;
+
+    @Param({"NONE", "BATCH", "DICTIONARY"})
+    private Compression compression;
+
+    @Param({"10"})
+    private int dataFields;
+
+    private ObjectWriter writer;
+
+    private ZstdDictionaryCompressor compressor;
+
+    private List<SubscriptionEventMessage> messages;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireSize {
+
+        public long bytes;
+
+        public long events;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+            events = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        writer = HorizonJsonCodec.getDefault().writerFor(SubscriptionEventMessage.class, wireFormat);
+
+        messages = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            messages.add(BenchmarkMessages.createMessage(dataFields));
+        }
+
+        if (compression == Compression.DICTIONARY) {
+            // trained on other messages than the measured ones, as it would be in production
+            var samples = new ArrayList<byte[]>(DICTIONARY_SAMPLES);
+            for (int i = 0; i < DICTIONARY_SAMPLES; i++) {
+                samples.add(writer.writeValueAsBytes(BenchmarkMessages.createMessage(dataFields)));
+            }
+            compressor = new ZstdDictionaryCompressor(ZstdDictionaryCompressor.train(samples, DICTIONARY_SIZE), LEVEL);
+        }
+    }
+
+    @Benchmark
+    public int encodeBatch(WireSize wireSize) throws IOException {
+        var size = 0;
+
+        if (compression == Compression.BATCH) {
+            var batch = new ByteArrayOutputStream();
+            for (var message : messages) {
+                batch.write(writer.writeValueAsBytes(message));
+            }
+            size = Zstd.compress(batch.toByteArray(), LEVEL).length;
+        } else {
+            for (var message : messages) {
+                var value = writer.writeValueAsBytes(message);
+                size += compressor != null ? compressor.compress(value).length : value.length;
+            }
+        }
+
+        wireSize.bytes += size;
+        wireSize.events += BATCH_SIZE;
+        return size;
+    }
+}
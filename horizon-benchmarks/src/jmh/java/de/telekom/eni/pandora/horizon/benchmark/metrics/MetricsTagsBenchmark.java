@@ -0,0 +1,64 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.benchmark.metrics;
+
+import de.telekom.eni.pandora.horizon.benchmark.BenchmarkMessages;
+import de.telekom.eni.pandora.horizon.metrics.HorizonMetricsHelper;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static de.telekom.eni.pandora.horizon.metrics.HorizonMetricsConstants.*;
+
+/**
+ * Measures what recording a metric of a {@link SubscriptionEventMessage} costs with the {@link HorizonMetricsHelper}.
+ * <p>
+ * {@code buildTagsUncached} builds the tags the way they were built for every message before they were cached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsTagsBenchmark {
+
+    private SimpleMeterRegistry registry;
+
+    private HorizonMetricsHelper metricsHelper;
+
+    private SubscriptionEventMessage message;
+
+    @Setup
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        metricsHelper = new HorizonMetricsHelper(registry);
+        message = BenchmarkMessages.createMessage(10);
+    }
+
+    @Benchmark
+    public Tags buildTags() {
+        return metricsHelper.buildTagsFromSubscriptionEventMessage(message);
+    }
+
+    @Benchmark
+    public Tags buildTagsUncached() {
+        var additionalFields = message.getAdditionalFields();
+        return Tags.of(TAG_ENVIRONMENT, message.getEnvironment(), TAG_EVENT_TYPE, message.getEvent().getType())
+                .and(TAG_SUBSCRIPTION_ID, message.getSubscriptionId(), TAG_DELIVERY_TYPE, message.getDeliveryType().getValue())
+                .and(TAG_CALLBACK_URL, (String) additionalFields.get("callback-url"))
+                .and(TAG_SUBSCRIBER_ID, (String) additionalFields.get("subscriber-id"));
+    }
+
+    @Benchmark
+    public void incrementCounter() {
+        metricsHelper.getCounter(METRIC_MULTIPLEXED_EVENTS, message).increment();
+    }
+
+    @Benchmark
+    public void incrementCounterUncached() {
+        registry.counter(METRIC_MULTIPLEXED_EVENTS, buildTagsUncached()).increment();
+    }
+}
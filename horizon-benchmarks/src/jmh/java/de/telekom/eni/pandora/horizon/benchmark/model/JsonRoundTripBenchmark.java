@@ -0,0 +1,71 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.benchmark.model;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.telekom.eni.pandora.horizon.benchmark.BenchmarkMessages;
+import de.telekom.eni.pandora.horizon.json.HorizonJsonCodec;
+import de.telekom.eni.pandora.horizon.json.SubscriptionEventEnvelope;
+import de.telekom.eni.pandora.horizon.json.SubscriptionEventEnvelopeReader;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes and deserializes a {@link SubscriptionEventMessage} as every component between galaxy and comet does for
+ * each event, and compares deserializing it with reading only its {@link SubscriptionEventEnvelope}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonRoundTripBenchmark {
+
+    @Param({"10", "100"})
+    private int dataFields;
+
+    private ObjectWriter writer;
+
+    private ObjectReader reader;
+
+    private SubscriptionEventEnvelopeReader envelopeReader;
+
+    private SubscriptionEventMessage message;
+
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        var jsonCodec = new HorizonJsonCodec(false);
+        writer = jsonCodec.writerFor(SubscriptionEventMessage.class);
+        reader = jsonCodec.readerFor(SubscriptionEventMessage.class);
+        envelopeReader = new SubscriptionEventEnvelopeReader(jsonCodec);
+
+        message = BenchmarkMessages.createMessage(dataFields);
+        json = writer.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public SubscriptionEventMessage deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public SubscriptionEventEnvelope readEnvelope() throws IOException {
+        return envelopeReader.read(json);
+    }
+
+    @Benchmark
+    public SubscriptionEventMessage roundTrip() throws IOException {
+        return reader.readValue(writer.writeValueAsBytes(message));
+    }
+}
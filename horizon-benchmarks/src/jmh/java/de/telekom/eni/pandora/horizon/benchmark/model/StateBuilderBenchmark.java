@@ -0,0 +1,34 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.benchmark.model;
+
+import de.telekom.eni.pandora.horizon.benchmark.BenchmarkMessages;
+import de.telekom.eni.pandora.horizon.model.db.State;
+import de.telekom.eni.pandora.horizon.model.event.Status;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the {@link State} that is written for every status change of an event.
+ */
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StateBuilderBenchmark {
+
+    private SubscriptionEventMessage message;
+
+    @Setup
+    public void setUp() {
+        message = BenchmarkMessages.createMessage(10);
+    }
+
+    @Benchmark
+    public State build() {
+        return State.builder(Status.PROCESSED, message, null, null).build();
+    }
+}
@@ -0,0 +1,120 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.benchmark.mongo;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import de.telekom.eni.pandora.horizon.model.event.Status;
+import de.telekom.eni.pandora.horizon.mongo.model.MessageStateMongoDocument;
+import de.telekom.eni.pandora.horizon.mongo.model.StateCoordinatesView;
+import de.telekom.eni.pandora.horizon.mongo.repository.MessageStateMongoRepo;
+import org.bson.Document;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads {@value #DOCUMENTS} states from an embedded mongo server, once as whole {@link MessageStateMongoDocument}s and
+ * once as {@link StateCoordinatesView}s.
+ * <p>
+ * Every operation reads all documents, so time and allocations per operation (gc.alloc.rate.norm) are the costs per
+ * {@value #DOCUMENTS} documents. The embedded server runs in the same JVM, which is why both include the server side
+ * encoding, but no network transfer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StateProjectionBenchmark {
+
+    private static final int DOCUMENTS = 10_000;
+
+    private static final List<Status> STATUS = List.of(Status.FAILED, Status.WAITING);
+
+    private MongoServer mongoServer;
+
+    private MongoClient mongoClient;
+
+    private MessageStateMongoRepo messageStateMongoRepo;
+
+    @Setup
+    public void setUp() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        mongoServer.bind();
+        mongoClient = MongoClients.create(mongoServer.getConnectionString());
+
+        var mongoTemplate = new MongoTemplate(mongoClient, "benchmark");
+        messageStateMongoRepo = new MongoRepositoryFactory(mongoTemplate).getRepository(MessageStateMongoRepo.class);
+
+        var documents = new ArrayList<Document>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            documents.add(createState(i));
+        }
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(MessageStateMongoDocument.class)).insertMany(documents);
+    }
+
+    @TearDown
+    public void tearDown() {
+        mongoClient.close();
+        mongoServer.shutdown();
+    }
+
+    @Benchmark
+    public List<MessageStateMongoDocument> findByStatusIn() {
+        return messageStateMongoRepo.findByStatusIn(STATUS);
+    }
+
+    @Benchmark
+    public List<StateCoordinatesView> findCoordinatesByStatusIn() {
+        return messageStateMongoRepo.findCoordinatesByStatusIn(STATUS);
+    }
+
+    // shaped like the states written by the components, including the results of scope and consumer filters
+    private static Document createState(int index) {
+        var uuid = UUID.randomUUID().toString();
+        var now = new Date();
+
+        return new Document("_id", uuid)
+                .append("uuid", uuid)
+                .append("coordinates", new Document("partition", index % 16).append("offset", (long) index))
+                .append("status", STATUS.get(index % STATUS.size()).name())
+                .append("environment", "integration")
+                .append("deliveryType", "CALLBACK")
+                .append("subscriptionId", UUID.randomUUID().toString())
+                .append("event", new Document("id", UUID.randomUUID().toString()).append("type", "de.telekom.horizon.benchmark.v1"))
+                .append("properties", new Document(Map.of(
+                        "subscriber-id", "eni--pandora--benchmark",
+                        "callback-url", "https://benchmark.example.com/callback")))
+                .append("eventRetentionTime", "DEFAULT")
+                .append("topic", "subscribed")
+                .append("timestamp", now)
+                .append("modified", now)
+                .append("appliedScopes", List.of("default", "internal"))
+                .append("scopeEvaluationResult", createEvaluationResult(3))
+                .append("consumerEvaluationResult", createEvaluationResult(3))
+                .append("_class", MessageStateMongoDocument.class.getName());
+    }
+
+    private static Document createEvaluationResult(int depth) {
+        var childOperators = new ArrayList<Document>();
+        if (depth > 0) {
+            childOperators.add(createEvaluationResult(depth - 1));
+            childOperators.add(createEvaluationResult(depth - 1));
+        }
+
+        return new Document("match", true)
+                .append("operatorName", depth > 0 ? "and" : "eq")
+                .append("causeDescription", depth > 0 ? null : "$.data.field0 == 'some value'")
+                .append("childOperators", childOperators);
+    }
+}
@@ -13,6 +13,7 @@ public class AccessToken {
     private static final String ACCESS_TOKEN_FIELD = "access_token";
     private static final String EXPIRES_IN_FIELD = "expires_in";
     private static final int BUFFER_TIME_FOR_TOKEN_REFRESH = 5;
+    private static final double REFRESH_AFTER_SHARE_OF_TIME_TO_LIVE = 0.8;
 
     private final String token;
     private final Instant issueTime;
@@ -37,11 +38,25 @@ public class AccessToken {
         return new AccessToken(tokenAsString, Instant.now(), expiresInAsLong);
     }
 
+    public static AccessToken of(final TokenResponse tokenResponse) {
+        return new AccessToken(tokenResponse.accessToken(), Instant.now(), tokenResponse.expiresIn());
+    }
+
     public boolean isExpired() {
         return issueTime.plus(timeToLive - BUFFER_TIME_FOR_TOKEN_REFRESH, ChronoUnit.SECONDS)
                 .compareTo(Instant.now()) <= 0;
     }
 
+    /**
+     * Time at which a new token should be retrieved in the background, so that it is available before this one
+     * {@link #isExpired() expires}.
+     */
+    public Instant getRefreshTime() {
+        var refreshAfterMillis = Math.min((long) (timeToLive * 1000 * REFRESH_AFTER_SHARE_OF_TIME_TO_LIVE),
+                (timeToLive - BUFFER_TIME_FOR_TOKEN_REFRESH) * 1000);
+        return issueTime.plusMillis(Math.max(0, refreshAfterMillis));
+    }
+
     public String getToken() {
         return token;
     }
@@ -4,123 +4,180 @@
 
 package de.telekom.eni.pandora.horizon.auth;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import de.telekom.eni.pandora.horizon.auth.exception.BadTokenResponseException;
-import de.telekom.eni.pandora.horizon.auth.exception.TokenRequestErrorException;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.*;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
 
-import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caches the access tokens of all realms.
+ * <p>
+ * Reads do not lock and, while a realm has a valid token, never wait for the identity provider: a new token is
+ * retrieved in the background at {@link AccessToken#getRefreshTime()}, well before the current one expires. If that
+ * fails, the current token keeps being served while the retrieval is retried. Only the first read of a realm and reads
+ * after its token has expired wait for a new token, and fail if it cannot be retrieved. Concurrent retrievals of the
+ * same realm are coalesced into a single request.
+ * <p>
+ * Tokens are requested by an {@link OAuth2TokenClient}, which can be passed in to configure timeouts and metrics.
+ */
 @Slf4j
 public class OAuth2TokenCache {
 	public static final String IRIS_REALM_PLACEHOLDER = "<realm>";
     public static final String DEFAULT_REALM = "default";
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-
-    private static final String GRANT_TYPE_FIELD = "grant_type";
-    private static final String GRANT_TYPE = "client_credentials";
-    private static final String CLIENT_ID_FIELD = "client_id";
-    private static final String CLIENT_SECRET_FIELD = "client_secret";
-    private final RestTemplate restTemplate;
-    private final String accessTokenUrl;
-    private final String clientId;
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+    private static final Duration MIN_REFRESH_DELAY = Duration.ofMillis(100);
+    private final OAuth2TokenClient tokenClient;
     private final Map<String, String> clientSecretMap = new HashMap<>();
-    private final Map<String, AccessToken> accessTokenMap = new HashMap<>();
+    private final Map<String, TokenHolder> tokenHolderMap = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refreshExecutor;
 
     public OAuth2TokenCache(String accessTokenUrl, String clientId, String clientSecret) {
-        this.restTemplate = new RestTemplate();
-        this.accessTokenUrl = accessTokenUrl;
-        this.clientId = clientId;
+        this(new OAuth2TokenClient(accessTokenUrl, clientId), clientSecret);
+    }
+
+    public OAuth2TokenCache(OAuth2TokenClient tokenClient, String clientSecret) {
+        this.tokenClient = tokenClient;
 
         Arrays.stream(clientSecret.split(",")).forEach(s -> this.clientSecretMap.put(s.split("=")[0], s.split("=")[1]));
+
+        // only schedules, the requests themselves are sent asynchronously by the client
+        this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "oauth2-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
-    public synchronized String getToken(String environment) {
+    public String getToken(String environment) {
         if (!clientSecretMap.containsKey(environment)){
             environment = DEFAULT_REALM;
         }
-        if (isNotValidToken(environment)) {
-            retrieveAccessToken(environment);
+
+        var holder = getTokenHolder(environment);
+        var accessToken = holder.accessToken;
+        if (accessToken != null && !accessToken.isExpired()) {
+            return accessToken.getToken();
         }
-        return accessTokenMap.get(environment).getToken();
-    }
 
-    private boolean isNotValidToken(String environment) {
-        return accessTokenMap.get(environment) == null || accessTokenMap.get(environment).isExpired();
+        // no token yet, or the background refresh has not succeeded in time
+        return join(holder.refresh()).getToken();
     }
 
     public void retrieveAllAccessTokens() {
-        clientSecretMap.keySet().forEach(this::retrieveAccessToken);
+        var refreshes = clientSecretMap.keySet().stream().map(environment -> getTokenHolder(environment).refresh()).toList();
+        refreshes.forEach(OAuth2TokenCache::join);
     }
 
+    /**
+     * Retrieves a new token for the realm and waits for it. If a retrieval for the realm is already in flight, its
+     * result is used instead.
+     */
     public void retrieveAccessToken(String environment) {
-        var secret = clientSecretMap.get(environment);
-        var exchangeUrl = accessTokenUrl.replace(IRIS_REALM_PLACEHOLDER, environment);
-        log.info("Trying to retrieve oidc token from {} for realm {}", exchangeUrl, environment);
+        join(getTokenHolder(environment).refresh());
+    }
 
-        final ResponseEntity<String> response = restTemplate.exchange(
-            exchangeUrl,
-            HttpMethod.POST,
-            createRequest(secret),
-            String.class);
+    /**
+     * Stops the background refresh. Tokens that have already been retrieved can still be read.
+     */
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private TokenHolder getTokenHolder(String environment) {
+        var holder = tokenHolderMap.get(environment);
+        return holder != null ? holder : tokenHolderMap.computeIfAbsent(environment, TokenHolder::new);
+    }
 
-        AccessToken accessToken;
+    private static AccessToken join(CompletableFuture<AccessToken> refresh) {
         try {
-            accessToken = convertResponseToAccessToken(response);
-        } catch (BadTokenResponseException | TokenRequestErrorException e) {
-            throw new RuntimeException(e);
+            return refresh.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
         }
-
-        accessTokenMap.put(environment, accessToken);
     }
 
-    private HttpEntity<MultiValueMap<String, String>> createRequest(String secret) {
-        HttpHeaders headers = createHeader();
-        MultiValueMap<String, String> body = createBody(secret);
+    private final class TokenHolder {
 
-        return new HttpEntity<>(body, headers);
-    }
+        private final String environment;
+
+        private final AtomicReference<CompletableFuture<AccessToken>> inFlight = new AtomicReference<>();
 
-    private AccessToken convertResponseToAccessToken(final ResponseEntity<String> response) throws BadTokenResponseException, TokenRequestErrorException {
-        final var statusCode = response.getStatusCode();
-        final String responseAsJson = response.getBody();
-        if (statusCode.is2xxSuccessful()) {
-            log.info("Successfully retrieved oidc token");
-            final Map<String, Object> responseAsMap = parseResponse(responseAsJson);
-            return AccessToken.of(responseAsMap);
-        } else {
-            log.warn("Error occurred while requesting oidc token: {}", response);
-            throw TokenRequestErrorException.of(response.toString());
+        private volatile AccessToken accessToken;
+
+        private volatile ScheduledFuture<?> scheduledRefresh;
+
+        private TokenHolder(String environment) {
+            this.environment = environment;
         }
-    }
 
-    private HttpHeaders createHeader() {
-        final var headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-        headers.setBearerAuth(accessTokenUrl);
-        return headers;
-    }
+        // starts a retrieval unless one is in flight already
+        private CompletableFuture<AccessToken> refresh() {
+            var refresh = new CompletableFuture<AccessToken>();
+            var existing = inFlight.compareAndExchange(null, refresh);
+            if (existing != null) {
+                return existing;
+            }
+
+            try {
+                tokenClient.requestAccessToken(environment, clientSecretMap.get(environment))
+                        .whenComplete((newAccessToken, e) -> complete(refresh, newAccessToken, e));
+            } catch (RuntimeException e) {
+                complete(refresh, null, e);
+            }
+
+            return refresh;
+        }
 
-    private MultiValueMap<String, String> createBody(String secret) {
-        final MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
-        body.add(GRANT_TYPE_FIELD, GRANT_TYPE);
-        body.add(CLIENT_ID_FIELD, clientId);
-        body.add(CLIENT_SECRET_FIELD, secret);
-        return body;
-    }
+        private void complete(CompletableFuture<AccessToken> refresh, AccessToken newAccessToken, Throwable e) {
+            // the next refresh is scheduled while the retrieval is still in flight, so that no other retrieval can
+            // start and schedule one as well
+            if (e == null) {
+                accessToken = newAccessToken;
+                schedule(Duration.between(Instant.now(), newAccessToken.getRefreshTime()));
+
+                inFlight.set(null);
+                refresh.complete(newAccessToken);
+            } else {
+                var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (accessToken != null) {
+                    log.warn("Could not refresh oidc token for realm {}, keeping the current token and retrying in {}", environment, RETRY_DELAY, cause);
+                    schedule(RETRY_DELAY);
+                } else {
+                    log.error("Could not retrieve oidc token for realm {}", environment, cause);
+                }
+
+                inFlight.set(null);
+                refresh.completeExceptionally(cause);
+            }
+        }
 
-    private Map<String, Object> parseResponse(final String responseAsJson) throws BadTokenResponseException {
-        try {
-            return OBJECT_MAPPER.readValue(responseAsJson, Map.class);
-        } catch (IOException e) {
-            throw BadTokenResponseException.of(responseAsJson, e);
+        // only called by the single retrieval in flight, so there is at most one scheduled refresh per realm
+        private void schedule(Duration delay) {
+            var previous = scheduledRefresh;
+            if (previous != null) {
+                previous.cancel(false);
+            }
+
+            // at least a little later, the scheduled refresh would otherwise find this retrieval still in flight
+            var delayMillis = Math.max(MIN_REFRESH_DELAY.toMillis(), delay.toMillis());
+            try {
+                scheduledRefresh = refreshExecutor.schedule(this::refresh, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                log.debug("Token cache has been shut down, not refreshing the token for realm {}", environment);
+            }
         }
     }
 }
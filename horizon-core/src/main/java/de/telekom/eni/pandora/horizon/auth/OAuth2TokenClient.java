@@ -0,0 +1,133 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.auth;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import de.telekom.eni.pandora.horizon.auth.exception.BadTokenResponseException;
+import de.telekom.eni.pandora.horizon.auth.exception.TokenRequestErrorException;
+import de.telekom.eni.pandora.horizon.json.HorizonJsonCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static de.telekom.eni.pandora.horizon.metrics.HorizonMetricsConstants.*;
+
+/**
+ * Requests client credentials tokens without blocking the calling thread.
+ * <p>
+ * All requests share one {@link HttpClient}, which keeps the connections to the identity provider alive between
+ * requests. If a {@link MeterRegistry} is given, the duration of every request is recorded per realm and outcome,
+ * failures are counted separately.
+ */
+@Slf4j
+public class OAuth2TokenClient {
+
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final ObjectReader TOKEN_RESPONSE_READER = HorizonJsonCodec.getDefault().readerFor(TokenResponse.class);
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_FAILURE = "failure";
+
+    private final HttpClient httpClient;
+    private final String accessTokenUrl;
+    private final String clientId;
+    private final Duration requestTimeout;
+    private final MeterRegistry meterRegistry;
+
+    public OAuth2TokenClient(String accessTokenUrl, String clientId) {
+        this(accessTokenUrl, clientId, DEFAULT_CONNECT_TIMEOUT, DEFAULT_REQUEST_TIMEOUT, null);
+    }
+
+    public OAuth2TokenClient(String accessTokenUrl, String clientId, Duration connectTimeout, Duration requestTimeout, @Nullable MeterRegistry meterRegistry) {
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .build();
+        this.accessTokenUrl = accessTokenUrl;
+        this.clientId = clientId;
+        this.requestTimeout = requestTimeout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @return a future that completes with the new token, or exceptionally with a {@link TokenRequestErrorException}
+     * for a non-2xx response, a {@link BadTokenResponseException} for a response that can not be read, or the
+     * exception of the http client
+     */
+    public CompletableFuture<AccessToken> requestAccessToken(String realm, String clientSecret) {
+        var exchangeUrl = accessTokenUrl.replace(OAuth2TokenCache.IRIS_REALM_PLACEHOLDER, realm);
+        log.info("Trying to retrieve oidc token from {} for realm {}", exchangeUrl, realm);
+
+        var request = HttpRequest.newBuilder(URI.create(exchangeUrl))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(createBody(clientSecret)))
+                .build();
+
+        var sample = meterRegistry != null ? Timer.start(meterRegistry) : null;
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(OAuth2TokenClient::convertResponseToAccessToken)
+                .whenComplete((accessToken, e) -> {
+                    if (e == null) {
+                        log.info("Successfully retrieved oidc token for realm {}", realm);
+                    }
+                    record(sample, realm, e == null);
+                });
+    }
+
+    private void record(@Nullable Timer.Sample sample, String realm, boolean success) {
+        if (sample == null) {
+            return;
+        }
+
+        sample.stop(Timer.builder(METRIC_OAUTH2_TOKEN_REQUESTS)
+                .description("Duration of token requests to the identity provider")
+                .tag(TAG_REALM, realm)
+                .tag(TAG_OUTCOME, success ? OUTCOME_SUCCESS : OUTCOME_FAILURE)
+                .register(meterRegistry));
+
+        if (!success) {
+            Counter.builder(METRIC_OAUTH2_TOKEN_REQUEST_FAILURES)
+                    .description("Failed token requests to the identity provider")
+                    .tag(TAG_REALM, realm)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    private static AccessToken convertResponseToAccessToken(HttpResponse<String> response) {
+        var statusCode = response.statusCode();
+        if (statusCode < 200 || statusCode >= 300) {
+            log.warn("Error occurred while requesting oidc token: {} {}", statusCode, response.body());
+            throw new CompletionException(TokenRequestErrorException.of(statusCode + " " + response.body()));
+        }
+
+        try {
+            return AccessToken.of(TOKEN_RESPONSE_READER.<TokenResponse>readValue(response.body()));
+        } catch (IOException e) {
+            throw new CompletionException(BadTokenResponseException.of(response.body(), e));
+        }
+    }
+
+    private String createBody(String clientSecret) {
+        return "grant_type=client_credentials"
+                + "&client_id=" + URLEncoder.encode(clientId, StandardCharsets.UTF_8)
+                + "&client_secret=" + URLEncoder.encode(clientSecret != null ? clientSecret : "", StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,22 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.auth;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+/**
+ * Successful response of a client credentials token request.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record TokenResponse(@JsonProperty("access_token") String accessToken, @JsonProperty("expires_in") Long expiresIn) {
+
+    public TokenResponse {
+        Objects.requireNonNull(accessToken, "Token is null");
+        Objects.requireNonNull(expiresIn, "Expires in is null");
+    }
+}
@@ -0,0 +1,27 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.auth.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("horizon.auth")
+public class OAuth2Properties {
+
+    // token endpoint, with <realm> as placeholder for the realm
+    private String accessTokenUrl;
+
+    private String clientId;
+
+    // realm=secret pairs separated by commas, the realm "default" is used for unknown realms
+    private String clientSecret;
+
+    private long connectTimeoutMs = 5_000;
+
+    private long requestTimeoutMs = 10_000;
+}
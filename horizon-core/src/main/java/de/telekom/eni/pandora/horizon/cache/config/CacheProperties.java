@@ -4,11 +4,16 @@
 
 package de.telekom.eni.pandora.horizon.cache.config;
 
+import com.hazelcast.config.IndexType;
+import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Getter
@@ -24,6 +29,12 @@ public class CacheProperties {
 
     private DeDuplicationProperties deDuplication = new DeDuplicationProperties();
 
+    private NearCacheProperties nearCache = new NearCacheProperties();
+
+    private SubscriptionIndexProperties subscriptionIndex = new SubscriptionIndexProperties();
+
+    private IndexProperties index = new IndexProperties();
+
     private Map<String, String> attributes = new HashMap<>();
 
     @Getter
@@ -37,6 +48,80 @@ public class CacheProperties {
         private long ttlInSeconds = 0;
 
         private long maxIdleInSeconds = 1800; // 30 minutes
+
+        private KeyEncoding keyEncoding = KeyEncoding.STRING;
+
+        private BloomFilterProperties bloomFilter = new BloomFilterProperties();
+    }
+
+    public enum KeyEncoding {
+        // keys and values as strings
+        STRING,
+        // keys and values in the binary format of the CompactKeyEncoder
+        COMPACT,
+        // writes both formats and reads either, to migrate between STRING and COMPACT without losing entries
+        DUAL
+    }
+
+    @Getter
+    @Setter
+    public static class BloomFilterProperties {
+
+        private boolean enabled = false;
+
+        // per time window, a filter has windows - 1 of them per ttl or max idle time
+        private long expectedInsertions = 1_000_000;
+
+        private double fpp = 0.01;
+
+        private int windows = 4;
+
+        // also feed the filter with keys that have been tracked by other instances, otherwise duplicates of keys
+        // tracked elsewhere are not detected. Can only be disabled if all keys of a cache are tracked and looked up
+        // by the same instance, e.g. when consuming by partition, to spare every instance every key of the cluster
+        private boolean listenToCluster = true;
+    }
+
+    @Getter
+    @Setter
+    public static class NearCacheProperties {
+
+        private boolean enabled = false;
+
+        private int maxSize = 10000;
+
+        private long ttlInSeconds = 60;
+    }
+
+    @Getter
+    @Setter
+    public static class SubscriptionIndexProperties {
+
+        private boolean enabled = false;
+    }
+
+    @Getter
+    @Setter
+    public static class IndexProperties {
+
+        private boolean enabled = false;
+
+        // map name -> indexes that should exist on that map
+        private Map<String, List<IndexDefinition>> definitions = new HashMap<>(Map.of(
+                "subscriptions.subscriber.horizon.telekom.de.v1", new ArrayList<>(List.of(new IndexDefinition(IndexType.HASH, List.of("spec.subscription.type")))),
+                "circuit-breakers", new ArrayList<>(List.of(new IndexDefinition(IndexType.HASH, List.of("status"))))
+        ));
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IndexDefinition {
+
+        private IndexType type = IndexType.HASH;
+
+        private List<String> attributes = new ArrayList<>();
     }
 
 }
@@ -0,0 +1,273 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.cache.index;
+
+import com.hazelcast.core.EntryEvent;
+import de.telekom.eni.pandora.horizon.cache.listener.SubscriptionResourceEvent;
+import de.telekom.eni.pandora.horizon.cache.service.JsonCacheService;
+import de.telekom.eni.pandora.horizon.exception.JsonCacheException;
+import de.telekom.eni.pandora.horizon.kubernetes.resource.Subscription;
+import de.telekom.eni.pandora.horizon.kubernetes.resource.SubscriptionResource;
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Local registry of all subscriptions with lookups by event type, subscription id, subscriber id and delivery type.
+ * <p>
+ * The index is filled via {@link #initialize(JsonCacheService)} and then kept current through the
+ * {@link SubscriptionResourceEvent}s published by the
+ * {@link de.telekom.eni.pandora.horizon.cache.listener.SubscriptionResourceEventBroadcaster}, or through
+ * {@link #asResourceEventHandler()} when subscriptions are watched via a kubernetes informer instead. Updates that
+ * arrive while the subscriptions are loaded are applied again on top of the loaded ones, so that a load can be started
+ * after subscribing to the events without losing or reverting any of them.
+ * <p>
+ * Reads never lock and never leave the process. Writes are serialized, so that a subscription is always contained in
+ * exactly the secondary indices that match its current values. A (re-)initialization fills new indices and replaces
+ * the current ones at once, so that reads never see partially filled indices.
+ */
+@Slf4j
+public class SubscriptionIndex {
+
+    private volatile Indices indices = new Indices();
+
+    // updates applied while subscriptions are being loaded, null if no load is running
+    private List<Consumer<Indices>> pendingUpdates;
+
+    /**
+     * Loads all subscriptions from the cache and replaces the contents of the index with them. Updates arriving
+     * through events while the subscriptions are loaded are applied again afterwards.
+     */
+    public void initialize(JsonCacheService<SubscriptionResource> subscriptionCache) throws JsonCacheException {
+        synchronized (this) {
+            pendingUpdates = new ArrayList<>();
+        }
+
+        try {
+            initialize(subscriptionCache.getAll());
+        } finally {
+            synchronized (this) {
+                pendingUpdates = null;
+            }
+        }
+    }
+
+    /**
+     * Replaces the contents of the index with the given subscriptions.
+     */
+    public synchronized void initialize(Collection<SubscriptionResource> resources) {
+        var loaded = Indices.of(resources);
+        if (pendingUpdates != null) {
+            pendingUpdates.forEach(update -> update.accept(loaded));
+        }
+
+        indices = loaded;
+        log.info("Initialized subscription index with {} subscriptions", loaded.byId.size());
+    }
+
+    public synchronized void upsert(SubscriptionResource resource) {
+        var subscription = getSubscription(resource);
+        if (subscription == null || subscription.getSubscriptionId() == null) {
+            log.warn("Ignoring subscription resource without subscription id: {}", resource);
+            return;
+        }
+
+        apply(current -> current.upsert(subscription.getSubscriptionId(), resource));
+    }
+
+    public synchronized void remove(String subscriptionId) {
+        if (subscriptionId == null) {
+            return;
+        }
+
+        apply(current -> current.remove(subscriptionId));
+    }
+
+    private void apply(Consumer<Indices> update) {
+        update.accept(indices);
+        if (pendingUpdates != null) {
+            pendingUpdates.add(update);
+        }
+    }
+
+    @EventListener
+    public void onSubscriptionResourceEvent(SubscriptionResourceEvent event) {
+        if (event.getValue() != null) {
+            upsert(event.getValue());
+            return;
+        }
+
+        // entry has been removed or evicted, the map is keyed by the subscription id
+        var subscriptionId = Optional.ofNullable(event.getEntryEvent())
+                .map(EntryEvent::getKey)
+                .orElseGet(() -> Optional.ofNullable(getSubscription(event.getOldValue())).map(Subscription::getSubscriptionId).orElse(null));
+
+        remove(subscriptionId);
+    }
+
+    public Optional<SubscriptionResource> findBySubscriptionId(String subscriptionId) {
+        return Optional.ofNullable(indices.byId.get(subscriptionId));
+    }
+
+    public List<SubscriptionResource> findByType(String type) {
+        return lookup(indices.byType, type);
+    }
+
+    public List<SubscriptionResource> findBySubscriberId(String subscriberId) {
+        return lookup(indices.bySubscriberId, subscriberId);
+    }
+
+    public List<SubscriptionResource> findByDeliveryType(DeliveryType deliveryType) {
+        return lookup(indices.byDeliveryType, deliveryType);
+    }
+
+    public List<SubscriptionResource> getAll() {
+        return List.copyOf(indices.byId.values());
+    }
+
+    public int size() {
+        return indices.byId.size();
+    }
+
+    public ResourceEventHandler<SubscriptionResource> asResourceEventHandler() {
+        return new ResourceEventHandler<>() {
+
+            @Override
+            public void onAdd(SubscriptionResource obj) {
+                upsert(obj);
+            }
+
+            @Override
+            public void onUpdate(SubscriptionResource oldObj, SubscriptionResource newObj) {
+                var oldSubscription = getSubscription(oldObj);
+                var newSubscription = getSubscription(newObj);
+
+                if (oldSubscription != null && newSubscription != null && !Objects.equals(oldSubscription.getSubscriptionId(), newSubscription.getSubscriptionId())) {
+                    remove(oldSubscription.getSubscriptionId());
+                }
+
+                upsert(newObj);
+            }
+
+            @Override
+            public void onDelete(SubscriptionResource obj, boolean deletedFinalStateUnknown) {
+                Optional.ofNullable(getSubscription(obj)).map(Subscription::getSubscriptionId).ifPresent(SubscriptionIndex.this::remove);
+            }
+        };
+    }
+
+    /**
+     * The primary and secondary indices, only modified while holding the lock of the {@link SubscriptionIndex}.
+     */
+    private static final class Indices {
+
+        private final Map<String, SubscriptionResource> byId = new ConcurrentHashMap<>();
+
+        private final Map<String, Map<String, SubscriptionResource>> byType = new ConcurrentHashMap<>();
+
+        private final Map<String, Map<String, SubscriptionResource>> bySubscriberId = new ConcurrentHashMap<>();
+
+        private final Map<DeliveryType, Map<String, SubscriptionResource>> byDeliveryType = new ConcurrentHashMap<>();
+
+        private static Indices of(Collection<SubscriptionResource> resources) {
+            var indices = new Indices();
+            if (resources != null) {
+                for (var resource : resources) {
+                    var subscription = getSubscription(resource);
+                    if (subscription == null || subscription.getSubscriptionId() == null) {
+                        log.warn("Ignoring subscription resource without subscription id: {}", resource);
+                        continue;
+                    }
+
+                    indices.upsert(subscription.getSubscriptionId(), resource);
+                }
+            }
+
+            return indices;
+        }
+
+        private void upsert(String subscriptionId, SubscriptionResource resource) {
+            var previous = byId.put(subscriptionId, resource);
+            if (previous != null) {
+                removeFromSecondaryIndices(subscriptionId, previous);
+            }
+
+            var subscription = getSubscription(resource);
+            addTo(byType, subscription.getType(), subscriptionId, resource);
+            addTo(bySubscriberId, subscription.getSubscriberId(), subscriptionId, resource);
+            addTo(byDeliveryType, toDeliveryType(subscription), subscriptionId, resource);
+        }
+
+        private void remove(String subscriptionId) {
+            var previous = byId.remove(subscriptionId);
+            if (previous != null) {
+                removeFromSecondaryIndices(subscriptionId, previous);
+            }
+        }
+
+        private void removeFromSecondaryIndices(String subscriptionId, SubscriptionResource resource) {
+            var subscription = getSubscription(resource);
+
+            removeFrom(byType, subscription.getType(), subscriptionId);
+            removeFrom(bySubscriberId, subscription.getSubscriberId(), subscriptionId);
+            removeFrom(byDeliveryType, toDeliveryType(subscription), subscriptionId);
+        }
+    }
+
+    private static <K> void addTo(Map<K, Map<String, SubscriptionResource>> index, K key, String subscriptionId, SubscriptionResource resource) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).put(subscriptionId, resource);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, Map<String, SubscriptionResource>> index, K key, String subscriptionId) {
+        if (key != null) {
+            index.computeIfPresent(key, (k, resources) -> {
+                resources.remove(subscriptionId);
+                return resources.isEmpty() ? null : resources;
+            });
+        }
+    }
+
+    private static <K> List<SubscriptionResource> lookup(Map<K, Map<String, SubscriptionResource>> index, K key) {
+        if (key == null) {
+            return List.of();
+        }
+
+        var resources = index.get(key);
+        return resources == null ? List.of() : List.copyOf(resources.values());
+    }
+
+    private static Subscription getSubscription(SubscriptionResource resource) {
+        if (resource == null || resource.getSpec() == null) {
+            return null;
+        }
+
+        return resource.getSpec().getSubscription();
+    }
+
+    private static DeliveryType toDeliveryType(Subscription subscription) {
+        if (subscription.getDeliveryType() == null) {
+            return null;
+        }
+
+        try {
+            return DeliveryType.fromString(subscription.getDeliveryType());
+        } catch (RuntimeException e) {
+            log.warn("Subscription {} has an unknown delivery type {}", subscription.getSubscriptionId(), subscription.getDeliveryType());
+            return null;
+        }
+    }
+}
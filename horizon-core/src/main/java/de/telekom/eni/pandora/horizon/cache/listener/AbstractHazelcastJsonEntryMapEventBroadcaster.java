@@ -14,7 +14,10 @@ import com.hazelcast.map.listener.EntryUpdatedListener;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 @Slf4j
 public abstract class AbstractHazelcastJsonEntryMapEventBroadcaster<T extends AbstractHazelcastJsonEvent<?>> implements EntryAddedListener<String, HazelcastJsonValue>,
@@ -26,6 +29,8 @@ public abstract class AbstractHazelcastJsonEntryMapEventBroadcaster<T extends Ab
 
     private final ApplicationEventPublisher applicationEventPublisher;
 
+    private final List<Consumer<String>> invalidationListeners = new CopyOnWriteArrayList<>();
+
     public AbstractHazelcastJsonEntryMapEventBroadcaster(ObjectMapper mapper, ApplicationEventPublisher applicationEventPublisher) {
         this.mapper = mapper;
         this.applicationEventPublisher = applicationEventPublisher;
@@ -33,23 +38,41 @@ public abstract class AbstractHazelcastJsonEntryMapEventBroadcaster<T extends Ab
 
     protected abstract Optional<T> map(EntryEvent<String, HazelcastJsonValue> entryEvent);
 
+    /**
+     * Registers a listener that gets called with the key of every added, evicted, removed or updated entry,
+     * before the mapped event is published. Used to invalidate locally held copies of the entry.
+     */
+    public void addInvalidationListener(Consumer<String> invalidationListener) {
+        invalidationListeners.add(invalidationListener);
+    }
+
+    private void invalidate(EntryEvent<String, HazelcastJsonValue> entryEvent) {
+        for (var invalidationListener : invalidationListeners) {
+            invalidationListener.accept(entryEvent.getKey());
+        }
+    }
+
     @Override
     public void entryAdded(EntryEvent<String, HazelcastJsonValue> entryEvent) {
+        invalidate(entryEvent);
         map(entryEvent).ifPresent(applicationEventPublisher::publishEvent);
     }
 
     @Override
     public void entryEvicted(EntryEvent<String, HazelcastJsonValue> entryEvent) {
+        invalidate(entryEvent);
         map(entryEvent).ifPresent(applicationEventPublisher::publishEvent);
     }
 
     @Override
     public void entryRemoved(EntryEvent<String, HazelcastJsonValue> entryEvent) {
+        invalidate(entryEvent);
         map(entryEvent).ifPresent(applicationEventPublisher::publishEvent);
     }
 
     @Override
     public void entryUpdated(EntryEvent<String, HazelcastJsonValue> entryEvent) {
+        invalidate(entryEvent);
         map(entryEvent).ifPresent(applicationEventPublisher::publishEvent);
     }
 }
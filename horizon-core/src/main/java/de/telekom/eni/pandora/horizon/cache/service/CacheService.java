@@ -45,7 +45,7 @@ public class CacheService {
     }
 
     public <T extends Cacheable> List<T> getWithQuery(Query query) throws HazelcastInstanceNotActiveException {
-        return getWithQuery(query.toSqlPredicate());
+        return getWithQuery(query.toPredicate());
     }
 
     public <T extends Cacheable> void update(T cacheable) throws HazelcastInstanceNotActiveException {
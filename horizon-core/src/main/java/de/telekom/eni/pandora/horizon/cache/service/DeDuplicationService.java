@@ -10,32 +10,76 @@ import com.hazelcast.core.HazelcastInstanceNotActiveException;
 import com.hazelcast.internal.util.StringUtil;
 import com.hazelcast.map.IMap;
 import de.telekom.eni.pandora.horizon.cache.config.CacheProperties;
+import de.telekom.eni.pandora.horizon.cache.config.CacheProperties.KeyEncoding;
+import de.telekom.eni.pandora.horizon.cache.service.DeDuplicationStore.Key;
+import de.telekom.eni.pandora.horizon.cache.util.CompactKeyEncoder;
+import de.telekom.eni.pandora.horizon.cache.util.RotatingBloomFilter;
 import de.telekom.eni.pandora.horizon.model.event.PublishedEventMessage;
 import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.lang.Nullable;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.Objects;
-import java.util.Optional;
-import java.util.concurrent.TimeUnit;
-
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static de.telekom.eni.pandora.horizon.metrics.HorizonMetricsConstants.*;
+
+/**
+ * Keeps track of already processed events within hazelcast.
+ * <p>
+ * Optionally, a {@link RotatingBloomFilter} per cache answers lookups of keys that have definitely not been tracked
+ * without asking hazelcast. Besides the keys tracked by this instance, the filter is fed with the keys added by other
+ * instances through an entry listener, unless {@link CacheProperties.BloomFilterProperties#isListenToCluster()} is
+ * disabled because every key is tracked and looked up by the same instance. Keys tracked elsewhere can be missed for
+ * the short time it takes the entry event to arrive, and until a filter has been running for the full ttl (or max
+ * idle time) it answers nothing on its own. Keys that are kept alive beyond their max idle time only by lookups of other instances are not known to
+ * the filter either, so the filter should only be enabled where such a small window is acceptable.
+ * <p>
+ * Keys and values are stored as strings or in the compact binary format of the {@link CompactKeyEncoder}, depending
+ * on {@link KeyEncoding}. See {@link DeDuplicationStore} for how both formats coexist during a migration.
+ */
 @Slf4j
-@AllArgsConstructor
-public class DeDuplicationService {
+public class DeDuplicationService implements MeterBinder {
 
     private final HazelcastInstance hazelcastInstance;
 
     private final CacheProperties cacheProperties;
 
-    private IMap<String, String> getCache(@Nullable String cacheName) throws HazelcastInstanceNotActiveException {
-        String actualCacheName = StringUtil.isNullOrEmptyAfterTrim(cacheName) ? cacheProperties.getDeDuplication().getDefaultCacheName() : cacheName;
-        return hazelcastInstance.getMap(actualCacheName);
+    private final DeDuplicationStore store;
+
+    private final Map<String, BloomFilterState> bloomFilters = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry meterRegistry;
+
+    public DeDuplicationService(HazelcastInstance hazelcastInstance, CacheProperties cacheProperties) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.cacheProperties = cacheProperties;
+        this.store = new DeDuplicationStore(hazelcastInstance, () -> cacheProperties.getDeDuplication().getKeyEncoding());
+    }
+
+    private String resolveCacheName(@Nullable String cacheName) {
+        return StringUtil.isNullOrEmptyAfterTrim(cacheName) ? cacheProperties.getDeDuplication().getDefaultCacheName() : cacheName;
     }
 
     public boolean isEnabled(String cacheName) {
+        if (!cacheProperties.getDeDuplication().isEnabled()) {
+            return false;
+        }
+
         try {
             hazelcastInstance.getMap(cacheName);
         } catch (HazelcastInstanceNotActiveException | HazelcastClientOfflineException e) {
@@ -43,7 +87,7 @@ public class DeDuplicationService {
             return false;
         }
 
-        return cacheProperties.getDeDuplication().isEnabled();
+        return true;
     }
 
     private String generateKey(@NonNull String publishedEventMessageUUID, @NonNull String subscriptionId) {
@@ -56,9 +100,9 @@ public class DeDuplicationService {
     }
 
     public String generateKey(@NonNull SubscriptionEventMessage subscriptionEventMessage) {
-        var additionalFields = Objects.requireNonNullElse(subscriptionEventMessage.getAdditionalFields(), new HashMap<>());
-        var replicatedFromOrNull = (String) additionalFields.get("replicatedFrom");
-        var publishedEventMessageUUID = Optional.ofNullable(replicatedFromOrNull).orElse(subscriptionEventMessage.getMultiplexedFrom());
+        var additionalFields = subscriptionEventMessage.getAdditionalFields();
+        var replicatedFromOrNull = additionalFields != null ? (String) additionalFields.get("replicatedFrom") : null;
+        var publishedEventMessageUUID = replicatedFromOrNull != null ? replicatedFromOrNull : subscriptionEventMessage.getMultiplexedFrom();
 
         var subscriptionId = subscriptionEventMessage.getSubscriptionId();
         return generateKey(publishedEventMessageUUID, subscriptionId);
@@ -85,11 +129,71 @@ public class DeDuplicationService {
     }
 
     public boolean isDuplicate(String cacheName, String key) throws HazelcastInstanceNotActiveException {
+        if (!cacheProperties.getDeDuplication().isEnabled()) {
+            return false;
+        }
+
+        var storeKey = store.key(key);
+        var bloomFilter = getBloomFilter(cacheName);
+        if (bloomFilter != null && bloomFilter.isDefinitelyNew(storeKey)) {
+            return false;
+        }
+
         if (!isEnabled(cacheName)) {
             return false;
         }
 
-        return getCache(cacheName).containsKey(key);
+        var isDuplicate = store.containsKey(resolveCacheName(cacheName), storeKey);
+        if (bloomFilter != null) {
+            bloomFilter.recordLookup(storeKey, isDuplicate);
+        }
+
+        return isDuplicate;
+    }
+
+    public Map<String, Boolean> isDuplicateAll(Collection<String> keys) {
+        return isDuplicateAll("", keys);
+    }
+
+    /**
+     * Checks all given keys with a single {@link IMap#getAll} instead of one round trip per key.
+     * If de-duplication is disabled or hazelcast is not available, no key is considered a duplicate.
+     *
+     * @return whether the key is a duplicate for every given key
+     */
+    public Map<String, Boolean> isDuplicateAll(String cacheName, Collection<String> keys) {
+        var result = HashMap.<String, Boolean>newHashMap(keys.size());
+        keys.forEach(key -> result.put(key, false));
+
+        if (keys.isEmpty() || !cacheProperties.getDeDuplication().isEnabled()) {
+            return result;
+        }
+
+        var bloomFilter = getBloomFilter(cacheName);
+        var candidates = new ArrayList<Key>(keys.size());
+        for (var key : result.keySet()) {
+            var storeKey = store.key(key);
+            if (bloomFilter == null || !bloomFilter.isDefinitelyNew(storeKey)) {
+                candidates.add(storeKey);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            return result;
+        }
+
+        try {
+            var existing = store.existingKeys(resolveCacheName(cacheName), candidates);
+            existing.forEach(key -> result.put(key.value(), true));
+
+            if (bloomFilter != null) {
+                candidates.forEach(key -> bloomFilter.recordLookup(key, existing.contains(key)));
+            }
+        } catch (HazelcastInstanceNotActiveException | HazelcastClientOfflineException e) {
+            log.warn("Hazelcast instance is not active or cache not found, skipping deduplication check: {}", e.getMessage());
+        }
+
+        return result;
     }
 
     public String get(String cacheName, @NonNull PublishedEventMessage publishedEventMessage, String subscriptionId) throws HazelcastInstanceNotActiveException {
@@ -127,7 +231,7 @@ public class DeDuplicationService {
             return null;
         }
 
-        return getCache(cacheName).get(key);
+        return store.get(resolveCacheName(cacheName), store.key(key));
     }
 
     public String track(String cacheName, @NonNull PublishedEventMessage publishedEventMessage, String subscriptionId) throws HazelcastInstanceNotActiveException {
@@ -159,11 +263,57 @@ public class DeDuplicationService {
             return null;
         }
 
-        return getCache(cacheName).put(key, value,
+        var storeKey = store.key(key);
+        putIntoBloomFilter(cacheName, storeKey);
+
+        return store.put(resolveCacheName(cacheName), storeKey, value,
                 cacheProperties.getDeDuplication().getTtlInSeconds(),
-                TimeUnit.SECONDS,
-                cacheProperties.getDeDuplication().getMaxIdleInSeconds(),
-                TimeUnit.SECONDS);
+                cacheProperties.getDeDuplication().getMaxIdleInSeconds());
+    }
+
+    public void trackAll(Map<String, String> entries) throws HazelcastInstanceNotActiveException {
+        trackAll("", entries);
+    }
+
+    /**
+     * Writes all key and value pairs into the provided cache with the configured ttl and max idle time.
+     * All writes are issued without waiting for each other, so the batch costs about one round trip.
+     * The method returns once all writes have been acknowledged. Values must not be null.
+     * If hazelcast is not available, nothing is tracked.
+     */
+    public void trackAll(String cacheName, Map<String, String> entries) throws HazelcastInstanceNotActiveException {
+        if (entries.isEmpty() || !cacheProperties.getDeDuplication().isEnabled()) {
+            return;
+        }
+
+        var ttl = cacheProperties.getDeDuplication().getTtlInSeconds();
+        var maxIdle = cacheProperties.getDeDuplication().getMaxIdleInSeconds();
+
+        var bloomFilter = getBloomFilter(cacheName);
+        var actualCacheName = resolveCacheName(cacheName);
+
+        try {
+            var storeEntries = HashMap.<Key, String>newHashMap(entries.size());
+            for (var entry : entries.entrySet()) {
+                var storeKey = store.key(entry.getKey());
+                if (bloomFilter != null) {
+                    bloomFilter.put(storeKey);
+                }
+
+                storeEntries.put(storeKey, entry.getValue());
+            }
+
+            store.setAllAsync(actualCacheName, storeEntries, ttl, maxIdle).join();
+        } catch (HazelcastInstanceNotActiveException | HazelcastClientOfflineException e) {
+            log.warn("Hazelcast instance is not active or cache not found, skipping deduplication tracking: {}", e.getMessage());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof HazelcastInstanceNotActiveException || e.getCause() instanceof HazelcastClientOfflineException) {
+                log.warn("Hazelcast instance is not active or cache not found, skipping deduplication tracking: {}", e.getCause().getMessage());
+                return;
+            }
+
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
     }
 
     public void clear(String key) throws HazelcastInstanceNotActiveException {
@@ -175,6 +325,244 @@ public class DeDuplicationService {
             return;
         }
 
-        getCache(cacheName).remove(key);
+        store.remove(resolveCacheName(cacheName), store.key(key));
+    }
+
+    public CompletionStage<Boolean> isDuplicateAsync(SubscriptionEventMessage subscriptionEventMessage) {
+        return isDuplicateAsync("", generateKey(subscriptionEventMessage));
+    }
+
+    public CompletionStage<Boolean> isDuplicateAsync(String key) {
+        return isDuplicateAsync("", key);
+    }
+
+    /**
+     * Non-blocking variant of {@link #isDuplicate(String, String)}.
+     * Completes with false if de-duplication is disabled or the hazelcast client is offline.
+     */
+    public CompletionStage<Boolean> isDuplicateAsync(String cacheName, String key) {
+        if (!cacheProperties.getDeDuplication().isEnabled()) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        var storeKey = store.key(key);
+        var bloomFilter = getBloomFilter(cacheName);
+        if (bloomFilter != null && bloomFilter.isDefinitelyNew(storeKey)) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return async(() -> store.getAsync(resolveCacheName(cacheName), storeKey).thenApply(value -> {
+            if (bloomFilter != null) {
+                bloomFilter.recordLookup(storeKey, value != null);
+            }
+            return value != null;
+        }), false);
+    }
+
+    public CompletionStage<String> trackAsync(SubscriptionEventMessage subscriptionEventMessage) {
+        return trackAsync("", generateKey(subscriptionEventMessage), subscriptionEventMessage.getUuid());
+    }
+
+    public CompletionStage<String> trackAsync(String key, @NonNull String value) {
+        return trackAsync("", key, value);
+    }
+
+    /**
+     * Non-blocking variant of {@link #track(String, String, String)}.
+     * Completes with the old value, or with null if de-duplication is disabled or the hazelcast client is offline.
+     */
+    public CompletionStage<String> trackAsync(String cacheName, String key, @NonNull String value) {
+        if (!cacheProperties.getDeDuplication().isEnabled()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        var storeKey = store.key(key);
+        putIntoBloomFilter(cacheName, storeKey);
+
+        return async(() -> store.putAsync(resolveCacheName(cacheName), storeKey, value,
+                cacheProperties.getDeDuplication().getTtlInSeconds(),
+                cacheProperties.getDeDuplication().getMaxIdleInSeconds()), null);
+    }
+
+    public CompletionStage<Void> clearAsync(String key) {
+        return clearAsync("", key);
+    }
+
+    /**
+     * Non-blocking variant of {@link #clear(String, String)}.
+     */
+    public CompletionStage<Void> clearAsync(@Nullable String cacheName, String key) {
+        return async(() -> store.removeAsync(resolveCacheName(cacheName), store.key(key)), null);
+    }
+
+    // same fallback as for the blocking methods, no matter if the client fails right away or completes exceptionally
+    private <T> CompletionStage<T> async(Supplier<CompletionStage<T>> operation, T fallback) {
+        if (!cacheProperties.getDeDuplication().isEnabled()) {
+            return CompletableFuture.completedFuture(fallback);
+        }
+
+        try {
+            return operation.get().exceptionally(e -> {
+                var cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (cause instanceof HazelcastInstanceNotActiveException || cause instanceof HazelcastClientOfflineException) {
+                    log.warn("Hazelcast instance is not active or cache not found, skipping deduplication: {}", cause.getMessage());
+                    return fallback;
+                }
+
+                throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
+            });
+        } catch (HazelcastInstanceNotActiveException | HazelcastClientOfflineException e) {
+            log.warn("Hazelcast instance is not active or cache not found, skipping deduplication: {}", e.getMessage());
+            return CompletableFuture.completedFuture(fallback);
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        this.meterRegistry = registry;
+        bloomFilters.forEach((cacheName, bloomFilter) -> bindTo(registry, cacheName, bloomFilter));
+    }
+
+    private void putIntoBloomFilter(String cacheName, Key key) {
+        var bloomFilter = getBloomFilter(cacheName);
+        if (bloomFilter != null) {
+            bloomFilter.put(key);
+        }
+    }
+
+    @Nullable
+    private BloomFilterState getBloomFilter(String cacheName) {
+        var properties = cacheProperties.getDeDuplication();
+        if (!properties.isEnabled() || !properties.getBloomFilter().isEnabled()) {
+            return null;
+        }
+
+        var actualCacheName = resolveCacheName(cacheName);
+        var bloomFilter = bloomFilters.get(actualCacheName);
+        return bloomFilter != null ? bloomFilter : bloomFilters.computeIfAbsent(actualCacheName, this::createBloomFilter);
+    }
+
+    // returns null if the filter can not be used (yet), so that the creation is retried with the next lookup
+    @Nullable
+    private BloomFilterState createBloomFilter(String cacheName) {
+        var properties = cacheProperties.getDeDuplication();
+        var bloomFilterProperties = properties.getBloomFilter();
+
+        var lifetimeInSeconds = properties.getTtlInSeconds() > 0 ? properties.getTtlInSeconds() : properties.getMaxIdleInSeconds();
+        if (lifetimeInSeconds <= 0) {
+            log.warn("Bloom filter for deduplication cache {} is not used, since the entries never expire", cacheName);
+            return null;
+        }
+
+        var filter = new RotatingBloomFilter(bloomFilterProperties.getExpectedInsertions(), bloomFilterProperties.getFpp(),
+                bloomFilterProperties.getWindows(), Duration.ofSeconds(lifetimeInSeconds));
+
+        var bloomFilter = new BloomFilterState(filter, properties.getKeyEncoding() != KeyEncoding.STRING);
+
+        if (bloomFilterProperties.isListenToCluster()) {
+            try {
+                store.addEntryAddedListener(cacheName, bloomFilter::putAddedKey);
+            } catch (HazelcastInstanceNotActiveException | HazelcastClientOfflineException e) {
+                log.warn("Could not listen to deduplication cache {}, bloom filter is not used yet: {}", cacheName, e.getMessage());
+                return null;
+            }
+        }
+
+        var registry = meterRegistry;
+        if (registry != null) {
+            bindTo(registry, cacheName, bloomFilter);
+        }
+
+        log.info("Using bloom filter with {} bytes for deduplication cache {}", filter.getMemoryInBytes(), cacheName);
+        return bloomFilter;
+    }
+
+    private static void bindTo(MeterRegistry registry, String cacheName, BloomFilterState bloomFilter) {
+        FunctionCounter.builder(METRIC_DEDUPLICATION_BLOOM_FILTER_SKIPPED_LOOKUPS, bloomFilter, state -> state.skippedLookups.sum())
+                .description("Lookups answered by the bloom filter without asking hazelcast")
+                .tag(TAG_CACHE_NAME, cacheName)
+                .register(registry);
+
+        FunctionCounter.builder(METRIC_DEDUPLICATION_BLOOM_FILTER_FALSE_POSITIVES, bloomFilter, state -> state.falsePositives.sum())
+                .description("Lookups of new keys the bloom filter could not answer")
+                .tag(TAG_CACHE_NAME, cacheName)
+                .register(registry);
+
+        Gauge.builder(METRIC_DEDUPLICATION_BLOOM_FILTER_FALSE_POSITIVE_RATE, bloomFilter, BloomFilterState::getFalsePositiveRate)
+                .description("Share of new keys the bloom filter could not answer")
+                .tag(TAG_CACHE_NAME, cacheName)
+                .register(registry);
+
+        Gauge.builder(METRIC_DEDUPLICATION_BLOOM_FILTER_MEMORY, bloomFilter, state -> state.filter.getMemoryInBytes())
+                .description("Memory used by the bit arrays of the bloom filter")
+                .baseUnit("bytes")
+                .tag(TAG_CACHE_NAME, cacheName)
+                .register(registry);
+    }
+
+    private static final class BloomFilterState {
+
+        private final RotatingBloomFilter filter;
+
+        private final LongAdder skippedLookups = new LongAdder();
+
+        private final LongAdder falsePositives = new LongAdder();
+
+        // whether the filter works on the compact or on the string form of the keys
+        private final boolean compact;
+
+        private BloomFilterState(RotatingBloomFilter filter, boolean compact) {
+            this.filter = filter;
+            this.compact = compact;
+        }
+
+        private void put(Key key) {
+            if (compact) {
+                filter.put(key.compact());
+            } else {
+                filter.put(key.value());
+            }
+        }
+
+        // keys added by other instances, possibly still using the other encoding while migrating
+        private void putAddedKey(Object key) {
+            if (key instanceof byte[] compactKey) {
+                filter.put(compactKey);
+            } else if (key instanceof String stringKey) {
+                if (compact) {
+                    filter.put(CompactKeyEncoder.encodeKey(stringKey));
+                } else {
+                    filter.put(stringKey);
+                }
+            }
+        }
+
+        private boolean isDefinitelyNew(Key key) {
+            if (!filter.isWarm()) {
+                return false;
+            }
+
+            var mightContain = compact ? filter.mightContain(key.compact()) : filter.mightContain(key.value());
+            if (!mightContain) {
+                skippedLookups.increment();
+                return true;
+            }
+
+            return false;
+        }
+
+        private void recordLookup(Key key, boolean isDuplicate) {
+            if (isDuplicate) {
+                // keeps keys in the filter that are kept alive by lookups until their max idle time
+                put(key);
+            } else if (filter.isWarm()) {
+                falsePositives.increment();
+            }
+        }
+
+        private double getFalsePositiveRate() {
+            var negatives = skippedLookups.sum() + falsePositives.sum();
+            return negatives == 0 ? 0 : (double) falsePositives.sum() / negatives;
+        }
     }
 }
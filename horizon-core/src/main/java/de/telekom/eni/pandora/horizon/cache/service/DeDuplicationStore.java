@@ -0,0 +1,189 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.cache.service;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.EntryAddedListener;
+import de.telekom.eni.pandora.horizon.cache.config.CacheProperties.KeyEncoding;
+import de.telekom.eni.pandora.horizon.cache.util.CompactKeyEncoder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Hazelcast access of the {@link DeDuplicationService} for the configured {@link KeyEncoding}.
+ * <p>
+ * Both encodings live in the same map: string entries as {@code IMap<String, String>}, compact entries as
+ * {@code IMap<byte[], byte[]>}. In {@link KeyEncoding#DUAL} mode every write goes to both and reads fall back from
+ * the compact to the string entry, which costs a second round trip only for keys that are not compact yet.
+ */
+class DeDuplicationStore {
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final Supplier<KeyEncoding> keyEncoding;
+
+    DeDuplicationStore(HazelcastInstance hazelcastInstance, Supplier<KeyEncoding> keyEncoding) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.keyEncoding = keyEncoding;
+    }
+
+    Key key(String key) {
+        return keyEncoding.get() == KeyEncoding.STRING ? new Key(key, null) : new Key(key, CompactKeyEncoder.encodeKey(key));
+    }
+
+    boolean containsKey(String cacheName, Key key) {
+        return switch (keyEncoding.get()) {
+            case STRING -> strings(cacheName).containsKey(key.value());
+            case COMPACT -> binaries(cacheName).containsKey(key.compact());
+            case DUAL -> binaries(cacheName).containsKey(key.compact()) || strings(cacheName).containsKey(key.value());
+        };
+    }
+
+    String get(String cacheName, Key key) {
+        return switch (keyEncoding.get()) {
+            case STRING -> strings(cacheName).get(key.value());
+            case COMPACT -> CompactKeyEncoder.decodeValue(binaries(cacheName).get(key.compact()));
+            case DUAL -> {
+                var value = CompactKeyEncoder.decodeValue(binaries(cacheName).get(key.compact()));
+                yield value != null ? value : strings(cacheName).get(key.value());
+            }
+        };
+    }
+
+    String put(String cacheName, Key key, String value, long ttlInSeconds, long maxIdleInSeconds) {
+        return switch (keyEncoding.get()) {
+            case STRING -> strings(cacheName).put(key.value(), value, ttlInSeconds, TimeUnit.SECONDS, maxIdleInSeconds, TimeUnit.SECONDS);
+            case COMPACT -> CompactKeyEncoder.decodeValue(binaries(cacheName).put(key.compact(), CompactKeyEncoder.encodeValue(value), ttlInSeconds, TimeUnit.SECONDS, maxIdleInSeconds, TimeUnit.SECONDS));
+            case DUAL -> {
+                var oldValue = CompactKeyEncoder.decodeValue(binaries(cacheName).put(key.compact(), CompactKeyEncoder.encodeValue(value), ttlInSeconds, TimeUnit.SECONDS, maxIdleInSeconds, TimeUnit.SECONDS));
+                var oldStringValue = strings(cacheName).put(key.value(), value, ttlInSeconds, TimeUnit.SECONDS, maxIdleInSeconds, TimeUnit.SECONDS);
+                yield oldValue != null ? oldValue : oldStringValue;
+            }
+        };
+    }
+
+    void remove(String cacheName, Key key) {
+        var encoding = keyEncoding.get();
+        if (encoding != KeyEncoding.COMPACT) {
+            strings(cacheName).remove(key.value());
+        }
+        if (encoding != KeyEncoding.STRING) {
+            binaries(cacheName).remove(key.compact());
+        }
+    }
+
+    /**
+     * @return the subset of the given keys that exist in the map, resolved with one getAll per encoding
+     */
+    Set<Key> existingKeys(String cacheName, Collection<Key> keys) {
+        var encoding = keyEncoding.get();
+        var existing = new HashSet<Key>();
+
+        if (encoding != KeyEncoding.COMPACT) {
+            var byValue = HashMap.<String, Key>newHashMap(keys.size());
+            keys.forEach(key -> byValue.put(key.value(), key));
+            strings(cacheName).getAll(byValue.keySet()).keySet().forEach(value -> existing.add(byValue.get(value)));
+        }
+
+        if (encoding != KeyEncoding.STRING) {
+            // byte arrays do not implement equals, so the returned keys are matched by their content
+            var byCompact = HashMap.<ByteBuffer, Key>newHashMap(keys.size());
+            var compactKeys = new ArrayList<byte[]>(keys.size());
+            keys.forEach(key -> {
+                byCompact.put(ByteBuffer.wrap(key.compact()), key);
+                compactKeys.add(key.compact());
+            });
+            binaries(cacheName).getAll(new HashSet<>(compactKeys)).keySet().forEach(compact -> existing.add(byCompact.get(ByteBuffer.wrap(compact))));
+        }
+
+        return existing;
+    }
+
+    /**
+     * Issues all writes without waiting for each other.
+     *
+     * @return a future that completes once all writes have been acknowledged
+     */
+    CompletableFuture<Void> setAllAsync(String cacheName, Map<Key, String> entries, long ttlInSeconds, long maxIdleInSeconds) {
+        var encoding = keyEncoding.get();
+        var futures = new ArrayList<CompletableFuture<?>>(encoding == KeyEncoding.DUAL ? 2 * entries.size() : entries.size());
+
+        if (encoding != KeyEncoding.COMPACT) {
+            var cache = strings(cacheName);
+            entries.forEach((key, value) -> futures.add(cache.setAsync(key.value(), value, ttlInSeconds, TimeUnit.SECONDS, maxIdleInSeconds, TimeUnit.SECONDS).toCompletableFuture()));
+        }
+        if (encoding != KeyEncoding.STRING) {
+            var cache = binaries(cacheName);
+            entries.forEach((key, value) -> futures.add(cache.setAsync(key.compact(), CompactKeyEncoder.encodeValue(value), ttlInSeconds, TimeUnit.SECONDS, maxIdleInSeconds, TimeUnit.SECONDS).toCompletableFuture()));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new));
+    }
+
+    CompletionStage<String> getAsync(String cacheName, Key key) {
+        return switch (keyEncoding.get()) {
+            case STRING -> strings(cacheName).getAsync(key.value());
+            case COMPACT -> binaries(cacheName).getAsync(key.compact()).thenApply(CompactKeyEncoder::decodeValue);
+            case DUAL -> binaries(cacheName).getAsync(key.compact()).thenCompose(value -> value != null
+                    ? CompletableFuture.completedFuture(CompactKeyEncoder.decodeValue(value))
+                    : strings(cacheName).getAsync(key.value()));
+        };
+    }
+
+    CompletionStage<String> putAsync(String cacheName, Key key, String value, long ttlInSeconds, long maxIdleInSeconds) {
+        return switch (keyEncoding.get()) {
+            case STRING -> strings(cacheName).putAsync(key.value(), value, ttlInSeconds, TimeUnit.SECONDS, maxIdleInSeconds, TimeUnit.SECONDS);
+            case COMPACT -> binaries(cacheName).putAsync(key.compact(), CompactKeyEncoder.encodeValue(value), ttlInSeconds, TimeUnit.SECONDS, maxIdleInSeconds, TimeUnit.SECONDS)
+                    .thenApply(CompactKeyEncoder::decodeValue);
+            case DUAL -> binaries(cacheName).putAsync(key.compact(), CompactKeyEncoder.encodeValue(value), ttlInSeconds, TimeUnit.SECONDS, maxIdleInSeconds, TimeUnit.SECONDS)
+                    .thenCombine(strings(cacheName).putAsync(key.value(), value, ttlInSeconds, TimeUnit.SECONDS, maxIdleInSeconds, TimeUnit.SECONDS),
+                            (oldValue, oldStringValue) -> oldValue != null ? CompactKeyEncoder.decodeValue(oldValue) : oldStringValue);
+        };
+    }
+
+    CompletionStage<Void> removeAsync(String cacheName, Key key) {
+        return switch (keyEncoding.get()) {
+            case STRING -> strings(cacheName).removeAsync(key.value()).thenApply(oldValue -> null);
+            case COMPACT -> binaries(cacheName).removeAsync(key.compact()).thenApply(oldValue -> null);
+            case DUAL -> binaries(cacheName).removeAsync(key.compact())
+                    .thenCombine(strings(cacheName).removeAsync(key.value()), (oldValue, oldStringValue) -> null);
+        };
+    }
+
+    /**
+     * Listens to entries added by any instance, in both encodings. String keys are passed on as they are, compact keys
+     * as byte arrays.
+     */
+    void addEntryAddedListener(String cacheName, Consumer<Object> keyConsumer) {
+        EntryAddedListener<Object, Object> listener = event -> keyConsumer.accept(event.getKey());
+        hazelcastInstance.<Object, Object>getMap(cacheName).addEntryListener(listener, false);
+    }
+
+    private IMap<String, String> strings(String cacheName) {
+        return hazelcastInstance.getMap(cacheName);
+    }
+
+    private IMap<byte[], byte[]> binaries(String cacheName) {
+        return hazelcastInstance.getMap(cacheName);
+    }
+
+    /**
+     * A de-duplication key in its string and, unless only strings are used, its compact form.
+     */
+    record Key(String value, byte[] compact) {
+    }
+}
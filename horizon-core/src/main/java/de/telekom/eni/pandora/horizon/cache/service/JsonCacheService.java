@@ -7,12 +7,15 @@ package de.telekom.eni.pandora.horizon.cache.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hazelcast.client.HazelcastClientOfflineException;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.HazelcastJsonValue;
 import com.hazelcast.map.IMap;
 import de.telekom.eni.pandora.horizon.cache.fallback.JsonCacheFallback;
 import de.telekom.eni.pandora.horizon.cache.listener.AbstractHazelcastJsonEntryMapEventBroadcaster;
 import de.telekom.eni.pandora.horizon.cache.listener.AbstractHazelcastJsonEvent;
+import de.telekom.eni.pandora.horizon.cache.util.NearCache;
 import de.telekom.eni.pandora.horizon.cache.util.Query;
 import de.telekom.eni.pandora.horizon.exception.JsonCacheException;
 import lombok.Getter;
@@ -32,9 +35,22 @@ public class JsonCacheService<T> {
     @Setter
     private JsonCacheFallback<T> jsonCacheFallback;
 
-    @Setter
     private AbstractHazelcastJsonEntryMapEventBroadcaster<? extends AbstractHazelcastJsonEvent<T>> jsonEntryMapEventBroadcaster;
 
+    /**
+     * Optional local cache of already mapped values used by {@link #getByKey(String)}.
+     * Entries are invalidated through the {@link #jsonEntryMapEventBroadcaster}, so a near cache should only be
+     * set together with a broadcaster. The returned values are shared and must not be modified by callers.
+     */
+    @Setter
+    private NearCache<T> nearCache;
+
+    /**
+     * Indexes that are known to exist on the map, see {@link de.telekom.eni.pandora.horizon.cache.util.MapIndexProvisioner}.
+     */
+    @Setter
+    private List<IndexConfig> indexConfigs = List.of();
+
     @Getter
     private IMap<String, HazelcastJsonValue> map;
 
@@ -54,23 +70,60 @@ public class JsonCacheService<T> {
         this.cacheMapName = cacheMapName;
     }
 
+    public void setJsonEntryMapEventBroadcaster(AbstractHazelcastJsonEntryMapEventBroadcaster<? extends AbstractHazelcastJsonEvent<T>> jsonEntryMapEventBroadcaster) {
+        this.jsonEntryMapEventBroadcaster = jsonEntryMapEventBroadcaster;
+
+        if (jsonEntryMapEventBroadcaster != null) {
+            jsonEntryMapEventBroadcaster.addInvalidationListener(this::invalidateNearCache);
+        }
+    }
+
     public Optional<T> getByKey(String key) throws JsonCacheException {
+        if (nearCache != null) {
+            var cachedValue = nearCache.get(key);
+            if (cachedValue.isPresent()) {
+                return cachedValue;
+            }
+        }
+
         IMap<String, HazelcastJsonValue> map = getCacheMap();
 
         if (map != null) {
-            HazelcastJsonValue value = map.get(key);
+            // taken before the read, so that a value invalidated while it is being read is not cached
+            var stamp = nearCache != null ? nearCache.stamp(key) : 0L;
+
+            HazelcastJsonValue value;
+            try {
+                value = map.get(key);
+            } catch (HazelcastClientOfflineException e) {
+                handleOffline(e);
+                return getByKeyFromFallback(key);
+            }
+
             if (value != null) {
                 try {
                     T mappedValue = mapper.readValue(value.getValue(), mapClass);
                     log.debug("Hazelcast getByKey result {}: {}", key, mappedValue);
 
+                    if (nearCache != null) {
+                        nearCache.put(key, mappedValue, stamp);
+                    }
+
                     return Optional.of(mappedValue);
                 } catch (JsonProcessingException e) {
                     String msg = String.format("Could not map %s from hazelcast map %s to %s", key, map.getName(), mapClass.getName());
                     throw new JsonCacheException(msg, e);
                 }
             }
-        } else if (jsonCacheFallback != null) {
+        } else {
+            return getByKeyFromFallback(key);
+        }
+
+        return Optional.empty();
+    }
+
+    private Optional<T> getByKeyFromFallback(String key) throws JsonCacheException {
+        if (jsonCacheFallback != null) {
             return jsonCacheFallback.getByKey(key);
         }
 
@@ -82,27 +135,65 @@ public class JsonCacheService<T> {
         Collection<HazelcastJsonValue> values;
 
         if (map != null) {
-            values = map.values(query.toSqlPredicate()); //list of subscription resources
-            List<T> result = mapAll(values);
-            log.debug("Hazelcast getQuery result: {}", result);
-            return result;
+            if (log.isDebugEnabled() && !isServedByIndex(query)) {
+                log.debug("Query {} on hazelcast map {} is not served by an index and requires a full scan", query, cacheMapName);
+            }
+
+            try {
+                values = map.values(query.toPredicate()); //list of subscription resources
+                List<T> result = mapAll(values);
+                log.debug("Hazelcast getQuery result: {}", result);
+                return result;
+            } catch (HazelcastClientOfflineException e) {
+                handleOffline(e);
+            }
         }
-        else if (jsonCacheFallback != null) {
+
+        if (jsonCacheFallback != null) {
             return jsonCacheFallback.getQuery(query);
         }
 
         return null;
     }
 
+    /**
+     * Tells whether hazelcast can use one of the {@link #indexConfigs} for the given query.
+     * <p>
+     * Hazelcast clients can not observe the plan of a query, so this is derived from the index rules instead:
+     * a hash or bitmap index is used when all of its attributes are matched, a sorted index already when its
+     * first attribute is matched. The remaining matchers of the query are then evaluated on the indexed result.
+     */
+    public boolean isServedByIndex(Query query) {
+        var attributes = query.getAttributes();
+
+        for (var indexConfig : indexConfigs) {
+            var indexAttributes = indexConfig.getAttributes();
+            if (indexAttributes.isEmpty()) {
+                continue;
+            }
+
+            if (indexConfig.getType() == IndexType.SORTED ? attributes.contains(indexAttributes.getFirst()) : attributes.containsAll(indexAttributes)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     public List<T> getAll() throws JsonCacheException {
         IMap<String, HazelcastJsonValue> map = getCacheMap();
         Collection<HazelcastJsonValue> values;
 
         if (map != null) {
-            values = map.values();
-            return mapAll(values);
+            try {
+                values = map.values();
+                return mapAll(values);
+            } catch (HazelcastClientOfflineException e) {
+                handleOffline(e);
+            }
         }
-        else if (jsonCacheFallback != null) {
+
+        if (jsonCacheFallback != null) {
             return jsonCacheFallback.getAll();
         }
 
@@ -115,6 +206,7 @@ public class JsonCacheService<T> {
                 var jsonValue = mapper.writeValueAsString(value);
                 var hazelcastValue = new HazelcastJsonValue(jsonValue);
                 map.set(key, hazelcastValue);
+                invalidateNearCache(key);
             } catch (JsonProcessingException e) {
                 var msg = String.format("Could not set value of %s in hazelcast map %s: %s", key, map.getName(), e.getMessage());
                 throw new JsonCacheException(msg, e);
@@ -125,9 +217,21 @@ public class JsonCacheService<T> {
     public void remove(String key) {
         if (map != null) {
             map.remove(key);
+            invalidateNearCache(key);
         }
     }
 
+    private void invalidateNearCache(String key) {
+        if (nearCache != null) {
+            nearCache.invalidate(key);
+        }
+    }
+
+    private void handleOffline(HazelcastClientOfflineException e) {
+        log.warn("Hazelcast map is not available, using MongoDB instead " + e.getMessage());
+        map = null; // stay null to retry later and register the listener again
+    }
+
     private List<T> mapAll(Collection<HazelcastJsonValue> values) throws JsonCacheException {
         var mappedValues = new ArrayList<T>();
 
@@ -151,15 +255,18 @@ public class JsonCacheService<T> {
                 }
 
                 map = hazelcastInstance.getMap(cacheMapName);
-                int mapSize = map.size();
 
                 if (!listenerAdded && jsonEntryMapEventBroadcaster != null) {
                     map.addEntryListener(jsonEntryMapEventBroadcaster, true);
                     listenerAdded = true;
+
+                    // invalidations might have been missed while no listener was registered
+                    if (nearCache != null) {
+                        nearCache.invalidateAll();
+                    }
                 }
             } catch (HazelcastClientOfflineException e) {
-                log.warn("Hazelcast map is not available, using MongoDB instead " + e.getMessage());
-                map = null; // stay null to retry later
+                handleOffline(e);
             }
         return map;
     }
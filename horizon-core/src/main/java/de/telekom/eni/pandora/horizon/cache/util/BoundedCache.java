@@ -0,0 +1,100 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.cache.util;
+
+import lombok.Getter;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process cache with a size bound for values that are expensive to create and used from hot paths.
+ * <p>
+ * Reads and writes do not lock. Once the size bound is exceeded, the least recently used tenth of the entries is
+ * evicted, so that frequently used values stay cached even if there are many rarely used ones. The eviction is
+ * approximate: entries added concurrently can exceed the bound until the next eviction.
+ *
+ * @param <K> type of the keys, which must not be modified after they have been added
+ * @param <V> type of the cached values
+ */
+public class BoundedCache<K, V> {
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    @Getter
+    private final int maxSize;
+
+    private final LongSupplier nanoClock;
+
+    public BoundedCache(int maxSize) {
+        this(maxSize, System::nanoTime);
+    }
+
+    BoundedCache(int maxSize, LongSupplier nanoClock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+
+        this.maxSize = maxSize;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * @return the cached value, or null if there is none
+     */
+    public V get(K key) {
+        var entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        entry.lastAccess = nanoClock.getAsLong();
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        entries.put(key, new Entry<>(value, nanoClock.getAsLong()));
+
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    public void remove(K key) {
+        entries.remove(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized void evict() {
+        var overflow = entries.size() - maxSize;
+        if (overflow <= 0) {
+            return;
+        }
+
+        entries.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .limit(overflow + maxSize / 10)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(entries::remove);
+    }
+
+    private static class Entry<V> {
+
+        private final V value;
+
+        private volatile long lastAccess;
+
+        private Entry(V value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
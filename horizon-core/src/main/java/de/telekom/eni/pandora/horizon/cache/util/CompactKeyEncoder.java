@@ -0,0 +1,107 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.cache.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+/**
+ * Binary encoding of de-duplication keys and values.
+ * <p>
+ * A key of the form {@code <uuid>--<subscriptionId>} becomes 32 bytes: 16 bytes for each part. A part is stored as its
+ * 128 bits if it is a UUID in canonical form, otherwise as the first 16 bytes of its SHA-256 hash. Keys without
+ * separator are stored as 16 bytes the same way. Values are stored as a marker byte followed by either the 128 bits
+ * of a canonical UUID or the UTF-8 bytes of any other string, so every value can be decoded again.
+ */
+public final class CompactKeyEncoder {
+
+    public static final String SEPARATOR = "--";
+
+    private static final int PART_LENGTH = 16;
+
+    private static final byte VALUE_STRING = 0;
+
+    private static final byte VALUE_UUID = 1;
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private CompactKeyEncoder() {
+    }
+
+    public static byte[] encodeKey(String key) {
+        var separatorIndex = key.indexOf(SEPARATOR);
+        if (separatorIndex < 0) {
+            return encodePart(key, ByteBuffer.allocate(PART_LENGTH)).array();
+        }
+
+        var buffer = ByteBuffer.allocate(2 * PART_LENGTH);
+        encodePart(key.substring(0, separatorIndex), buffer);
+        encodePart(key.substring(separatorIndex + SEPARATOR.length()), buffer);
+        return buffer.array();
+    }
+
+    public static byte[] encodeValue(String value) {
+        var uuid = parseCanonicalUuid(value);
+        if (uuid != null) {
+            return ByteBuffer.allocate(1 + PART_LENGTH)
+                    .put(VALUE_UUID)
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits())
+                    .array();
+        }
+
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        var encoded = new byte[bytes.length + 1];
+        encoded[0] = VALUE_STRING;
+        System.arraycopy(bytes, 0, encoded, 1, bytes.length);
+        return encoded;
+    }
+
+    public static String decodeValue(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value.length == 1 + PART_LENGTH && value[0] == VALUE_UUID) {
+            var buffer = ByteBuffer.wrap(value, 1, PART_LENGTH);
+            return new UUID(buffer.getLong(), buffer.getLong()).toString();
+        }
+
+        return new String(value, 1, value.length - 1, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer encodePart(String part, ByteBuffer buffer) {
+        var uuid = parseCanonicalUuid(part);
+        if (uuid != null) {
+            return buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        }
+
+        var hash = SHA_256.get().digest(part.getBytes(StandardCharsets.UTF_8));
+        return buffer.put(hash, 0, PART_LENGTH);
+    }
+
+    // only canonical UUIDs are packed, so that decoding returns exactly the original string
+    private static UUID parseCanonicalUuid(String value) {
+        if (value.length() != 36 || value.charAt(8) != '-') {
+            return null;
+        }
+
+        try {
+            var uuid = UUID.fromString(value);
+            return uuid.toString().equals(value) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
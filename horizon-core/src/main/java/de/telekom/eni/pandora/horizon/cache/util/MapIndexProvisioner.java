@@ -0,0 +1,53 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.cache.util;
+
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.map.IMap;
+import de.telekom.eni.pandora.horizon.cache.config.CacheProperties;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Makes sure that the indexes configured in {@link CacheProperties.IndexProperties} exist on a map.
+ * <p>
+ * Adding an index that already exists with the same configuration is a no-op for hazelcast, so this can safely be done
+ * by every instance on startup.
+ */
+@Slf4j
+@AllArgsConstructor
+public class MapIndexProvisioner {
+
+    private final CacheProperties.IndexProperties indexProperties;
+
+    /**
+     * @return the indexes that exist on the map afterwards, to be passed to
+     * {@link de.telekom.eni.pandora.horizon.cache.service.JsonCacheService#setIndexConfigs(List)}
+     */
+    public List<IndexConfig> provision(IMap<?, ?> map) {
+        var indexConfigs = new ArrayList<IndexConfig>();
+        if (!indexProperties.isEnabled() || map == null) {
+            return indexConfigs;
+        }
+
+        var definitions = indexProperties.getDefinitions().getOrDefault(map.getName(), List.of());
+        for (var definition : definitions) {
+            var indexConfig = new IndexConfig(definition.getType(), definition.getAttributes().toArray(String[]::new));
+
+            try {
+                map.addIndex(indexConfig);
+                indexConfigs.add(indexConfig);
+                log.info("Ensured {} index on {} for hazelcast map {}", definition.getType(), definition.getAttributes(), map.getName());
+            } catch (Exception e) {
+                log.error("Could not add {} index on {} for hazelcast map {}", definition.getType(), definition.getAttributes(), map.getName(), e);
+            }
+        }
+
+        return indexConfigs;
+    }
+}
@@ -0,0 +1,167 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.cache.util;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Small in-process cache for already deserialized values with a time to live and a size bound.
+ * <p>
+ * Reads are lock free. Once the size bound is exceeded, the least recently used tenth of the entries is evicted.
+ * Values are shared between all callers and must therefore be treated as read-only.
+ * <p>
+ * Values loaded from a remote source can be invalidated while they are being loaded. Callers therefore take a
+ * {@link #stamp(String)} before loading and pass it to {@link #put(String, Object, long)}, which drops the value if
+ * the key has been invalidated in between.
+ *
+ * @param <T> type of the cached values
+ */
+public class NearCache<T> {
+
+    private static final int GENERATION_STRIPES = 64;
+
+    private final ConcurrentHashMap<String, Entry<T>> entries = new ConcurrentHashMap<>();
+
+    // invalidation generations, striped by key so that they do not have to be kept per key
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @Getter
+    private final int maxSize;
+
+    private final long ttlInNanos;
+
+    private final LongSupplier nanoClock;
+
+    public NearCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    NearCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+
+        this.maxSize = maxSize;
+        this.ttlInNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    public Optional<T> get(String key) {
+        var entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+
+        var now = nanoClock.getAsLong();
+        if (now - entry.createdAt >= ttlInNanos) {
+            entries.remove(key, entry);
+            return Optional.empty();
+        }
+
+        entry.lastAccess = now;
+        return Optional.of(entry.value);
+    }
+
+    public void put(String key, T value) {
+        put(key, value, stamp(key));
+    }
+
+    /**
+     * Returns the invalidation generation of the key, to be passed to {@link #put(String, Object, long)} once the
+     * value has been loaded.
+     */
+    public long stamp(String key) {
+        return generations.get(stripe(key));
+    }
+
+    /**
+     * Caches the value unless the key has been invalidated since the given {@link #stamp(String)} was taken.
+     *
+     * @return whether the value has been cached
+     */
+    public boolean put(String key, T value, long stamp) {
+        var stripe = stripe(key);
+        if (generations.get(stripe) != stamp) {
+            return false;
+        }
+
+        var entry = new Entry<>(value, nanoClock.getAsLong());
+        entries.put(key, entry);
+
+        // an invalidation that has not seen the new entry has already advanced the generation
+        if (generations.get(stripe) != stamp) {
+            entries.remove(key, entry);
+            return false;
+        }
+
+        if (entries.size() > maxSize) {
+            evict();
+        }
+
+        return true;
+    }
+
+    public void invalidate(String key) {
+        generations.incrementAndGet(stripe(key));
+        entries.remove(key);
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static int stripe(String key) {
+        return (key.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+
+    private synchronized void evict() {
+        if (entries.size() <= maxSize) {
+            return;
+        }
+
+        var now = nanoClock.getAsLong();
+        entries.entrySet().removeIf(e -> now - e.getValue().createdAt >= ttlInNanos);
+
+        var overflow = entries.size() - maxSize;
+        if (overflow > 0) {
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                    .limit(overflow + maxSize / 10)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entries::remove);
+        }
+    }
+
+    private static class Entry<T> {
+
+        private final T value;
+
+        private final long createdAt;
+
+        private volatile long lastAccess;
+
+        private Entry(T value, long createdAt) {
+            this.value = value;
+            this.createdAt = createdAt;
+            this.lastAccess = createdAt;
+        }
+    }
+}
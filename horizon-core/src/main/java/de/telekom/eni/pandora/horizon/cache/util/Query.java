@@ -16,6 +16,12 @@ import static java.lang.String.format;
 @Builder
 public class Query {
 
+    static final int MAX_CACHED_PREDICATES = 1024;
+
+    // compiled predicates are immutable, so they can be shared between all queries with the same matchers. The least
+    // recently used predicates are evicted, so that frequent queries stay cached even if there are many rare ones
+    private static final BoundedCache<Map<String, List<Object>>, Predicate<?, ?>> PREDICATE_CACHE = new BoundedCache<>(MAX_CACHED_PREDICATES);
+
     @NonNull
     private Class<?> type;
 
@@ -26,6 +32,43 @@ public class Query {
         return Predicates.sql(toString());
     }
 
+    /**
+     * Returns a typed predicate that matches the same entries as {@link #toSqlPredicate()}, but does not have to be
+     * rendered and parsed again by hazelcast. Predicates are compiled once per distinct set of matchers and about the
+     * {@value #MAX_CACHED_PREDICATES} most recently used ones are cached. Cache hits do not lock.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Predicate<String, T> toPredicate() {
+        var predicate = PREDICATE_CACHE.get(matchers);
+        if (predicate == null) {
+            predicate = compile();
+
+            var key = new HashMap<String, List<Object>>();
+            matchers.forEach((attribute, values) -> key.put(attribute, new ArrayList<>(values)));
+            PREDICATE_CACHE.put(key, predicate);
+        }
+
+        return (Predicate<String, T>) predicate;
+    }
+
+    // the sql parser hands over all values as strings and leaves the conversion to the attribute type to hazelcast
+    private Predicate<?, ?> compile() {
+        var predicates = new ArrayList<Predicate<?, ?>>(matchers.size());
+        matchers.forEach((attribute, values) -> {
+            if (values.size() == 1) {
+                predicates.add(Predicates.equal(attribute, toComparable(values.get(0))));
+            } else {
+                predicates.add(Predicates.in(attribute, values.stream().map(Query::toComparable).toArray(Comparable[]::new)));
+            }
+        });
+
+        return predicates.size() == 1 ? predicates.get(0) : Predicates.and(predicates.toArray(Predicate[]::new));
+    }
+
+    private static Comparable<?> toComparable(Object value) {
+        return value == null ? null : String.valueOf(value);
+    }
+
     @Override
     public String toString() {
         var query = new StringBuilder();
@@ -52,6 +95,10 @@ public class Query {
         return query.toString();
     }
 
+    public Set<String> getAttributes() {
+        return Collections.unmodifiableSet(matchers.keySet());
+    }
+
     public String getEventType() {
         if (matchers.containsKey("spec.subscription.type")) {
             List<Object> values = matchers.get("spec.subscription.type");
@@ -0,0 +1,195 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.cache.util;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Bloom filter that forgets keys after a given lifetime.
+ * <p>
+ * The lifetime is split into {@code windows - 1} equally long time windows with one bit array each. Keys are added to
+ * the array of the current window and looked up in all of them. When a new window starts, the array of the oldest window
+ * is cleared and reused, so a key is remembered for at least the lifetime and at most one window longer.
+ * <p>
+ * Every array is sized for {@code expectedInsertions} keys and the given false positive probability. Since a lookup
+ * checks all windows, the effective false positive probability is up to {@code windows} times higher.
+ */
+public class RotatingBloomFilter {
+
+    private final AtomicLongArray[] windows;
+
+    private final int bitsPerWindow;
+
+    private final int hashFunctions;
+
+    private final long windowLengthInMillis;
+
+    private final long lifetimeInMillis;
+
+    private final LongSupplier clock;
+
+    private final long startedAt;
+
+    private volatile long currentEpoch;
+
+    @Getter
+    private final long memoryInBytes;
+
+    public RotatingBloomFilter(long expectedInsertions, double fpp, int windows, Duration lifetime) {
+        this(expectedInsertions, fpp, windows, lifetime, System::currentTimeMillis);
+    }
+
+    RotatingBloomFilter(long expectedInsertions, double fpp, int windows, Duration lifetime, LongSupplier clock) {
+        if (expectedInsertions <= 0 || fpp <= 0 || fpp >= 1 || windows < 2 || lifetime.toMillis() <= 0) {
+            throw new IllegalArgumentException("Invalid bloom filter configuration");
+        }
+
+        var bits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.bitsPerWindow = (int) Math.min(Math.max(64, bits), (long) Integer.MAX_VALUE - 63);
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitsPerWindow / expectedInsertions * Math.log(2)));
+
+        var words = (bitsPerWindow + 63) / 64;
+        this.windows = new AtomicLongArray[windows];
+        for (int i = 0; i < windows; i++) {
+            this.windows[i] = new AtomicLongArray(words);
+        }
+
+        this.memoryInBytes = (long) words * Long.BYTES * windows;
+        this.lifetimeInMillis = lifetime.toMillis();
+        this.windowLengthInMillis = Math.max(1, lifetimeInMillis / (windows - 1));
+        this.clock = clock;
+        this.startedAt = clock.getAsLong();
+    }
+
+    public void put(String key) {
+        put(hash(key));
+    }
+
+    public void put(byte[] key) {
+        put(hash(key));
+    }
+
+    /**
+     * @return false if the key has definitely not been added within the lifetime, true if it might have been
+     */
+    public boolean mightContain(String key) {
+        return mightContain(hash(key));
+    }
+
+    public boolean mightContain(byte[] key) {
+        return mightContain(hash(key));
+    }
+
+    private void put(long hash) {
+        var window = windows[(int) (rotate() % windows.length)];
+
+        var h1 = (int) hash;
+        var h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            var bit = index(h1 + i * h2);
+            var word = bit >>> 6;
+            var mask = 1L << bit;
+
+            // avoid the atomic write for bits that are already set
+            if ((window.get(word) & mask) == 0) {
+                window.getAndUpdate(word, value -> value | mask);
+            }
+        }
+    }
+
+    private boolean mightContain(long hash) {
+        rotate();
+
+        var h1 = (int) hash;
+        var h2 = (int) (hash >>> 32);
+
+        for (var window : windows) {
+            if (contains(window, h1, h2)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * A filter only knows the keys that have been added since it was created. Negative answers are reliable only
+     * after it has been running for the full lifetime.
+     */
+    public boolean isWarm() {
+        return clock.getAsLong() - startedAt >= lifetimeInMillis;
+    }
+
+    private boolean contains(AtomicLongArray window, int h1, int h2) {
+        for (int i = 1; i <= hashFunctions; i++) {
+            var bit = index(h1 + i * h2);
+            if ((window.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private long rotate() {
+        var epoch = (clock.getAsLong() - startedAt) / windowLengthInMillis;
+        if (epoch > currentEpoch) {
+            synchronized (this) {
+                // clear every window that has been skipped since the last rotation, but each one only once
+                var from = Math.max(currentEpoch + 1, epoch - windows.length + 1);
+                for (var e = from; e <= epoch; e++) {
+                    clear(windows[(int) (e % windows.length)]);
+                }
+                currentEpoch = Math.max(currentEpoch, epoch);
+            }
+        }
+
+        return epoch;
+    }
+
+    private int index(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % bitsPerWindow;
+    }
+
+    private static void clear(AtomicLongArray window) {
+        for (int i = 0; i < window.length(); i++) {
+            window.set(i, 0L);
+        }
+    }
+
+    // FNV-1a over the chars or bytes of the key, followed by the murmur3 finalizer to spread the bits over both halves
+    private static long hash(String key) {
+        var hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        return mix(hash);
+    }
+
+    private static long hash(byte[] key) {
+        var hash = 0xcbf29ce484222325L;
+        for (var b : key) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,43 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import de.telekom.eni.pandora.horizon.model.event.Event;
+
+import java.io.IOException;
+
+/**
+ * Deserializer of {@link Event#getData()}.
+ * <p>
+ * By default the data is deserialized like any other untyped value. If the source that is being read is passed as
+ * {@link #RAW_DATA_SOURCE} attribute, as done by {@link HorizonJsonCodec#readWithRawData(byte[], Class)}, the data is
+ * kept as {@link RawJson} instead: objects and arrays are skipped by the parser and their text is copied from the
+ * source. Scalars are copied through a tree.
+ */
+public class EventDataDeserializer extends StdDeserializer<Object> {
+
+    public static final String RAW_DATA_SOURCE = "horizon.rawDataSource";
+
+    public EventDataDeserializer() {
+        super(Object.class);
+    }
+
+    @Override
+    public Object deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        var source = ctxt.getAttribute(RAW_DATA_SOURCE);
+        if (source == null) {
+            return ctxt.readValue(p, Object.class);
+        }
+
+        if (p.currentToken().isStructStart() && RawJsonSlice.isSupportedSource(source)) {
+            return RawJsonSlice.skip(p).toRawJson(source);
+        }
+
+        return RawJson.of(ctxt.readTree(p).toString());
+    }
+}
@@ -0,0 +1,144 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.json;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import de.telekom.eni.pandora.horizon.kubernetes.resource.SubscriptionResource;
+import de.telekom.eni.pandora.horizon.model.db.State;
+import de.telekom.eni.pandora.horizon.model.event.StatusMessage;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import de.telekom.eni.pandora.horizon.model.meta.CircuitBreakerMessage;
+import de.telekom.jsonfilter.operator.Operator;
+import de.telekom.jsonfilter.serde.OperatorDeserializer;
+import de.telekom.jsonfilter.serde.OperatorSerializer;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The one {@link ObjectMapper} configuration for the Horizon models, with the {@link Operator} serializers of the json
+ * filter and the java time types registered.
+ * <p>
+ * {@link ObjectReader}s and {@link ObjectWriter}s are immutable and thread-safe. They are built once per type, for the
+ * Horizon models already when the codec is created, so that their serializers are resolved before the first message.
+ * The mapper itself must not be reconfigured after the codec has been created.
+ * <p>
+ * Besides json, the models can be encoded in the binary {@link WireFormat#SMILE} format by a second mapper with the
+ * same modules. Readers and writers for it are built on first use.
+ * <p>
+ * Messages that are only forwarded can be read with {@link #readWithRawData(byte[], Class)}, which keeps the event data
+ * as {@link RawJson} that is written again without being re-encoded.
+ * <p>
+ * Within Spring, the codec is provided as a bean. {@link #getDefault()} is meant for code that is not managed by Spring.
+ */
+public class HorizonJsonCodec {
+
+    private static final List<Class<?>> MODEL_TYPES = List.of(
+            SubscriptionEventMessage.class,
+            StatusMessage.class,
+            SubscriptionResource.class,
+            CircuitBreakerMessage.class,
+            State.class
+    );
+
+    private static final HorizonJsonCodec DEFAULT = new HorizonJsonCodec(false);
+
+    @Getter
+    private final ObjectMapper objectMapper;
+
+    @Getter
+    private final ObjectMapper smileMapper;
+
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, ObjectReader> smileReaders = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, ObjectWriter> smileWriters = new ConcurrentHashMap<>();
+
+    /**
+     * @param blackbird whether to register the {@link BlackbirdModule}, which replaces reflection by generated lambdas
+     *                  for accessing properties
+     */
+    public HorizonJsonCodec(boolean blackbird) {
+        this.objectMapper = configure(new ObjectMapper(), blackbird);
+        this.smileMapper = configure(new ObjectMapper(new SmileFactory()), blackbird);
+
+        MODEL_TYPES.forEach(type -> {
+            readerFor(type);
+            writerFor(type);
+        });
+    }
+
+    public static HorizonJsonCodec getDefault() {
+        return DEFAULT;
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper, boolean blackbird) {
+        mapper.registerModule(operatorModule());
+        mapper.registerModule(new JavaTimeModule());
+        if (blackbird) {
+            mapper.registerModule(new BlackbirdModule());
+        }
+        return mapper;
+    }
+
+    public static Module operatorModule() {
+        var module = new SimpleModule();
+        module.addSerializer(Operator.class, new OperatorSerializer());
+        module.addDeserializer(Operator.class, new OperatorDeserializer());
+        return module;
+    }
+
+    public ObjectReader readerFor(Class<?> type) {
+        var reader = readers.get(type);
+        return reader != null ? reader : readers.computeIfAbsent(type, objectMapper::readerFor);
+    }
+
+    public ObjectWriter writerFor(Class<?> type) {
+        var writer = writers.get(type);
+        return writer != null ? writer : writers.computeIfAbsent(type, objectMapper::writerFor);
+    }
+
+    public ObjectReader readerFor(Class<?> type, WireFormat wireFormat) {
+        if (wireFormat == WireFormat.JSON) {
+            return readerFor(type);
+        }
+
+        var reader = smileReaders.get(type);
+        return reader != null ? reader : smileReaders.computeIfAbsent(type, smileMapper::readerFor);
+    }
+
+    public ObjectWriter writerFor(Class<?> type, WireFormat wireFormat) {
+        if (wireFormat == WireFormat.JSON) {
+            return writerFor(type);
+        }
+
+        var writer = smileWriters.get(type);
+        return writer != null ? writer : smileWriters.computeIfAbsent(type, smileMapper::writerFor);
+    }
+
+    /**
+     * Reads a message, keeping its {@code event.data} as {@link RawJson}.
+     */
+    public <T> T readWithRawData(byte[] source, Class<T> type) throws IOException {
+        return readerFor(type).withAttribute(EventDataDeserializer.RAW_DATA_SOURCE, source).readValue(source);
+    }
+
+    public <T> T readWithRawData(String source, Class<T> type) throws IOException {
+        return readerFor(type).withAttribute(EventDataDeserializer.RAW_DATA_SOURCE, source).readValue(source);
+    }
+}
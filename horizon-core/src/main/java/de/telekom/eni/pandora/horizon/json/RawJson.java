@@ -0,0 +1,80 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.json.JsonGeneratorImpl;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.Serial;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * An already encoded json value, for example the payload of an event that is only forwarded.
+ * <p>
+ * It is written as it is, without being parsed or re-encoded, so it must be valid json. Only generators of other
+ * formats, like {@link WireFormat#SMILE}, have to parse and re-encode it.
+ * {@link HorizonJsonCodec#readWithRawData(byte[], Class)} deserializes {@code event.data} into a {@code RawJson} instead
+ * of a tree of maps and lists.
+ */
+@Getter
+@EqualsAndHashCode
+public final class RawJson implements JsonSerializable, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 100L;
+
+    private final String json;
+
+    private RawJson(String json) {
+        this.json = Objects.requireNonNull(json, "json must not be null");
+    }
+
+    public static RawJson of(String json) {
+        return new RawJson(json);
+    }
+
+    public static RawJson of(byte[] json) {
+        return new RawJson(new String(json, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deserializes the value, e.g. to apply filters to it.
+     */
+    public <T> T readAs(Class<T> type) throws IOException {
+        return HorizonJsonCodec.getDefault().readerFor(type).readValue(json);
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        if (gen instanceof JsonGeneratorImpl) {
+            gen.writeRawValue(json);
+            return;
+        }
+
+        try (var parser = HorizonJsonCodec.getDefault().getObjectMapper().createParser(json)) {
+            parser.nextToken();
+            gen.copyCurrentStructure(parser);
+        }
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer) throws IOException {
+        // the value is written as it is, type information would have to be part of it already
+        serialize(gen, serializers);
+    }
+
+    @Override
+    public String toString() {
+        return json;
+    }
+}
@@ -0,0 +1,61 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.json;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The position of an object or array within the source it has been parsed from, which is either a {@code byte[]} of
+ * utf-8 or a {@link String}. Offset and length count bytes for the former and chars for the latter, so that the value
+ * can be copied from the source without being parsed or re-encoded.
+ */
+record RawJsonSlice(int offset, int length) {
+
+    /**
+     * Skips the object or array at the current token of the parser and returns its position.
+     */
+    static RawJsonSlice skip(JsonParser parser) throws IOException {
+        // the token location points at the opening bracket, the location after skipping behind the closing one
+        var start = offset(parser.currentTokenLocation());
+        parser.skipChildren();
+        var end = offset(parser.currentLocation());
+
+        return new RawJsonSlice((int) start, (int) (end - start));
+    }
+
+    static boolean isSupportedSource(Object source) {
+        return source instanceof byte[] || source instanceof String;
+    }
+
+    String toString(Object source) {
+        return switch (source) {
+            case byte[] bytes -> new String(bytes, offset, length, StandardCharsets.UTF_8);
+            case String string -> string.substring(offset, offset + length);
+            default -> throw new IllegalArgumentException("Unsupported source " + source.getClass().getName());
+        };
+    }
+
+    byte[] toBytes(Object source) {
+        return switch (source) {
+            case byte[] bytes -> Arrays.copyOfRange(bytes, offset, offset + length);
+            case String string -> string.substring(offset, offset + length).getBytes(StandardCharsets.UTF_8);
+            default -> throw new IllegalArgumentException("Unsupported source " + source.getClass().getName());
+        };
+    }
+
+    RawJson toRawJson(Object source) {
+        return RawJson.of(toString(source));
+    }
+
+    // parsers of byte sources only count bytes, parsers of char sources only chars
+    private static long offset(JsonLocation location) {
+        return location.getByteOffset() >= 0 ? location.getByteOffset() : location.getCharOffset();
+    }
+}
@@ -0,0 +1,130 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.json;
+
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import de.telekom.eni.pandora.horizon.model.event.Status;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * The routing relevant fields of a serialized {@link SubscriptionEventMessage}, as read by the
+ * {@link SubscriptionEventEnvelopeReader}.
+ * <p>
+ * {@code event.data} is not deserialized while reading the envelope, only its position in the source is remembered.
+ * It is deserialized on the first call of {@link #getData()}, while {@link #getRawData()} gives access to the encoded
+ * value without deserializing it at all. The whole message can still be read with {@link #toSubscriptionEventMessage()}.
+ * <p>
+ * An envelope keeps a reference to its source, which must therefore not be modified. It is not thread-safe.
+ * Envelopes read from a {@link String} keep the string and only encode {@code event.data} to bytes if it is requested
+ * as bytes.
+ */
+public class SubscriptionEventEnvelope {
+
+    @Getter
+    private final String uuid;
+
+    @Getter
+    private final String environment;
+
+    @Getter
+    private final String subscriptionId;
+
+    @Getter
+    private final DeliveryType deliveryType;
+
+    @Getter
+    private final String multiplexedFrom;
+
+    @Getter
+    private final Status status;
+
+    @Getter
+    private final String eventId;
+
+    @Getter
+    private final String eventType;
+
+    private final HorizonJsonCodec jsonCodec;
+
+    // byte[] or String
+    private final Object source;
+
+    private final RawJsonSlice dataSlice;
+
+    private Object data;
+
+    private boolean dataRead;
+
+    SubscriptionEventEnvelope(SubscriptionEventEnvelopeReader.Fields fields, HorizonJsonCodec jsonCodec, Object source) {
+        this.uuid = fields.uuid;
+        this.environment = fields.environment;
+        this.subscriptionId = fields.subscriptionId;
+        this.deliveryType = fields.deliveryType;
+        this.multiplexedFrom = fields.multiplexedFrom;
+        this.status = fields.status;
+        this.eventId = fields.eventId;
+        this.eventType = fields.eventType;
+        this.jsonCodec = jsonCodec;
+        this.source = source;
+        this.dataSlice = fields.dataSlice;
+        this.data = fields.data;
+        this.dataRead = fields.dataSlice == null;
+    }
+
+    /**
+     * @return whether {@code event.data} is an object or array whose deserialization has been deferred
+     */
+    public boolean hasRawData() {
+        return dataSlice != null;
+    }
+
+    /**
+     * @return the deserialized {@code event.data}, deserialized on the first call
+     */
+    public Object getData() throws IOException {
+        if (!dataRead) {
+            var reader = jsonCodec.readerFor(Object.class);
+            data = source instanceof byte[] bytes
+                    ? reader.readValue(bytes, dataSlice.offset(), dataSlice.length())
+                    : reader.readValue(dataSlice.toString(source));
+            dataRead = true;
+        }
+
+        return data;
+    }
+
+    /**
+     * @return a read-only view of the encoded {@code event.data} within the source, or null if it was a scalar value.
+     * For envelopes read from a {@link String}, the data is encoded on every call.
+     */
+    public ByteBuffer getRawData() {
+        if (!hasRawData()) {
+            return null;
+        }
+
+        return source instanceof byte[] bytes
+                ? ByteBuffer.wrap(bytes, dataSlice.offset(), dataSlice.length()).slice().asReadOnlyBuffer()
+                : ByteBuffer.wrap(dataSlice.toBytes(source)).asReadOnlyBuffer();
+    }
+
+    /**
+     * @return a copy of the encoded {@code event.data}, or null if it was a scalar value
+     */
+    public byte[] getRawDataBytes() {
+        return hasRawData() ? dataSlice.toBytes(source) : null;
+    }
+
+    /**
+     * Deserializes the whole message from the source.
+     */
+    public SubscriptionEventMessage toSubscriptionEventMessage() throws IOException {
+        var reader = jsonCodec.readerFor(SubscriptionEventMessage.class);
+        return source instanceof byte[] bytes ? reader.readValue(bytes) : reader.readValue((String) source);
+    }
+}
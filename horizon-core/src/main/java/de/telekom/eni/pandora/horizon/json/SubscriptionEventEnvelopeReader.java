@@ -0,0 +1,128 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import de.telekom.eni.pandora.horizon.model.event.Status;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+
+import java.io.IOException;
+
+/**
+ * Reads {@link SubscriptionEventEnvelope}s from serialized {@link SubscriptionEventMessage}s with a streaming
+ * {@link JsonParser}.
+ * <p>
+ * Only the fields needed for routing and de-duplication are read. Everything else, including the http headers and the
+ * additional fields, is skipped without being deserialized. Objects and arrays in {@code event.data} are skipped as
+ * well and only their position is kept, so that forwarding a message does not allocate a tree for its payload.
+ */
+public class SubscriptionEventEnvelopeReader {
+
+    private final HorizonJsonCodec jsonCodec;
+
+    public SubscriptionEventEnvelopeReader() {
+        this(HorizonJsonCodec.getDefault());
+    }
+
+    public SubscriptionEventEnvelopeReader(HorizonJsonCodec jsonCodec) {
+        this.jsonCodec = jsonCodec;
+    }
+
+    public SubscriptionEventEnvelope read(String source) throws IOException {
+        try (var parser = jsonCodec.getObjectMapper().createParser(source)) {
+            return read(parser, source);
+        }
+    }
+
+    public SubscriptionEventEnvelope read(byte[] source) throws IOException {
+        try (var parser = jsonCodec.getObjectMapper().createParser(source)) {
+            return read(parser, source);
+        }
+    }
+
+    private SubscriptionEventEnvelope read(JsonParser parser, Object source) throws IOException {
+        var fields = new Fields();
+
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw MismatchedInputException.from(parser, SubscriptionEventMessage.class, "Expected a json object");
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var name = parser.currentName();
+            parser.nextToken();
+
+            switch (name) {
+                case "uuid" -> fields.uuid = text(parser);
+                case "environment" -> fields.environment = text(parser);
+                case "subscriptionId" -> fields.subscriptionId = text(parser);
+                case "multiplexedFrom" -> fields.multiplexedFrom = text(parser);
+                case "deliveryType" -> fields.deliveryType = parser.readValueAs(DeliveryType.class);
+                case "status" -> fields.status = parser.readValueAs(Status.class);
+                case "event" -> readEvent(parser, fields);
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new SubscriptionEventEnvelope(fields, jsonCodec, source);
+    }
+
+    private static void readEvent(JsonParser parser, Fields fields) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var name = parser.currentName();
+            var token = parser.nextToken();
+
+            switch (name) {
+                case "id" -> fields.eventId = text(parser);
+                case "type" -> fields.eventType = text(parser);
+                case "data" -> {
+                    if (token.isStructStart()) {
+                        fields.dataSlice = RawJsonSlice.skip(parser);
+                    } else {
+                        fields.data = parser.readValueAs(Object.class);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    // skips unexpected objects and arrays, so that they do not end the surrounding loop
+    private static String text(JsonParser parser) throws IOException {
+        var value = parser.getValueAsString();
+        parser.skipChildren();
+        return value;
+    }
+
+    static class Fields {
+
+        String uuid;
+
+        String environment;
+
+        String subscriptionId;
+
+        DeliveryType deliveryType;
+
+        String multiplexedFrom;
+
+        Status status;
+
+        String eventId;
+
+        String eventType;
+
+        Object data;
+
+        RawJsonSlice dataSlice;
+    }
+}
@@ -0,0 +1,54 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.json;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The encodings of the {@link HorizonJsonCodec}.
+ * <p>
+ * {@link #SMILE} is Jackson's binary json format. It encodes the same data model as json, but writes numbers and
+ * lengths in binary and refers back to field names that have already been written within the same document instead
+ * of repeating them.
+ */
+@AllArgsConstructor
+@Getter
+public enum WireFormat {
+
+    JSON("json"),
+    SMILE("smile");
+
+    // every smile document starts with ":)\n" followed by a version and flags byte
+    private static final byte[] SMILE_HEADER = {':', ')', '\n'};
+
+    private final String value;
+
+    public static WireFormat fromValue(String value) {
+        for (var format : values()) {
+            if (format.value.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Invalid wire format: %s", value));
+    }
+
+    /**
+     * Detects the format of the given data by its first bytes, for data that has not been labeled with its format.
+     */
+    public static WireFormat detect(byte[] data) {
+        if (data != null && data.length >= SMILE_HEADER.length) {
+            for (int i = 0; i < SMILE_HEADER.length; i++) {
+                if (data[i] != SMILE_HEADER[i]) {
+                    return JSON;
+                }
+            }
+            return SMILE;
+        }
+
+        return JSON;
+    }
+}
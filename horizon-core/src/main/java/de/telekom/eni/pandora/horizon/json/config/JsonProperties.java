@@ -0,0 +1,18 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.json.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties("horizon.json")
+public class JsonProperties {
+
+    // accesses properties through generated lambdas instead of reflection
+    private boolean blackbird = false;
+}
@@ -0,0 +1,113 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.kafka.compression;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdDictTrainer;
+import lombok.Getter;
+
+import java.util.Collection;
+
+/**
+ * Compresses single record values with a zstd dictionary.
+ * <p>
+ * The producer compresses whole batches, but a batch of small records does not contain enough repetition for a good
+ * ratio. A dictionary trained on sample messages contains what all messages have in common, like field names, event
+ * types and environments, so that even a single record compresses well. Records compressed this way should not be
+ * compressed by the producer again.
+ * <p>
+ * Dictionaries are trained offline with {@link #train(Collection, int)} and must be the same for writers and readers.
+ * Every compressed value references the id of its dictionary, which is checked before decompressing it.
+ * <p>
+ * The buffer for a decompressed value is allocated with the content size declared in its frame, so frames declaring
+ * more than {@link #getMaxDecompressedSize()} bytes are rejected instead of being allocated.
+ */
+public class ZstdDictionaryCompressor {
+
+    public static final String COMPRESSION_TYPE = "zstd";
+
+    // default max.request.size of the producer, which limits values that are not compressed per record
+    public static final int DEFAULT_MAX_DECOMPRESSED_SIZE = 1_048_576;
+
+    // magic number at the start of every zstd frame, little-endian 0xFD2FB528
+    private static final byte[] MAGIC_NUMBER = {0x28, (byte) 0xB5, 0x2F, (byte) 0xFD};
+
+    @Getter
+    private final long dictionaryId;
+
+    private final ZstdDictCompress compressDictionary;
+
+    private final ZstdDictDecompress decompressDictionary;
+
+    @Getter
+    private final int maxDecompressedSize;
+
+    public ZstdDictionaryCompressor(byte[] dictionary, int level) {
+        this(dictionary, level, DEFAULT_MAX_DECOMPRESSED_SIZE);
+    }
+
+    public ZstdDictionaryCompressor(byte[] dictionary, int level, int maxDecompressedSize) {
+        if (maxDecompressedSize <= 0) {
+            throw new IllegalArgumentException("maxDecompressedSize must be greater than 0");
+        }
+
+        this.maxDecompressedSize = maxDecompressedSize;
+        this.dictionaryId = Zstd.getDictIdFromDict(dictionary);
+        if (dictionaryId == 0) {
+            throw new IllegalArgumentException("Not a zstd dictionary");
+        }
+
+        this.compressDictionary = new ZstdDictCompress(dictionary, level);
+        this.decompressDictionary = new ZstdDictDecompress(dictionary);
+    }
+
+    /**
+     * Trains a dictionary on the given serialized messages. Zstd recommends about a hundred times as many sample bytes
+     * as the size of the dictionary.
+     */
+    public static byte[] train(Collection<byte[]> samples, int dictionarySize) {
+        var trainer = new ZstdDictTrainer(samples.stream().mapToInt(sample -> sample.length).sum(), dictionarySize);
+        samples.forEach(trainer::addSample);
+        return trainer.trainSamples();
+    }
+
+    public static boolean isCompressed(byte[] value) {
+        if (value == null || value.length < MAGIC_NUMBER.length) {
+            return false;
+        }
+
+        for (int i = 0; i < MAGIC_NUMBER.length; i++) {
+            if (value[i] != MAGIC_NUMBER[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public byte[] compress(byte[] value) {
+        return Zstd.compress(value, compressDictionary);
+    }
+
+    public byte[] decompress(byte[] value) {
+        var frameDictionaryId = Zstd.getDictIdFromFrame(value);
+        if (frameDictionaryId != dictionaryId) {
+            throw new IllegalArgumentException(String.format("Value has been compressed with dictionary %d instead of %d", frameDictionaryId, dictionaryId));
+        }
+
+        var size = Zstd.getFrameContentSize(value);
+        if (size < 0) {
+            throw new IllegalArgumentException("Value has no valid content size");
+        }
+
+        if (size > maxDecompressedSize) {
+            throw new IllegalArgumentException(String.format("Value declares a content size of %d bytes, which exceeds the maximum of %d bytes", size, maxDecompressedSize));
+        }
+
+        return Zstd.decompress(value, decompressDictionary, (int) size);
+    }
+}
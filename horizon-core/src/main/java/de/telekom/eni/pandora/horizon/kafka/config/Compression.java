@@ -13,4 +13,21 @@ public class Compression {
 
     private String type = "none";
 
+    private Dictionary dictionary = new Dictionary();
+
+    @Data
+    public static class Dictionary {
+
+        // compresses every record value of the ByteArrayEventWriter with a trained zstd dictionary
+        private boolean enabled = false;
+
+        // location of the dictionary, e.g. classpath:horizon.dict or file:/config/horizon.dict
+        private String location;
+
+        private int level = 3;
+
+        // decompressed values larger than this are rejected, defaults to maxRequestSize
+        private Integer maxDecompressedSize;
+    }
+
 }
@@ -4,6 +4,7 @@
 
 package de.telekom.eni.pandora.horizon.kafka.config;
 
+import de.telekom.eni.pandora.horizon.json.WireFormat;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -54,6 +55,16 @@ public class KafkaProperties {
     @Value("${batchSize:16384}")
     private int batchSize;
 
+    @Value("${byteArrayValues:false}")
+    private boolean byteArrayValues;
+
+    // format of the records written by the ByteArrayEventWriter
+    @Value("${wireFormat:JSON}")
+    private WireFormat wireFormat = WireFormat.JSON;
+
+    @Value("${producerProfile:CUSTOM}")
+    private ProducerProfile producerProfile = ProducerProfile.CUSTOM;
+
     private Compression compression = new Compression();
 
 }
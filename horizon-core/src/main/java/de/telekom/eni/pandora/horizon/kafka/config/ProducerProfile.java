@@ -0,0 +1,41 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.kafka.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Presets for the settings that decide how records are batched and compressed by the producer.
+ * <p>
+ * Linger, batch size and compression only pay off together: compression works on whole batches, and batches only fill
+ * up if the producer waits for more records. A profile other than {@link #CUSTOM} therefore sets all three and takes
+ * precedence over {@code lingerMs}, {@code batchSize} and {@code compression}.
+ * <p>
+ * The producer of the {@code ByteArrayEventWriter} does not compress batches if its values are already compressed with
+ * a zstd dictionary ({@code compression.dictionary.enabled}), whatever the profile.
+ */
+@Getter
+@AllArgsConstructor
+public enum ProducerProfile {
+
+    // uses lingerMs, batchSize and compression as configured
+    CUSTOM(-1, -1, null),
+
+    // sends every record right away
+    LATENCY(0, 16_384, "none"),
+
+    // waits a little for cheaply compressed batches
+    BALANCED(5, 65_536, "lz4"),
+
+    // waits for large batches with the best compression ratio, for topics with many small records
+    THROUGHPUT(20, 262_144, "zstd");
+
+    private final int lingerMs;
+
+    private final int batchSize;
+
+    private final String compressionType;
+}
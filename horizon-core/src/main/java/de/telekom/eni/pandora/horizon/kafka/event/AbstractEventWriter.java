@@ -0,0 +1,159 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.kafka.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import de.telekom.eni.pandora.horizon.metrics.HorizonLatencyRecorder;
+import de.telekom.eni.pandora.horizon.model.event.IdentifiableMessage;
+import de.telekom.eni.pandora.horizon.model.event.MessageType;
+import de.telekom.eni.pandora.horizon.model.event.StatusMessage;
+import de.telekom.eni.pandora.horizon.model.meta.HorizonComponentId;
+import de.telekom.eni.pandora.horizon.tracing.HorizonTracer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Base class for writing {@link IdentifiableMessage}s into kafka.
+ * Subclasses only decide how a message is serialized into the record value type {@code V}.
+ * <p>
+ * Every record carries the {@code clientId} of the writing component and the time it was produced, which are used by
+ * the {@link HorizonLatencyRecorder} of the consuming component.
+ *
+ * @param <V> the kafka record value type
+ */
+@Slf4j
+public abstract class AbstractEventWriter<V> {
+
+    public static final String HEADER_TYPE = "type";
+
+    public static final String HEADER_CLIENT_ID = "clientId";
+
+    // only set for values that are not encoded as json
+    public static final String HEADER_WIRE_FORMAT = "wireFormat";
+
+    // only set for values that have been compressed before being handed over to the producer
+    public static final String HEADER_COMPRESSION = "compression";
+
+    // headers are immutable, so the constant ones can be encoded once and shared between all records
+    private static final Header MESSAGE_TYPE_HEADER = new RecordHeader(HEADER_TYPE, MessageType.MESSAGE.name().getBytes(StandardCharsets.UTF_8));
+
+    private static final Header METADATA_TYPE_HEADER = new RecordHeader(HEADER_TYPE, MessageType.METADATA.name().getBytes(StandardCharsets.UTF_8));
+
+    protected final KafkaTemplate<String, V> kafkaTemplate;
+
+    protected final HorizonComponentId clientId;
+
+    private final Header clientIdHeader;
+
+    protected AbstractEventWriter(KafkaTemplate<String, V> kafkaTemplate, HorizonComponentId clientId) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.clientId = clientId;
+        this.clientIdHeader = new RecordHeader(HEADER_CLIENT_ID, clientId.getClientId().getBytes(StandardCharsets.UTF_8));
+    }
+
+    protected abstract V serialize(IdentifiableMessage message) throws JsonProcessingException;
+
+    protected String toLogString(V value) {
+        return String.valueOf(value);
+    }
+
+    /**
+     * Adds headers that depend on how the record value has been serialized.
+     */
+    protected void addValueHeaders(Headers headers) {
+    }
+
+    public CompletableFuture<SendResult<String, V>> send(String kafkaTopic, IdentifiableMessage message) throws JsonProcessingException {
+        return send(kafkaTopic, message, null);
+    }
+
+    public CompletableFuture<SendResult<String, V>> send(String kafkaTopic, IdentifiableMessage message, HorizonTracer tracer) throws JsonProcessingException {
+        var msg = createRecord(kafkaTopic, message, serialize(message));
+
+        Optional.ofNullable(tracer).ifPresent(t -> t.addCurrentTracingInformationToKafkaHeaders(msg.headers()));
+        return send(msg);
+    }
+
+    public CompletableFuture<List<SendResult<String, V>>> sendAll(String kafkaTopic, Collection<? extends IdentifiableMessage> messages) throws JsonProcessingException {
+        return sendAll(kafkaTopic, messages, null);
+    }
+
+    /**
+     * Writes all given messages into the given topic without waiting for the single acknowledgements in between,
+     * so that the producer can batch them together.
+     * <p>
+     * All messages are serialized before the first one is handed over to the producer, so a message that can not be
+     * serialized does not lead to a partially written batch. The tracing headers of the current span are resolved once
+     * and shared between all records, same as the constant {@code type} and {@code clientId} headers.
+     *
+     * @return a future that holds the results in the order of the given messages once all of them have been acknowledged,
+     * or that completes exceptionally with the first failure
+     */
+    public CompletableFuture<List<SendResult<String, V>>> sendAll(String kafkaTopic, Collection<? extends IdentifiableMessage> messages, HorizonTracer tracer) throws JsonProcessingException {
+        var records = new ArrayList<ProducerRecord<String, V>>(messages.size());
+        for (var message : messages) {
+            records.add(createRecord(kafkaTopic, message, serialize(message)));
+        }
+
+        if (tracer != null) {
+            var tracingHeaders = new RecordHeaders();
+            tracer.addCurrentTracingInformationToKafkaHeaders(tracingHeaders);
+            records.forEach(msg -> tracingHeaders.forEach(msg.headers()::add));
+        }
+
+        @SuppressWarnings("unchecked")
+        CompletableFuture<SendResult<String, V>>[] futures = new CompletableFuture[records.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = send(records.get(i));
+        }
+
+        return CompletableFuture.allOf(futures).thenApply(ignored -> {
+            var results = new ArrayList<SendResult<String, V>>(futures.length);
+            for (var future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
+    private ProducerRecord<String, V> createRecord(String kafkaTopic, IdentifiableMessage message, V value) {
+        var msg = new ProducerRecord<>(kafkaTopic, message.getUuid(), value);
+        msg.headers().add(message instanceof StatusMessage ? METADATA_TYPE_HEADER : MESSAGE_TYPE_HEADER);
+        msg.headers().add(clientIdHeader);
+        msg.headers().add(HorizonLatencyRecorder.createProduceTimestampHeader());
+        addValueHeaders(msg.headers());
+
+        if (log.isDebugEnabled()) {
+            log.debug("Writing message with id {} and content: {}", message.getUuid(), toLogString(value));
+        }
+
+        return msg;
+    }
+
+    private CompletableFuture<SendResult<String, V>> send(ProducerRecord<String, V> msg) {
+        var future = kafkaTemplate.send(msg);
+        future.whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.error("Could not write message with id {} into kafka", msg.key(), ex);
+            } else {
+                log.debug("Successfully wrote message with id {}", msg.key());
+            }
+        });
+        return future;
+    }
+}
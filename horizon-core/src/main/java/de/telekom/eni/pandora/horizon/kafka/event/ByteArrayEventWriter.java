@@ -0,0 +1,102 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.kafka.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import de.telekom.eni.pandora.horizon.json.HorizonJsonCodec;
+import de.telekom.eni.pandora.horizon.json.WireFormat;
+import de.telekom.eni.pandora.horizon.kafka.compression.ZstdDictionaryCompressor;
+import de.telekom.eni.pandora.horizon.model.event.IdentifiableMessage;
+import de.telekom.eni.pandora.horizon.model.meta.HorizonComponentId;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * {@link AbstractEventWriter} that serializes messages directly into UTF-8 encoded bytes.
+ * <p>
+ * In contrast to the {@link EventWriter} there is no intermediate {@link String} that has to be encoded again by the
+ * {@link org.apache.kafka.common.serialization.StringSerializer}. The {@link ObjectWriter}s are resolved once per
+ * message class and write into Jackson's recycled buffers, so only the resulting byte array is allocated per record.
+ * <p>
+ * Messages can also be written in the binary {@link WireFormat#SMILE} format. Such records are labeled with the
+ * {@value #HEADER_WIRE_FORMAT} header, which is read by the {@link MessageDeserializer}. With a
+ * {@link ZstdDictionaryCompressor}, every value is additionally compressed and labeled with the
+ * {@value #HEADER_COMPRESSION} header.
+ */
+@Slf4j
+public class ByteArrayEventWriter extends AbstractEventWriter<byte[]> {
+
+    private static final Header COMPRESSION_HEADER = new RecordHeader(HEADER_COMPRESSION, ZstdDictionaryCompressor.COMPRESSION_TYPE.getBytes(StandardCharsets.UTF_8));
+
+    private final Function<Class<?>, ObjectWriter> writers;
+
+    private final WireFormat wireFormat;
+
+    private final Header wireFormatHeader;
+
+    private ZstdDictionaryCompressor compressor;
+
+    public ByteArrayEventWriter(KafkaTemplate<String, byte[]> kafkaTemplate, HorizonComponentId clientId) {
+        this(kafkaTemplate, clientId, HorizonJsonCodec.getDefault());
+    }
+
+    public ByteArrayEventWriter(KafkaTemplate<String, byte[]> kafkaTemplate, HorizonComponentId clientId, HorizonJsonCodec jsonCodec) {
+        this(kafkaTemplate, clientId, jsonCodec, WireFormat.JSON);
+    }
+
+    public ByteArrayEventWriter(KafkaTemplate<String, byte[]> kafkaTemplate, HorizonComponentId clientId, HorizonJsonCodec jsonCodec, WireFormat wireFormat) {
+        super(kafkaTemplate, clientId);
+        this.writers = type -> jsonCodec.writerFor(type, wireFormat);
+        this.wireFormat = wireFormat;
+        this.wireFormatHeader = wireFormat == WireFormat.JSON ? null : new RecordHeader(HEADER_WIRE_FORMAT, wireFormat.getValue().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public ByteArrayEventWriter(KafkaTemplate<String, byte[]> kafkaTemplate, HorizonComponentId clientId, ObjectMapper objectMapper) {
+        super(kafkaTemplate, clientId);
+        ConcurrentMap<Class<?>, ObjectWriter> cache = new ConcurrentHashMap<>();
+        this.writers = type -> cache.computeIfAbsent(type, objectMapper::writerFor);
+        this.wireFormat = WireFormat.JSON;
+        this.wireFormatHeader = null;
+    }
+
+    @Override
+    protected byte[] serialize(IdentifiableMessage message) throws JsonProcessingException {
+        var value = writers.apply(message.getClass()).writeValueAsBytes(message);
+        return compressor != null ? compressor.compress(value) : value;
+    }
+
+    public void setCompressor(ZstdDictionaryCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    @Override
+    protected void addValueHeaders(Headers headers) {
+        if (wireFormatHeader != null) {
+            headers.add(wireFormatHeader);
+        }
+        if (compressor != null) {
+            headers.add(COMPRESSION_HEADER);
+        }
+    }
+
+    @Override
+    protected String toLogString(byte[] value) {
+        if (compressor != null) {
+            return String.format("%d bytes of compressed %s", value.length, wireFormat.getValue());
+        }
+
+        return wireFormat == WireFormat.JSON ? new String(value, StandardCharsets.UTF_8) : String.format("%d bytes of %s", value.length, wireFormat.getValue());
+    }
+}
@@ -5,33 +5,23 @@
 package de.telekom.eni.pandora.horizon.kafka.event;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import de.telekom.eni.pandora.horizon.json.HorizonJsonCodec;
 import de.telekom.eni.pandora.horizon.model.event.IdentifiableMessage;
-import de.telekom.eni.pandora.horizon.model.event.MessageType;
-import de.telekom.eni.pandora.horizon.model.event.StatusMessage;
 import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
 import de.telekom.eni.pandora.horizon.model.meta.HorizonComponentId;
 import de.telekom.eni.pandora.horizon.tracing.Constants;
-import de.telekom.eni.pandora.horizon.tracing.HorizonTracer;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.common.header.Headers;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 
 @Slf4j
-public class EventWriter {
+public class EventWriter extends AbstractEventWriter<String> {
 
-    private final KafkaTemplate<String, String> kafkaTemplate;
-
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-
-    private final HorizonComponentId clientId;
+    private final HorizonJsonCodec jsonCodec;
 
     /**
      * Initiate EventWriter Object
@@ -47,33 +37,17 @@ public class EventWriter {
     }
 
     public EventWriter(KafkaTemplate<String, String> kafkaTemplate, HorizonComponentId clientId) {
-        this.kafkaTemplate = kafkaTemplate;
-        this.clientId = clientId;
+        this(kafkaTemplate, clientId, HorizonJsonCodec.getDefault());
     }
 
-    public CompletableFuture<SendResult<String, String>> send(String kafkaTopic, IdentifiableMessage message) throws JsonProcessingException {
-        return send(kafkaTopic, message, null);
+    public EventWriter(KafkaTemplate<String, String> kafkaTemplate, HorizonComponentId clientId, HorizonJsonCodec jsonCodec) {
+        super(kafkaTemplate, clientId);
+        this.jsonCodec = jsonCodec;
     }
 
-    public CompletableFuture<SendResult<String, String>> send(String kafkaTopic, IdentifiableMessage message, HorizonTracer tracer) throws JsonProcessingException {
-        var key = message.getUuid();
-        var value = objectMapper.writeValueAsString(message);
-        
-
-        var msg = new ProducerRecord<>(kafkaTopic, key, value);
-        var msgType = message instanceof StatusMessage ? MessageType.METADATA : MessageType.MESSAGE;
-        msg.headers().add("type", msgType.name().getBytes(StandardCharsets.UTF_8));
-        msg.headers().add("clientId", clientId.getClientId().getBytes(StandardCharsets.UTF_8));
-        log.debug("Writing message with id {} and content: {}", message.getUuid(), value);
-
-        Optional.ofNullable(tracer).ifPresent(t -> t.addCurrentTracingInformationToKafkaHeaders(msg.headers()));
-        var future = kafkaTemplate.send(msg);
-        future.exceptionally(ex -> {
-            log.error("Could not write message with id {} into kafka", message.getUuid(), ex);
-            return null;
-        });
-        future.thenAccept(result -> log.debug("Successfully wrote message with id {}", message.getUuid()));
-        return future;
+    @Override
+    protected String serialize(IdentifiableMessage message) throws JsonProcessingException {
+        return jsonCodec.writerFor(message.getClass()).writeValueAsString(message);
     }
 
     private void addTracingInformationToHeadersFromSubscriptionEventMessage(Headers headers, SubscriptionEventMessage subscriptionEventMessage) {
@@ -0,0 +1,111 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.kafka.event;
+
+import de.telekom.eni.pandora.horizon.json.HorizonJsonCodec;
+import de.telekom.eni.pandora.horizon.json.RawJson;
+import de.telekom.eni.pandora.horizon.json.WireFormat;
+import de.telekom.eni.pandora.horizon.kafka.compression.ZstdDictionaryCompressor;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Kafka {@link Deserializer} for records written by the {@link EventWriter} or the {@link ByteArrayEventWriter}, in
+ * any {@link WireFormat}.
+ * <p>
+ * The format is taken from the {@value AbstractEventWriter#HEADER_WIRE_FORMAT} header. Records without it are either
+ * json, as written by all writers before, or are detected by their first bytes if headers are not available. Values
+ * labeled with the {@value AbstractEventWriter#HEADER_COMPRESSION} header are decompressed by the
+ * {@link ZstdDictionaryCompressor} set with {@link #setCompressor(ZstdDictionaryCompressor)}.
+ *
+ * @param <T> the message type
+ */
+public class MessageDeserializer<T> implements Deserializer<T> {
+
+    private final Class<T> type;
+
+    private final HorizonJsonCodec jsonCodec;
+
+    private final boolean rawData;
+
+    private ZstdDictionaryCompressor compressor;
+
+    public MessageDeserializer(Class<T> type) {
+        this(type, HorizonJsonCodec.getDefault(), false);
+    }
+
+    /**
+     * @param rawData whether to keep the event data of json records as {@link RawJson}, for messages that are only
+     *                forwarded
+     */
+    public MessageDeserializer(Class<T> type, HorizonJsonCodec jsonCodec, boolean rawData) {
+        this.type = type;
+        this.jsonCodec = jsonCodec;
+        this.rawData = rawData;
+    }
+
+    public void setCompressor(ZstdDictionaryCompressor compressor) {
+        this.compressor = compressor;
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        var value = ZstdDictionaryCompressor.isCompressed(data) ? decompress(data) : data;
+        return deserialize(value, WireFormat.detect(value));
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        var compression = headers == null ? null : headers.lastHeader(AbstractEventWriter.HEADER_COMPRESSION);
+        var value = compression != null && data != null ? decompress(data) : data;
+
+        try {
+            return deserialize(value, getWireFormat(headers));
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("Could not determine the wire format of the record", e);
+        }
+    }
+
+    public static WireFormat getWireFormat(Headers headers) {
+        var header = headers == null ? null : headers.lastHeader(AbstractEventWriter.HEADER_WIRE_FORMAT);
+        if (header == null || header.value() == null) {
+            return WireFormat.JSON;
+        }
+
+        return WireFormat.fromValue(new String(header.value(), StandardCharsets.UTF_8));
+    }
+
+    private byte[] decompress(byte[] data) {
+        if (compressor == null) {
+            throw new SerializationException("Record is compressed, but no compressor has been set");
+        }
+
+        try {
+            return compressor.decompress(data);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not decompress record", e);
+        }
+    }
+
+    private T deserialize(byte[] data, WireFormat wireFormat) {
+        if (data == null) {
+            return null;
+        }
+
+        try {
+            if (rawData && wireFormat == WireFormat.JSON) {
+                return jsonCodec.readWithRawData(data, type);
+            }
+
+            return jsonCodec.readerFor(type, wireFormat).readValue(data);
+        } catch (IOException e) {
+            throw new SerializationException(String.format("Could not deserialize %s record", wireFormat.getValue()), e);
+        }
+    }
+}
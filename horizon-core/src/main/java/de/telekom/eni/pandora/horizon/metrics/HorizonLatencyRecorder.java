@@ -0,0 +1,172 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.metrics;
+
+import de.telekom.eni.pandora.horizon.kafka.event.AbstractEventWriter;
+import de.telekom.eni.pandora.horizon.metrics.config.MetricsProperties;
+import de.telekom.eni.pandora.horizon.model.event.EventMessage;
+import de.telekom.eni.pandora.horizon.model.meta.HorizonComponentId;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static de.telekom.eni.pandora.horizon.metrics.HorizonMetricsConstants.*;
+
+/**
+ * Records the latency of events between Horizon components.
+ * <p>
+ * Every record written by an {@link AbstractEventWriter} carries the time it was produced in the
+ * {@value #HEADER_PRODUCE_TIMESTAMP} header, as microseconds since the epoch in 8 bytes big-endian, next to the
+ * {@code clientId} header of the producing component. Consumers call
+ * {@link #recordHop(ConsumerRecord, HorizonComponentId)} to record the time from producing to consuming a record, and
+ * {@link #recordEndToEnd(EventMessage, HorizonComponentId)} to record the time since the event was accepted by
+ * starlight. Both are tagged with the source and destination component.
+ * <p>
+ * The timers are backed by Micrometer's HdrHistogram based percentile histograms, configured by
+ * {@link MetricsProperties.LatencyProperties}. Latencies between hosts include their clock skew, which is why negative
+ * latencies are recorded as zero.
+ */
+@Slf4j
+public class HorizonLatencyRecorder {
+
+    public static final String HEADER_PRODUCE_TIMESTAMP = "produceTimestamp";
+
+    private final MeterRegistry registry;
+
+    private final MetricsProperties.LatencyProperties properties;
+
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public HorizonLatencyRecorder(MeterRegistry registry, MetricsProperties.LatencyProperties properties) {
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    public static Header createProduceTimestampHeader() {
+        return new RecordHeader(HEADER_PRODUCE_TIMESTAMP, ByteBuffer.allocate(Long.BYTES).putLong(currentTimeMicros()).array());
+    }
+
+    /**
+     * @return the produce timestamp of the record in microseconds since the epoch, or -1 if it has none
+     */
+    public static long getProduceTimestamp(Headers headers) {
+        var header = headers.lastHeader(HEADER_PRODUCE_TIMESTAMP);
+        if (header == null || header.value() == null || header.value().length != Long.BYTES) {
+            return -1;
+        }
+
+        return ByteBuffer.wrap(header.value()).getLong();
+    }
+
+    /**
+     * Records the time between producing and consuming the record. Records without produce timestamp, e.g. from
+     * producers that do not use this library yet, are skipped.
+     */
+    public void recordHop(ConsumerRecord<?, ?> consumerRecord, HorizonComponentId destination) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        var produceTimestamp = getProduceTimestamp(consumerRecord.headers());
+        if (produceTimestamp < 0) {
+            return;
+        }
+
+        var source = getSource(consumerRecord.headers());
+        record(METRIC_HOP_LATENCY, source, destination, currentTimeMicros() - produceTimestamp);
+    }
+
+    /**
+     * Records the time since the event was accepted by starlight, as given by {@link AdditionalFields#START_TIME_TRUSTED}.
+     * Messages without start time are skipped.
+     */
+    public void recordEndToEnd(EventMessage eventMessage, HorizonComponentId destination) {
+        if (!properties.isEnabled() || eventMessage.getAdditionalFields() == null) {
+            return;
+        }
+
+        var startTime = parseStartTime(eventMessage.getAdditionalFields().get(AdditionalFields.START_TIME_TRUSTED.getValue()));
+        if (startTime == null) {
+            return;
+        }
+
+        record(METRIC_END_TO_END_LATENCY, HorizonComponentId.PRODUCER, destination,
+                currentTimeMicros() - ChronoUnit.MICROS.between(Instant.EPOCH, startTime));
+    }
+
+    private void record(String name, HorizonComponentId source, HorizonComponentId destination, long latencyInMicros) {
+        var key = new TimerKey(name, source, destination);
+        var timer = timers.get(key);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(key, this::createTimer);
+        }
+
+        timer.record(Math.max(0, latencyInMicros), TimeUnit.MICROSECONDS);
+    }
+
+    private Timer createTimer(TimerKey key) {
+        var builder = Timer.builder(key.name())
+                .description(METRIC_HOP_LATENCY.equals(key.name())
+                        ? "Time between producing an event in the source and consuming it in the destination component"
+                        : "Time between accepting an event in starlight and consuming it in the destination component")
+                .tag(TAG_SOURCE, key.source().getClientId())
+                .tag(TAG_DESTINATION, key.destination().getClientId())
+                .publishPercentileHistogram(properties.isPercentileHistogram())
+                .minimumExpectedValue(Duration.ofMillis(properties.getMinimumExpectedValueInMs()))
+                .maximumExpectedValue(Duration.ofMillis(properties.getMaximumExpectedValueInMs()));
+
+        if (!properties.getPercentiles().isEmpty()) {
+            builder.publishPercentiles(properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray());
+        }
+
+        return builder.register(registry);
+    }
+
+    private static HorizonComponentId getSource(Headers headers) {
+        var header = headers.lastHeader(AbstractEventWriter.HEADER_CLIENT_ID);
+        if (header == null || header.value() == null) {
+            return HorizonComponentId.UNSET;
+        }
+
+        return HorizonComponentId.fromGroupId(new String(header.value(), StandardCharsets.UTF_8));
+    }
+
+    // accepts epoch millis as number or string as well as ISO-8601 instants
+    private static Instant parseStartTime(Object startTime) {
+        try {
+            if (startTime instanceof Number number) {
+                return Instant.ofEpochMilli(number.longValue());
+            }
+            if (startTime instanceof String string && !string.isBlank()) {
+                return string.chars().allMatch(Character::isDigit) ? Instant.ofEpochMilli(Long.parseLong(string)) : Instant.parse(string);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            log.debug("Could not parse start time {}", startTime);
+        }
+
+        return null;
+    }
+
+    private static long currentTimeMicros() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    }
+
+    private record TimerKey(String name, HorizonComponentId source, HorizonComponentId destination) {
+    }
+}
@@ -19,6 +19,24 @@ public class HorizonMetricsConstants {
     public static final String METRIC_SCHEMA_VALIDATION_FAILURE = "schema_validation_failure";
     public static final String METRIC_SCHEMA_VALIDATION_SUCCESS = "schema_validation_success";
 
+    public static final String METRIC_DEDUPLICATION_BLOOM_FILTER_SKIPPED_LOOKUPS = "deduplication_bloom_filter_skipped_lookups";
+    public static final String METRIC_DEDUPLICATION_BLOOM_FILTER_FALSE_POSITIVES = "deduplication_bloom_filter_false_positives";
+    public static final String METRIC_DEDUPLICATION_BLOOM_FILTER_FALSE_POSITIVE_RATE = "deduplication_bloom_filter_false_positive_rate";
+    public static final String METRIC_DEDUPLICATION_BLOOM_FILTER_MEMORY = "deduplication_bloom_filter_memory_bytes";
+
+    public static final String METRIC_OAUTH2_TOKEN_REQUESTS = "oauth2_token_requests";
+    public static final String METRIC_OAUTH2_TOKEN_REQUEST_FAILURES = "oauth2_token_request_failures";
+
+    public static final String METRIC_HOP_LATENCY = "horizon_hop_latency";
+    public static final String METRIC_END_TO_END_LATENCY = "horizon_end_to_end_latency";
+
+    public static final String METRIC_STATE_BULK_WRITE_BATCH_SIZE = "horizon_state_bulk_write_batch_size";
+    public static final String METRIC_STATE_BULK_WRITE_FLUSH_LATENCY = "horizon_state_bulk_write_flush_latency";
+    public static final String METRIC_STATE_BULK_WRITE_COALESCED = "horizon_state_bulk_write_coalesced";
+    public static final String METRIC_STATE_BULK_WRITE_REJECTED = "horizon_state_bulk_write_rejected";
+    public static final String METRIC_STATE_BULK_WRITE_DROPPED_TRANSITIONS = "horizon_state_bulk_write_dropped_transitions";
+    public static final String METRIC_STATE_BULK_WRITE_PENDING = "horizon_state_bulk_write_pending";
+
     // Not used yet, but reserved for future use with the new control-plane.
     public static final String METRIC_SCHEMA_VALIDATION_INVALID_SCHEMA = "schema_validation_invalid_schema";
 
@@ -30,5 +48,10 @@ public class HorizonMetricsConstants {
     public static final String TAG_ENVIRONMENT = "environment";
     public static final String TAG_HTTP_CODE = "http_code";
     public static final String TAG_CALLBACK_URL = "callback_url";
+    public static final String TAG_CACHE_NAME = "cache_name";
+    public static final String TAG_REALM = "realm";
+    public static final String TAG_OUTCOME = "outcome";
+    public static final String TAG_SOURCE = "source";
+    public static final String TAG_DESTINATION = "destination";
 }
 
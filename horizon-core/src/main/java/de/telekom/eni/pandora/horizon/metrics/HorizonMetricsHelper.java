@@ -4,61 +4,209 @@
 
 package de.telekom.eni.pandora.horizon.metrics;
 
+import de.telekom.eni.pandora.horizon.cache.util.BoundedCache;
 import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
 import de.telekom.eni.pandora.horizon.model.event.EventMessage;
 import de.telekom.eni.pandora.horizon.model.event.PublishedEventMessage;
 import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tags;
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
 import static de.telekom.eni.pandora.horizon.metrics.HorizonMetricsConstants.*;
 
+/**
+ * Builds the tags of event messages and resolves meters for them.
+ * <p>
+ * The tags only depend on a few fields of a message and there are only as many different combinations as there are
+ * subscriptions. Built {@link Tags} and resolved {@link Counter}s and {@link Timer}s are therefore cached, so that
+ * recording a metric for a known combination neither builds any tags nor looks up the registry. Values for
+ * subscription messages are cached per subscription id together with the fields they have been built from. A lookup
+ * compares these fields with the ones of the message instead of building a key, so that it does not allocate. If the
+ * fields of a subscription change, its entry is replaced. Values for published messages are cached per combination of
+ * their tags. Each cache keeps about the {@link #MAX_CACHED_TAGS} most recently used entries, which only matters if
+ * tag values are not bounded.
+ */
 @Slf4j
-@Getter
-@AllArgsConstructor
 public class HorizonMetricsHelper {
 
+    static final int MAX_CACHED_TAGS = 10_000;
+
+    @Getter
     private final MeterRegistry registry;
 
-    private Tags buildTagsFromEventMessage(EventMessage eventMessage) {
-        return Tags.of(
-                TAG_ENVIRONMENT, eventMessage.getEnvironment(),
-                TAG_EVENT_TYPE, eventMessage.getEvent().getType()
-                );
+    private final TagsCache<Tags> tagsCache = new TagsCache<>(TagKey::toTags);
+
+    // per meter name, resolved with the registry of this helper
+    private final Map<String, TagsCache<Counter>> counterCaches = new ConcurrentHashMap<>();
+
+    private final Map<String, TagsCache<Timer>> timerCaches = new ConcurrentHashMap<>();
+
+    public HorizonMetricsHelper(MeterRegistry registry) {
+        this.registry = registry;
     }
 
     public Tags buildTagsFromSubscriptionEventMessage(SubscriptionEventMessage eventMessage) {
-        var tags = buildTagsFromEventMessage(eventMessage).and(
-                TAG_SUBSCRIPTION_ID, eventMessage.getSubscriptionId(),
-                TAG_DELIVERY_TYPE, eventMessage.getDeliveryType().getValue()
-        );
-
-        var additionalFields = eventMessage.getAdditionalFields();
-        if (additionalFields != null) {
-            if (DeliveryType.CALLBACK.getValue().equalsIgnoreCase(eventMessage.getDeliveryType().getValue())) {
-                if (additionalFields.containsKey("callback-url")) {
-                    tags = tags.and(TAG_CALLBACK_URL, (String)additionalFields.get("callback-url"));
-                }
-            }
-            if (DeliveryType.SERVER_SENT_EVENT.getValue().equalsIgnoreCase(eventMessage.getDeliveryType().getValue())) {
-                tags = tags.and(TAG_CALLBACK_URL, "none");
+        return tagsCache.get(eventMessage);
+    }
+
+    public Tags buildTagsFromPublishedEventMessage(PublishedEventMessage eventMessage) {
+        return tagsCache.get(eventMessage);
+    }
+
+    public Counter getCounter(String name, SubscriptionEventMessage eventMessage) {
+        return getCounterCache(name).get(eventMessage);
+    }
+
+    public Counter getCounter(String name, PublishedEventMessage eventMessage) {
+        return getCounterCache(name).get(eventMessage);
+    }
+
+    public Timer getTimer(String name, SubscriptionEventMessage eventMessage) {
+        return getTimerCache(name).get(eventMessage);
+    }
+
+    public Timer getTimer(String name, PublishedEventMessage eventMessage) {
+        return getTimerCache(name).get(eventMessage);
+    }
+
+    private TagsCache<Counter> getCounterCache(String name) {
+        var cache = counterCaches.get(name);
+        return cache != null ? cache : counterCaches.computeIfAbsent(name, key -> new TagsCache<>(tagKey -> registry.counter(key, tagKey.toTags())));
+    }
+
+    private TagsCache<Timer> getTimerCache(String name) {
+        var cache = timerCaches.get(name);
+        return cache != null ? cache : timerCaches.computeIfAbsent(name, key -> new TagsCache<>(tagKey -> registry.timer(key, tagKey.toTags())));
+    }
+
+    /**
+     * Values created from the tags of messages, cached per subscription id or event type.
+     */
+    private static final class TagsCache<V> {
+
+        private final BoundedCache<String, Entry<V>> bySubscriptionId = new BoundedCache<>(MAX_CACHED_TAGS);
+
+        private final BoundedCache<TagKey, V> byTagKey = new BoundedCache<>(MAX_CACHED_TAGS);
+
+        private final Function<TagKey, V> factory;
+
+        private TagsCache(Function<TagKey, V> factory) {
+            this.factory = factory;
+        }
+
+        private V get(SubscriptionEventMessage eventMessage) {
+            var key = Objects.requireNonNullElse(eventMessage.getSubscriptionId(), "");
+            var entry = bySubscriptionId.get(key);
+            if (entry == null || !entry.tagKey().matches(eventMessage)) {
+                var tagKey = TagKey.of(eventMessage);
+                entry = new Entry<>(tagKey, factory.apply(tagKey));
+                bySubscriptionId.put(key, entry);
             }
 
-            if (additionalFields.containsKey("subscriber-id")) {
-                tags = tags.and(TAG_SUBSCRIBER_ID, (String)additionalFields.get("subscriber-id"));
-            } else {
-                tags = tags.and(TAG_SUBSCRIBER_ID, "none");
+            return entry.value();
+        }
+
+        // messages of the same event type may differ in their environment, so they share no entry
+        private V get(PublishedEventMessage eventMessage) {
+            var tagKey = TagKey.of(eventMessage);
+            var value = byTagKey.get(tagKey);
+            if (value == null) {
+                value = factory.apply(tagKey);
+                byTagKey.put(tagKey, value);
             }
 
+            return value;
         }
+    }
 
-        return tags;
+    private record Entry<V>(TagKey tagKey, V value) {
     }
 
-    public Tags buildTagsFromPublishedEventMessage(PublishedEventMessage eventMessage) {
-        return buildTagsFromEventMessage(eventMessage);
+    /**
+     * The fields of a message that make up its tags. Optional tags that are not added for a message are null.
+     */
+    private record TagKey(String environment, String eventType, String subscriptionId, String deliveryType,
+                          String callbackUrl, String subscriberId) {
+
+        private static TagKey of(PublishedEventMessage eventMessage) {
+            return new TagKey(eventMessage.getEnvironment(), getEventType(eventMessage), null, null, null, null);
+        }
+
+        private static TagKey of(SubscriptionEventMessage eventMessage) {
+            var deliveryType = eventMessage.getDeliveryType().getValue();
+            var additionalFields = eventMessage.getAdditionalFields();
+
+            return new TagKey(eventMessage.getEnvironment(), getEventType(eventMessage), eventMessage.getSubscriptionId(),
+                    deliveryType, getCallbackUrl(additionalFields, deliveryType), getSubscriberId(additionalFields));
+        }
+
+        private boolean matches(SubscriptionEventMessage eventMessage) {
+            var messageDeliveryType = eventMessage.getDeliveryType().getValue();
+            var additionalFields = eventMessage.getAdditionalFields();
+
+            return Objects.equals(environment, eventMessage.getEnvironment())
+                    && Objects.equals(eventType, getEventType(eventMessage))
+                    && Objects.equals(subscriptionId, eventMessage.getSubscriptionId())
+                    && Objects.equals(deliveryType, messageDeliveryType)
+                    && Objects.equals(callbackUrl, getCallbackUrl(additionalFields, messageDeliveryType))
+                    && Objects.equals(subscriberId, getSubscriberId(additionalFields));
+        }
+
+        private static String getCallbackUrl(Map<String, Object> additionalFields, String deliveryType) {
+            if (additionalFields == null) {
+                return null;
+            }
+            if (DeliveryType.CALLBACK.getValue().equalsIgnoreCase(deliveryType)) {
+                return (String) additionalFields.get("callback-url");
+            }
+            if (DeliveryType.SERVER_SENT_EVENT.getValue().equalsIgnoreCase(deliveryType)) {
+                return "none";
+            }
+
+            return null;
+        }
+
+        private static String getSubscriberId(Map<String, Object> additionalFields) {
+            if (additionalFields == null) {
+                return null;
+            }
+
+            return additionalFields.containsKey("subscriber-id") ? (String) additionalFields.get("subscriber-id") : "none";
+        }
+
+        private static String getEventType(EventMessage eventMessage) {
+            return eventMessage.getEvent().getType();
+        }
+
+        private Tags toTags() {
+            var tags = Tags.of(
+                    TAG_ENVIRONMENT, environment,
+                    TAG_EVENT_TYPE, eventType
+            );
+
+            if (subscriptionId != null || deliveryType != null) {
+                tags = tags.and(
+                        TAG_SUBSCRIPTION_ID, subscriptionId,
+                        TAG_DELIVERY_TYPE, deliveryType
+                );
+            }
+            if (callbackUrl != null) {
+                tags = tags.and(TAG_CALLBACK_URL, callbackUrl);
+            }
+            if (subscriberId != null) {
+                tags = tags.and(TAG_SUBSCRIBER_ID, subscriberId);
+            }
+
+            return tags;
+        }
     }
 }
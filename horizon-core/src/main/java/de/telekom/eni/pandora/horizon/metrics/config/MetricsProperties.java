@@ -0,0 +1,37 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.metrics.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties("horizon.metrics")
+public class MetricsProperties {
+
+    private LatencyProperties latency = new LatencyProperties();
+
+    @Getter
+    @Setter
+    public static class LatencyProperties {
+
+        private boolean enabled = true;
+
+        // publishes histogram buckets, so that percentiles can be aggregated across instances
+        private boolean percentileHistogram = true;
+
+        // percentiles computed per instance, e.g. 0.5, 0.95, 0.99
+        private List<Double> percentiles = new ArrayList<>();
+
+        private long minimumExpectedValueInMs = 1;
+
+        private long maximumExpectedValueInMs = 60_000;
+    }
+}
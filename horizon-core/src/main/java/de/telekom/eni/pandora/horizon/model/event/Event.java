@@ -6,6 +6,8 @@ package de.telekom.eni.pandora.horizon.model.event;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import de.telekom.eni.pandora.horizon.json.EventDataDeserializer;
 import de.telekom.eni.pandora.horizon.model.event.validation.EventDataConstraint;
 import de.telekom.eni.pandora.horizon.model.event.validation.RegexPattern;
 import jakarta.validation.constraints.NotBlank;
@@ -61,5 +63,6 @@ public class Event implements Serializable {
     private String time;
 
     @JsonProperty(value = "data")
+    @JsonDeserialize(using = EventDataDeserializer.class)
     private Object data;
 }
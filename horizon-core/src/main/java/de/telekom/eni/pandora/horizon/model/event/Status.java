@@ -4,6 +4,12 @@
 
 package de.telekom.eni.pandora.horizon.model.event;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum Status {
     PROCESSED,
     WAITING,
@@ -14,8 +20,46 @@ public enum Status {
 
     DUPLICATE;
 
+    private static final Map<Status, Set<Status>> ALLOWED_PREDECESSORS = new EnumMap<>(Status.class);
+
+    static {
+        // the lifecycle of a delivery, DELIVERED, DROPPED and DUPLICATE are final. Delivery attempts and failures
+        // may repeat, e.g. a retried attempt or a redelivery that fails again
+        ALLOWED_PREDECESSORS.put(PROCESSED, EnumSet.of(PROCESSED));
+        ALLOWED_PREDECESSORS.put(WAITING, EnumSet.of(PROCESSED, WAITING));
+        ALLOWED_PREDECESSORS.put(DELIVERING, EnumSet.of(PROCESSED, DELIVERING));
+        ALLOWED_PREDECESSORS.put(FAILED, EnumSet.of(PROCESSED, DELIVERING, FAILED));
+        ALLOWED_PREDECESSORS.put(DELIVERED, EnumSet.of(PROCESSED, DELIVERING));
+        ALLOWED_PREDECESSORS.put(DROPPED, EnumSet.of(PROCESSED));
+        ALLOWED_PREDECESSORS.put(DUPLICATE, EnumSet.of(PROCESSED, DELIVERING));
+
+        // the only exception: waiting, failed and stuck events are republished and start over as PROCESSED
+        ALLOWED_PREDECESSORS.get(PROCESSED).addAll(EnumSet.of(WAITING, FAILED, DELIVERING));
+
+        ALLOWED_PREDECESSORS.replaceAll((status, predecessors) -> Collections.unmodifiableSet(predecessors));
+    }
+
     public StatusMessage createStatusMessage(String uuid, String eventId, DeliveryType deliveryType) {
         return new StatusMessage(uuid, eventId, this, deliveryType);
     }
 
+    /**
+     * Returns the statuses an event may have before changing to this status. These follow the lifecycle of a delivery
+     * ({@code PROCESSED -> DELIVERING -> DELIVERED}, or {@code FAILED}, {@code WAITING}, {@code DROPPED} and
+     * {@code DUPLICATE} instead), so that updates arriving out of order are dropped.
+     * <p>
+     * Republished events are the only exception: {@code WAITING}, {@code FAILED} and {@code DELIVERING} events change
+     * back to {@code PROCESSED}. A {@code PROCESSED} arriving late can not be told apart from a republished one and
+     * therefore still overwrites these statuses.
+     *
+     * @return the statuses an event may have before changing to this status
+     */
+    public Set<Status> getAllowedPredecessors() {
+        return ALLOWED_PREDECESSORS.get(this);
+    }
+
+    public boolean canTransitionTo(Status next) {
+        return next.getAllowedPredecessors().contains(this);
+    }
+
 }
@@ -33,4 +33,23 @@ public class MongoProperties {
     private boolean enabled = false;
 
     private boolean rethrowExceptions = false;
+
+    private boolean ensureIndexes = false;
+
+    private BulkWriteProperties bulkWrite = new BulkWriteProperties();
+
+    @Getter
+    @Setter
+    public static class BulkWriteProperties {
+
+        private boolean enabled = false;
+
+        private int batchSize = 500;
+
+        private long flushIntervalMs = 100;
+
+        private int maxPending = 10000;
+
+        private long maxBlockMs = 30000;
+    }
 }
@@ -12,6 +12,8 @@ import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
 import de.telekom.eni.pandora.horizon.model.event.Status;
 import de.telekom.eni.pandora.horizon.model.meta.EventRetentionTime;
 import de.telekom.jsonfilter.operator.EvaluationResult;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.MongoId;
 
@@ -21,6 +23,18 @@ import java.util.Map;
 import java.util.Objects;
 
 @Document(collection = "status")
+// supports the queries of MessageStateMongoRepo and the MessageStateScanner, created by the MessageStateIndexCreator
+@CompoundIndexes({
+        @CompoundIndex(name = "uuid", def = "{'uuid': 1}"),
+        @CompoundIndex(name = "status_timestamp_id", def = "{'status': 1, 'timestamp': 1, '_id': 1}"),
+        @CompoundIndex(name = "deliveryType_status_timestamp", def = "{'deliveryType': 1, 'status': 1, 'timestamp': 1}"),
+        @CompoundIndex(name = "deliveryType_status_modified", def = "{'deliveryType': 1, 'status': 1, 'modified': 1}"),
+        @CompoundIndex(name = "subscriptionId_status_timestamp_id", def = "{'subscriptionId': 1, 'status': 1, 'timestamp': 1, '_id': 1}"),
+        @CompoundIndex(name = "subscriptionId_deliveryType_timestamp", def = "{'subscriptionId': 1, 'deliveryType': 1, 'timestamp': 1}"),
+        @CompoundIndex(name = "errorType_status_timestamp", def = "{'error.type': 1, 'status': 1, 'timestamp': 1}"),
+        @CompoundIndex(name = "partition_status_deliveryType", def = "{'coordinates.partition': 1, 'status': 1, 'deliveryType': 1}"),
+        @CompoundIndex(name = "multiplexedFrom", def = "{'multiplexedFrom': 1}")
+})
 public class MessageStateMongoDocument extends State {
     @MongoId
     private String id;
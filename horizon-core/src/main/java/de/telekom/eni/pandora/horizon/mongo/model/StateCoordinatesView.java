@@ -0,0 +1,25 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.mongo.model;
+
+import de.telekom.eni.pandora.horizon.model.db.Coordinates;
+import de.telekom.eni.pandora.horizon.model.event.Status;
+
+/**
+ * The fields of a {@link MessageStateMongoDocument} needed to read its event from kafka again, as read by the
+ * projected queries of the {@link de.telekom.eni.pandora.horizon.mongo.repository.MessageStateMongoRepo}.
+ * <p>
+ * Like {@link MessageStateMongoDocument#getUuid()}, {@link #uuid()} falls back to the {@code _id} of states that only
+ * store their uuid there.
+ */
+public record StateCoordinatesView(String uuid, Coordinates coordinates, String subscriptionId, Status status, String id) {
+
+    public static final String FIELDS = "{uuid: 1, coordinates: 1, subscriptionId: 1, status: 1, _id: 1}";
+
+    @Override
+    public String uuid() {
+        return uuid != null ? uuid : id;
+    }
+}
@@ -4,14 +4,19 @@
 
 package de.telekom.eni.pandora.horizon.mongo.repository;
 
+import de.telekom.eni.pandora.horizon.model.db.StateError;
 import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
 import de.telekom.eni.pandora.horizon.model.event.Status;
 import de.telekom.eni.pandora.horizon.mongo.model.MessageStateMongoDocument;
+import de.telekom.eni.pandora.horizon.mongo.model.StateCoordinatesView;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.lang.Nullable;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 
@@ -77,5 +82,52 @@ public interface MessageStateMongoRepo extends MongoRepository<MessageStateMongo
 
     @Query("{\"coordinates.partition\": ?0, status:  {$in:  ?1}, deliveryType: ?2}")
     Slice<MessageStateMongoDocument> findByPartitionAndStatusAndDeliveryType(long partition, List<Status> status, DeliveryType deliveryType, Pageable pageable);
+
+    // projected variants, which only read the fields needed to read the events from kafka again
+
+    @Query(value = "{status: {$in: ?0}}", fields = StateCoordinatesView.FIELDS)
+    List<StateCoordinatesView> findCoordinatesByStatusIn(List<Status> status);
+
+    @Query(value = "{status: {$in: ?0}}", fields = StateCoordinatesView.FIELDS)
+    Slice<StateCoordinatesView> findCoordinatesByStatusIn(List<Status> status, Pageable pageable);
+
+    @Query(value = "{status: {$in:  ?0}, deliveryType: ?1, subscriptionId: {$in:  ?2}}", fields = StateCoordinatesView.FIELDS, sort = "{timestamp: 1}")
+    List<StateCoordinatesView> findCoordinatesByStatusInAndDeliveryTypeAndSubscriptionIdsAsc(List<Status> status, DeliveryType deliveryType, List<String> subscriptionIds);
+
+    @Query(value = "{status: {$in:  ?0}, deliveryType: ?1, subscriptionId: {$in:  ?2}}", fields = StateCoordinatesView.FIELDS, sort = "{timestamp: 1}")
+    Slice<StateCoordinatesView> findCoordinatesByStatusInAndDeliveryTypeAndSubscriptionIdsAsc(List<Status> status, DeliveryType deliveryType, List<String> subscriptionIds, Pageable pageable);
+
+    @Query(value = "{\"coordinates.partition\": ?0, status: {$in:  ?1}}", fields = StateCoordinatesView.FIELDS)
+    List<StateCoordinatesView> findCoordinatesByPartitionAndStatus(long partition, List<Status> status);
+
+    @Query(value = "{\"coordinates.partition\": ?0, status: {$in:  ?1}}", fields = StateCoordinatesView.FIELDS)
+    Slice<StateCoordinatesView> findCoordinatesByPartitionAndStatus(long partition, List<Status> status, Pageable pageable);
+
+    @Query("{$or: [{uuid: ?0}, {_id: ?0}], status: {$in: ?1}}")
+    @Update("{$set: {status: ?2, modified: ?3}}")
+    long updateStatusIfStatusIn(String uuid, Collection<Status> expectedStatus, Status status, Date modified);
+
+    @Query("{$or: [{uuid: ?0}, {_id: ?0}], status: {$in: ?1}}")
+    @Update("{$set: {status: ?2, modified: ?3, error: ?4}}")
+    long updateStatusAndErrorIfStatusIn(String uuid, Collection<Status> expectedStatus, Status status, Date modified, StateError error);
+
+    /**
+     * Sets the status and modification date of the state and, if given, its error, without replacing the whole
+     * document. The state is addressed by its {@code uuid} field, as states created by the constructor of
+     * {@link MessageStateMongoDocument} are saved with a generated {@code _id}, or by its {@code _id} for states that
+     * only store their uuid there, see {@link MessageStateMongoDocument#getUuid()}. The update is only applied if the
+     * current status is one of the {@link Status#getAllowedPredecessors() allowed predecessors} of the new one, so
+     * that transitions arriving out of order do not overwrite later ones.
+     *
+     * @return whether the state has been updated
+     */
+    default boolean transitionStatus(String uuid, Status status, @Nullable StateError error) {
+        var modified = new Date();
+        var updated = error != null
+                ? updateStatusAndErrorIfStatusIn(uuid, status.getAllowedPredecessors(), status, modified, error)
+                : updateStatusIfStatusIn(uuid, status.getAllowedPredecessors(), status, modified);
+
+        return updated > 0;
+    }
 }
 
@@ -0,0 +1,45 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.mongo.service;
+
+import de.telekom.eni.pandora.horizon.mongo.model.MessageStateMongoDocument;
+import de.telekom.eni.pandora.horizon.mongo.repository.MessageStateMongoRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+/**
+ * Creates the indexes declared on {@link MessageStateMongoDocument}, which support the queries of
+ * {@link MessageStateMongoRepo}, when the bean is initialized.
+ * <p>
+ * The templates of this library are created without automatic index creation, so that the indexes of a shared
+ * database are not changed by every component on startup unless enabled. Existing indexes with the same definition
+ * are left untouched.
+ */
+@Slf4j
+public class MessageStateIndexCreator implements InitializingBean {
+
+    private final MongoTemplate mongoTemplate;
+
+    public MessageStateIndexCreator(MongoTemplate mongoStatusTemplate) {
+        this.mongoTemplate = mongoStatusTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        ensureIndexes();
+    }
+
+    public void ensureIndexes() {
+        var resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        var indexOperations = mongoTemplate.indexOps(MessageStateMongoDocument.class);
+
+        for (var index : resolver.resolveIndexFor(MessageStateMongoDocument.class)) {
+            log.debug("Ensuring index {} on collection {}", index.getIndexKeys(), mongoTemplate.getCollectionName(MessageStateMongoDocument.class));
+            indexOperations.ensureIndex(index);
+        }
+    }
+}
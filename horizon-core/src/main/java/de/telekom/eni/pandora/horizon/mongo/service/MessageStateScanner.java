@@ -0,0 +1,176 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.mongo.service;
+
+import de.telekom.eni.pandora.horizon.model.event.Status;
+import de.telekom.eni.pandora.horizon.mongo.model.MessageStateMongoDocument;
+import de.telekom.eni.pandora.horizon.mongo.repository.MessageStateMongoRepo;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams states of the status collection ordered by {@code timestamp} and {@code _id}, paging by the last key
+ * instead of an offset.
+ * <p>
+ * The {@link org.springframework.data.domain.Slice}s of the {@link MessageStateMongoRepo} skip all states of the
+ * previous pages, which makes every page more expensive than the one before. Every page of a scan continues behind
+ * the {@code (timestamp, _id)} of the last state of the previous page instead, so that all pages cost the same if an
+ * index ending in {@code timestamp} and {@code _id} supports the filter.
+ * <p>
+ * Pages are only read while the stream is consumed. States changed during a scan are returned with their state at the
+ * time their page is read, states without {@code timestamp} are not returned at all.
+ * <p>
+ * The {@code _id} of a state is its uuid if it has been set through {@link MessageStateMongoDocument#setUuid(String)},
+ * or an {@link org.bson.types.ObjectId} generated on insert otherwise. Both kinds are continued behind correctly,
+ * although mongo sorts all strings before all object ids and only compares values of the same type.
+ */
+public class MessageStateScanner {
+
+    private static final String CALLBACK_URL_NOT_FOUND_EXCEPTION = "de.telekom.horizon.dude.exception.CallbackUrlNotFoundException";
+
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Direction.ASC, "timestamp", "_id");
+
+    private final MongoTemplate mongoTemplate;
+
+    private final String collectionName;
+
+    public MessageStateScanner(MongoTemplate mongoStatusTemplate) {
+        this.mongoTemplate = mongoStatusTemplate;
+        this.collectionName = mongoStatusTemplate.getCollectionName(MessageStateMongoDocument.class);
+    }
+
+    /**
+     * Streams all states matching the criteria.
+     *
+     * @param pageSize the number of states read per query
+     * @param fields   the fields to read, or none to read whole states; {@code timestamp} and {@code _id} are always read
+     */
+    public Stream<MessageStateMongoDocument> scan(Criteria criteria, int pageSize, String... fields) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("The page size must be positive");
+        }
+
+        var iterator = new KeysetIterator(criteria, pageSize, fields);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Keyset paged variant of
+     * {@link MessageStateMongoRepo#findByStatusWaitingOrWithCallbackExceptionAndSubscriptionIdsAndTimestampLessThanEqual}.
+     */
+    public Stream<MessageStateMongoDocument> scanWaitingOrWithCallbackException(List<Status> status, List<String> subscriptionIds, Date upperTimestampThreshold, int pageSize, String... fields) {
+        var criteria = new Criteria().orOperator(Criteria.where("status").is(Status.WAITING), Criteria.where("error.type").is(CALLBACK_URL_NOT_FOUND_EXCEPTION))
+                .and("status").in(status)
+                .and("subscriptionId").in(subscriptionIds)
+                .and("modified").lte(upperTimestampThreshold);
+
+        return scan(criteria, pageSize, fields);
+    }
+
+    /**
+     * Keyset paged variant of {@link MessageStateMongoRepo#findByStatusInPlusCallbackUrlNotFoundExceptionAsc}.
+     */
+    public Stream<MessageStateMongoDocument> scanStatusInPlusCallbackUrlNotFoundException(List<Status> status, List<String> subscriptionIds, Date timestampOlderThan, int pageSize, String... fields) {
+        var criteria = new Criteria().orOperator(Criteria.where("error.type").exists(false), Criteria.where("error.type").is(CALLBACK_URL_NOT_FOUND_EXCEPTION))
+                .and("status").in(status)
+                .and("subscriptionId").in(subscriptionIds)
+                .and("modified").lte(timestampOlderThan);
+
+        return scan(criteria, pageSize, fields);
+    }
+
+    private class KeysetIterator implements Iterator<MessageStateMongoDocument> {
+
+        private final Criteria criteria;
+
+        private final int pageSize;
+
+        private final String[] fields;
+
+        private Iterator<MessageStateMongoDocument> page;
+
+        // the key of the last read state, the _id is not necessarily the uuid of the state
+        private Object lastTimestamp;
+
+        private Object lastId;
+
+        private boolean lastPage;
+
+        private KeysetIterator(Criteria criteria, int pageSize, String[] fields) {
+            this.criteria = criteria;
+            this.pageSize = pageSize;
+            this.fields = fields;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (page == null || (!page.hasNext() && !lastPage)) {
+                page = readPage();
+            }
+
+            return page.hasNext();
+        }
+
+        @Override
+        public MessageStateMongoDocument next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return page.next();
+        }
+
+        private Iterator<MessageStateMongoDocument> readPage() {
+            var keysetCriteria = lastId == null
+                    ? Criteria.where("timestamp").ne(null)
+                    : new Criteria().orOperator(
+                            Criteria.where("timestamp").gt(lastTimestamp),
+                            new Criteria().andOperator(Criteria.where("timestamp").is(lastTimestamp), idAfter(lastId)));
+
+            var query = Query.query(new Criteria().andOperator(criteria, keysetCriteria))
+                    .with(KEYSET_SORT)
+                    .limit(pageSize)
+                    .cursorBatchSize(pageSize);
+            if (fields.length > 0) {
+                query.fields().include(fields).include("timestamp");
+            }
+
+            var documents = mongoTemplate.find(query, Document.class, collectionName);
+            lastPage = documents.size() < pageSize;
+            if (!documents.isEmpty()) {
+                var last = documents.getLast();
+                lastTimestamp = last.get("timestamp");
+                lastId = last.get("_id");
+            }
+
+            return documents.stream()
+                    .map(document -> mongoTemplate.getConverter().read(MessageStateMongoDocument.class, document))
+                    .iterator();
+        }
+
+        // $gt does not match ids of another type, the generated object ids of a timestamp follow all of its string ids
+        private static Criteria idAfter(Object lastId) {
+            var after = Criteria.where("_id").gt(lastId);
+            if (lastId instanceof String) {
+                return new Criteria().orOperator(after, Criteria.where("_id").type(BsonType.OBJECT_ID.getValue()));
+            }
+
+            return after;
+        }
+    }
+}
@@ -0,0 +1,386 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.mongo.service;
+
+import de.telekom.eni.pandora.horizon.model.db.StateError;
+import de.telekom.eni.pandora.horizon.model.event.Status;
+import de.telekom.eni.pandora.horizon.mongo.config.MongoProperties;
+import de.telekom.eni.pandora.horizon.mongo.model.MessageStateMongoDocument;
+import de.telekom.eni.pandora.horizon.mongo.repository.MessageStateMongoRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import static de.telekom.eni.pandora.horizon.metrics.HorizonMetricsConstants.*;
+
+/**
+ * Buffers writes to the status collection and flushes them as unordered {@link BulkOperations}.
+ * <p>
+ * Writes are buffered per uuid and only the latest state of a uuid is written: an upsert replaces everything buffered
+ * before it, a status update is applied to a buffered upsert or replaces a buffered status update. The buffer is
+ * flushed every {@link MongoProperties.BulkWriteProperties#getFlushIntervalMs() flushIntervalMs} and as soon as it
+ * holds {@link MongoProperties.BulkWriteProperties#getBatchSize() batchSize} uuids, by a single thread so that writes
+ * of the same uuid are never reordered.
+ * <p>
+ * At most {@link MongoProperties.BulkWriteProperties#getMaxPending() maxPending} uuids are buffered. Writes of further
+ * uuids block for up to {@link MongoProperties.BulkWriteProperties#getMaxBlockMs() maxBlockMs} until a flush makes
+ * room, and are rejected with a {@link RejectedExecutionException} after that. The returned futures complete once the
+ * write is acknowledged by the database, or exceptionally if it failed.
+ * <p>
+ * Upserted documents are owned by the writer until their future completes and must not be modified by the caller, as
+ * status updates of the same uuid are applied to them.
+ */
+@Slf4j
+public class StateBulkWriter implements AutoCloseable {
+
+    private static final String OUTCOME_SUCCESS = "success";
+    private static final String OUTCOME_FAILURE = "failure";
+
+    private final MongoTemplate mongoTemplate;
+
+    private final MongoProperties.BulkWriteProperties properties;
+
+    private final Map<String, PendingWrite> pending = new LinkedHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition notFull = lock.newCondition();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final ScheduledExecutorService flushExecutor;
+
+    private final DistributionSummary batchSizeSummary;
+
+    private final Timer successTimer;
+
+    private final Timer failureTimer;
+
+    private final Counter coalescedCounter;
+
+    private final Counter rejectedCounter;
+
+    private final Counter droppedCounter;
+
+    private volatile boolean closed;
+
+    public StateBulkWriter(MongoTemplate mongoStatusTemplate, MongoProperties.BulkWriteProperties properties, @Nullable MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoStatusTemplate;
+        this.properties = properties;
+
+        // meters of a registry without children are no-ops
+        var registry = Objects.requireNonNullElseGet(meterRegistry, CompositeMeterRegistry::new);
+        this.batchSizeSummary = DistributionSummary.builder(METRIC_STATE_BULK_WRITE_BATCH_SIZE)
+                .description("Number of writes per bulk operation on the status collection")
+                .register(registry);
+        this.successTimer = createFlushTimer(registry, OUTCOME_SUCCESS);
+        this.failureTimer = createFlushTimer(registry, OUTCOME_FAILURE);
+        this.coalescedCounter = Counter.builder(METRIC_STATE_BULK_WRITE_COALESCED)
+                .description("Writes to the status collection that were merged into a buffered write of the same uuid")
+                .register(registry);
+        this.rejectedCounter = Counter.builder(METRIC_STATE_BULK_WRITE_REJECTED)
+                .description("Writes to the status collection that were rejected because the buffer was full")
+                .register(registry);
+        this.droppedCounter = Counter.builder(METRIC_STATE_BULK_WRITE_DROPPED_TRANSITIONS)
+                .description("Buffered status updates that were dropped because they are not allowed after the buffered status")
+                .register(registry);
+        Gauge.builder(METRIC_STATE_BULK_WRITE_PENDING, this, StateBulkWriter::getPendingCount)
+                .description("Number of uuids with buffered writes to the status collection")
+                .register(registry);
+
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "state-bulk-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flushExecutor.scheduleWithFixedDelay(this::flushSafely, properties.getFlushIntervalMs(), properties.getFlushIntervalMs(), TimeUnit.MILLISECONDS);
+    }
+
+    private static Timer createFlushTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder(METRIC_STATE_BULK_WRITE_FLUSH_LATENCY)
+                .description("Duration of bulk operations on the status collection")
+                .tag(TAG_OUTCOME, outcome)
+                .register(registry);
+    }
+
+    /**
+     * Buffers an upsert of the whole document, replacing all writes of its uuid that are still buffered.
+     */
+    public CompletableFuture<Void> upsert(MessageStateMongoDocument document) {
+        return enqueue(document.getUuid(), write -> {
+            write.document = document;
+            write.status = null;
+            write.error = null;
+        });
+    }
+
+    /**
+     * Buffers an update of the status and modification date of the uuid. The error is only updated if one is given.
+     * Like {@link MessageStateMongoRepo#transitionStatus(String, Status, StateError)}, the update is dropped if the
+     * current status is not an allowed predecessor of the new one, both for buffered and for already written states.
+     */
+    public CompletableFuture<Void> updateStatus(String uuid, Status status, @Nullable StateError error) {
+        var modified = new Date();
+        return enqueue(uuid, write -> {
+            var bufferedStatus = write.document != null ? write.document.getStatus() : write.status;
+            if (bufferedStatus != null && !bufferedStatus.canTransitionTo(status)) {
+                droppedCounter.increment();
+            } else if (write.document != null) {
+                write.document.setStatus(status);
+                write.document.setModified(modified);
+                if (error != null) {
+                    write.document.setError(error);
+                }
+            } else {
+                write.status = status;
+                write.modified = modified;
+                if (error != null) {
+                    write.error = error;
+                }
+            }
+        });
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return pending.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(String uuid, Consumer<PendingWrite> merge) {
+        var future = new CompletableFuture<Void>();
+        int pendingCount;
+
+        lock.lock();
+        try {
+            var write = pending.get(uuid);
+            if (write == null || closed) {
+                if (!awaitCapacity()) {
+                    rejectedCounter.increment();
+                    future.completeExceptionally(new RejectedExecutionException(closed
+                            ? "State bulk writer is closed"
+                            : "More than %d uuids are waiting to be written to the status collection".formatted(properties.getMaxPending())));
+                    return future;
+                }
+
+                write = new PendingWrite(uuid);
+                pending.put(uuid, write);
+            } else {
+                coalescedCounter.increment();
+            }
+
+            merge.accept(write);
+            write.futures.add(future);
+            pendingCount = pending.size();
+        } finally {
+            lock.unlock();
+        }
+
+        if (pendingCount >= properties.getBatchSize() && flushRequested.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(() -> {
+                    flushRequested.set(false);
+                    flushSafely();
+                });
+            } catch (RejectedExecutionException e) {
+                // closed concurrently, the final flush writes the buffered states
+            }
+        }
+
+        return future;
+    }
+
+    // must be called while holding the lock
+    private boolean awaitCapacity() {
+        var remainingNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMaxBlockMs());
+        try {
+            while (!closed && pending.size() >= properties.getMaxPending()) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = notFull.awaitNanos(remainingNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        return !closed;
+    }
+
+    private void flushSafely() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Unexpected error while flushing buffered state writes", e);
+        }
+    }
+
+    private void flush() {
+        List<PendingWrite> batch;
+        while (!(batch = drain()).isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private List<PendingWrite> drain() {
+        lock.lock();
+        try {
+            var batch = new ArrayList<PendingWrite>(Math.min(pending.size(), properties.getBatchSize()));
+            var iterator = pending.values().iterator();
+            while (iterator.hasNext() && batch.size() < properties.getBatchSize()) {
+                batch.add(iterator.next());
+                iterator.remove();
+            }
+
+            if (!batch.isEmpty()) {
+                notFull.signalAll();
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(List<PendingWrite> batch) {
+        var bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MessageStateMongoDocument.class);
+        for (var write : batch) {
+            // states are addressed by their uuid field, their _id is not necessarily the uuid. Some states only store
+            // their uuid as _id though, see MessageStateMongoDocument#getUuid
+            var query = Query.query(new Criteria().orOperator(Criteria.where("uuid").is(write.uuid), Criteria.where("_id").is(write.uuid)));
+            if (write.document != null) {
+                // the _id of an existing state must not be replaced, new states get a generated one
+                var replacement = new Document();
+                mongoTemplate.getConverter().write(write.document, replacement);
+                replacement.remove("_id");
+                bulkOperations.replaceOne(query, replacement, FindAndReplaceOptions.options().upsert());
+            } else {
+                query.addCriteria(Criteria.where("status").in(write.status.getAllowedPredecessors()));
+                var update = new Update().set("status", write.status).set("modified", write.modified);
+                if (write.error != null) {
+                    update.set("error", write.error);
+                }
+                bulkOperations.updateOne(query, update);
+            }
+        }
+
+        batchSizeSummary.record(batch.size());
+        var start = System.nanoTime();
+        try {
+            bulkOperations.execute();
+            successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batch.forEach(write -> write.complete(null));
+        } catch (BulkOperationException e) {
+            failureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.warn("{} of {} buffered state writes failed", e.getErrors().size(), batch.size());
+
+            // unordered bulk operations execute all writes, only the ones at the reported indexes failed
+            var failed = new boolean[batch.size()];
+            e.getErrors().forEach(error -> {
+                failed[error.getIndex()] = true;
+                batch.get(error.getIndex()).complete(e);
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                if (!failed[i]) {
+                    batch.get(i).complete(null);
+                }
+            }
+        } catch (RuntimeException e) {
+            failureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.error("Could not write {} buffered states", batch.size(), e);
+            batch.forEach(write -> write.complete(e));
+        }
+    }
+
+    /**
+     * Stops accepting writes and flushes the buffered ones. Blocks for at most
+     * {@link MongoProperties.BulkWriteProperties#getMaxBlockMs() maxBlockMs}.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        // already submitted tasks still run after shutdown, the periodic flush does not
+        flushExecutor.execute(this::flushSafely);
+        flushExecutor.shutdown();
+        try {
+            if (!flushExecutor.awaitTermination(properties.getMaxBlockMs(), TimeUnit.MILLISECONDS)) {
+                log.warn("{} uuids have not been written to the status collection before closing", getPendingCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class PendingWrite {
+
+        private final String uuid;
+
+        private final List<CompletableFuture<Void>> futures = new ArrayList<>(1);
+
+        private MessageStateMongoDocument document;
+
+        private Status status;
+
+        private Date modified;
+
+        private StateError error;
+
+        private PendingWrite(String uuid) {
+            this.uuid = uuid;
+        }
+
+        private void complete(@Nullable Throwable e) {
+            futures.forEach(future -> {
+                if (e == null) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,142 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.auth;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OAuth2TokenCacheTest {
+
+    private HttpServer server;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final AtomicBoolean failing = new AtomicBoolean();
+
+    // with the 5 seconds buffer, tokens are refreshed after 1 second
+    private volatile int expiresIn = 6;
+
+    private OAuth2TokenCache tokenCache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            var request = requests.incrementAndGet();
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            var realm = exchange.getRequestURI().getPath().split("/")[2];
+            var status = failing.get() ? 500 : 200;
+            var body = failing.get() ? "{}" : "{\"access_token\":\"%s-%d\",\"expires_in\":%d}".formatted(realm, request, expiresIn);
+
+            var bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+
+        var url = "http://localhost:%d/realms/<realm>/token".formatted(server.getAddress().getPort());
+        tokenCache = new OAuth2TokenCache(url, "client", "default=secret,other=other-secret");
+    }
+
+    @AfterEach
+    void tearDown() {
+        tokenCache.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void concurrentReadsOfARealmAreCoalesced() throws Exception {
+        expiresIn = 300;
+
+        var executor = Executors.newFixedThreadPool(16);
+        var start = new CountDownLatch(1);
+        var reads = new ArrayList<Future<String>>();
+        for (int i = 0; i < 32; i++) {
+            var realm = i % 2 == 0 ? "default" : "other";
+            reads.add(executor.submit(() -> {
+                start.await();
+                return tokenCache.getToken(realm);
+            }));
+        }
+
+        start.countDown();
+        for (int i = 0; i < reads.size(); i++) {
+            assertTrue(reads.get(i).get().startsWith(i % 2 == 0 ? "default-" : "other-"));
+        }
+        executor.shutdown();
+
+        assertEquals(2, requests.get());
+        assertTrue(tokenCache.getToken("unknown").startsWith("default-"));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void tokensAreRefreshedInTheBackground() throws Exception {
+        var token = tokenCache.getToken("default");
+        assertEquals(1, requests.get());
+
+        Thread.sleep(1500);
+
+        assertNotEquals(token, tokenCache.getToken("default"));
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void currentTokenIsServedWhileRefreshFails() {
+        expiresIn = 300;
+        var token = tokenCache.getToken("default");
+
+        failing.set(true);
+        assertThrows(RuntimeException.class, () -> tokenCache.retrieveAccessToken("default"));
+
+        // the refresh has failed, reading does not fail and does not wait for the identity provider
+        var start = System.nanoTime();
+        assertEquals(token, tokenCache.getToken("default"));
+        assertTrue(System.nanoTime() - start < 100_000_000L);
+        assertEquals(2, requests.get());
+
+        failing.set(false);
+        tokenCache.retrieveAccessToken("default");
+        assertNotEquals(token, tokenCache.getToken("default"));
+    }
+
+    @Test
+    void expiredTokenIsNotServed() throws Exception {
+        tokenCache.getToken("default");
+
+        failing.set(true);
+        Thread.sleep(1500);
+
+        assertThrows(RuntimeException.class, () -> tokenCache.getToken("default"));
+    }
+
+    @Test
+    void firstReadFailsWithoutToken() {
+        failing.set(true);
+        assertThrows(RuntimeException.class, () -> tokenCache.getToken("default"));
+    }
+}
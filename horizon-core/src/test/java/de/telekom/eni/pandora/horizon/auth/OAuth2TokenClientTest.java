@@ -0,0 +1,98 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.auth;
+
+import com.sun.net.httpserver.HttpServer;
+import de.telekom.eni.pandora.horizon.auth.exception.BadTokenResponseException;
+import de.telekom.eni.pandora.horizon.auth.exception.TokenRequestErrorException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OAuth2TokenClientTest {
+
+    private HttpServer server;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private volatile String requestBody;
+
+    private OAuth2TokenClient tokenClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/realms/", exchange -> {
+            requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+
+            var realm = exchange.getRequestURI().getPath().split("/")[2];
+            var response = switch (realm) {
+                case "default" -> "{\"access_token\":\"token\",\"expires_in\":300,\"token_type\":\"Bearer\"}";
+                case "broken" -> "{\"expires_in\":300}";
+                case "slow" -> {
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    yield "{}";
+                }
+                default -> null;
+            };
+
+            var bytes = (response != null ? response : "{\"error\":\"invalid_client\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(response != null ? 200 : 401, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+
+        var url = "http://localhost:%d/realms/<realm>/token".formatted(server.getAddress().getPort());
+        tokenClient = new OAuth2TokenClient(url, "my client", Duration.ofSeconds(1), Duration.ofMillis(500), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void tokenCanBeRequested() {
+        var accessToken = tokenClient.requestAccessToken("default", "s3cr&t").join();
+
+        assertEquals("token", accessToken.getToken());
+        assertFalse(accessToken.isExpired());
+        assertEquals("grant_type=client_credentials&client_id=my+client&client_secret=s3cr%26t", requestBody);
+
+        var timer = meterRegistry.get("oauth2_token_requests").tag("realm", "default").tag("outcome", "success").timer();
+        assertEquals(1, timer.count());
+        assertTrue(meterRegistry.find("oauth2_token_request_failures").counters().isEmpty());
+    }
+
+    @Test
+    void failuresAreReportedAndCounted() {
+        var rejected = assertThrows(CompletionException.class, () -> tokenClient.requestAccessToken("unknown", "secret").join());
+        assertInstanceOf(TokenRequestErrorException.class, rejected.getCause());
+
+        var broken = assertThrows(CompletionException.class, () -> tokenClient.requestAccessToken("broken", "secret").join());
+        assertInstanceOf(BadTokenResponseException.class, broken.getCause());
+
+        var slow = assertThrows(CompletionException.class, () -> tokenClient.requestAccessToken("slow", "secret").join());
+        assertInstanceOf(HttpTimeoutException.class, slow.getCause());
+
+        assertEquals(1, meterRegistry.get("oauth2_token_request_failures").tag("realm", "unknown").counter().count());
+        assertEquals(1, meterRegistry.get("oauth2_token_requests").tag("realm", "slow").tag("outcome", "failure").timer().count());
+    }
+}
@@ -4,10 +4,14 @@
 
 package de.telekom.eni.pandora.horizon.cache;
 
+import com.hazelcast.client.HazelcastClientOfflineException;
 import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.HazelcastInstanceNotActiveException;
 import com.hazelcast.map.IMap;
+import com.hazelcast.map.listener.MapListener;
 import de.telekom.eni.pandora.horizon.cache.config.CacheProperties;
 import de.telekom.eni.pandora.horizon.cache.service.DeDuplicationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,8 +20,14 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -163,4 +173,225 @@ public class DeDuplicationServiceTest {
 
         assertFalse(isDuplicate);
     }
+
+    @Test
+    void testIsDuplicateAll() {
+        final var cacheName = "test";
+
+        IMap<String, String> mockedCache = mockCache();
+        doReturn(mockedCache).when(hazelcastInstance).getMap(eq(cacheName));
+
+        var keys = List.of("key-1", "key-2", "key-3");
+
+        var result = service.isDuplicateAll(cacheName, keys);
+        assertEquals(Map.of("key-1", false, "key-2", false, "key-3", false), result);
+        verify(hazelcastInstance, never()).getMap(any());
+
+        cacheProperties.setEnabled(true);
+        cacheProperties.getDeDuplication().setEnabled(true);
+
+        when(mockedCache.getAll(eq(Set.of("key-1", "key-2", "key-3")))).thenReturn(Map.of("key-2", "uuid-2"));
+
+        result = service.isDuplicateAll(cacheName, keys);
+        assertEquals(Map.of("key-1", false, "key-2", true, "key-3", false), result);
+        verify(mockedCache, times(1)).getAll(any());
+        verify(mockedCache, never()).containsKey(any());
+    }
+
+    @Test
+    void testTrackAll() {
+        final var cacheName = "test";
+
+        cacheProperties.setEnabled(true);
+        cacheProperties.getDeDuplication().setEnabled(true);
+        cacheProperties.getDeDuplication().setTtlInSeconds(60);
+
+        IMap<String, String> mockedCache = mockCache();
+        doReturn(mockedCache).when(hazelcastInstance).getMap(eq(cacheName));
+
+        var realMap = new HashMap<String, String>();
+        when(mockedCache.setAsync(any(), any(), eq(60L), eq(TimeUnit.SECONDS), eq(1800L), eq(TimeUnit.SECONDS))).then(i -> {
+            realMap.put(i.getArgument(0), i.getArgument(1));
+            return CompletableFuture.completedFuture(null);
+        });
+
+        var entries = Map.of("key-1", "uuid-1", "key-2", "uuid-2");
+        service.trackAll(cacheName, entries);
+
+        assertEquals(entries, realMap);
+        verify(hazelcastInstance, times(1)).getMap(eq(cacheName));
+    }
+
+    @Test
+    void testTrackAllSkipsTrackingWhenNotActive() {
+        final var cacheName = "test";
+
+        cacheProperties.setEnabled(true);
+        cacheProperties.getDeDuplication().setEnabled(true);
+
+        // instance fails right away
+        when(hazelcastInstance.getMap(eq(cacheName))).thenThrow(new HazelcastInstanceNotActiveException());
+        assertDoesNotThrow(() -> service.trackAll(cacheName, Map.of("key-1", "uuid-1")));
+
+        // writes complete exceptionally
+        IMap<String, String> mockedCache = mockCache();
+        doReturn(mockedCache).when(hazelcastInstance).getMap(eq(cacheName));
+        when(mockedCache.setAsync(any(), any(), anyLong(), eq(TimeUnit.SECONDS), anyLong(), eq(TimeUnit.SECONDS)))
+                .thenReturn(CompletableFuture.failedFuture(new HazelcastInstanceNotActiveException()));
+        assertDoesNotThrow(() -> service.trackAll(cacheName, Map.of("key-1", "uuid-1")));
+    }
+
+    @Test
+    void testAsyncItemsCanBeTrackedAndCleared() {
+        final var cacheName = "test";
+        final var uniqueKey = "my-unique-key";
+
+        cacheProperties.setEnabled(true);
+        cacheProperties.getDeDuplication().setEnabled(true);
+
+        IMap<String, String> mockedCache = mockCache();
+        doReturn(mockedCache).when(hazelcastInstance).getMap(eq(cacheName));
+
+        var realMap = new HashMap<String, String>();
+        when(mockedCache.putAsync(eq(uniqueKey), any(), anyLong(), eq(TimeUnit.SECONDS), anyLong(), eq(TimeUnit.SECONDS)))
+                .then(i -> CompletableFuture.completedFuture(realMap.put(uniqueKey, i.getArgument(1))));
+        when(mockedCache.getAsync(eq(uniqueKey))).then(i -> CompletableFuture.completedFuture(realMap.get(uniqueKey)));
+        when(mockedCache.removeAsync(eq(uniqueKey))).then(i -> CompletableFuture.completedFuture(realMap.remove(uniqueKey)));
+
+        assertFalse(service.isDuplicateAsync(cacheName, uniqueKey).toCompletableFuture().join());
+        assertNull(service.trackAsync(cacheName, uniqueKey, "val").toCompletableFuture().join());
+        assertTrue(service.isDuplicateAsync(cacheName, uniqueKey).toCompletableFuture().join());
+
+        service.clearAsync(cacheName, uniqueKey).toCompletableFuture().join();
+        assertFalse(service.isDuplicateAsync(cacheName, uniqueKey).toCompletableFuture().join());
+    }
+
+    @Test
+    void testAsyncFallbackWhenOffline() {
+        final var cacheName = "test";
+        final var uniqueKey = "my-unique-key";
+
+        cacheProperties.setEnabled(true);
+        cacheProperties.getDeDuplication().setEnabled(true);
+
+        // client fails right away
+        when(hazelcastInstance.getMap(eq(cacheName))).thenThrow(new HazelcastClientOfflineException());
+        assertFalse(service.isDuplicateAsync(cacheName, uniqueKey).toCompletableFuture().join());
+        assertNull(service.trackAsync(cacheName, uniqueKey, "val").toCompletableFuture().join());
+
+        // client completes exceptionally
+        IMap<String, String> mockedCache = mockCache();
+        doReturn(mockedCache).when(hazelcastInstance).getMap(eq(cacheName));
+        when(mockedCache.getAsync(eq(uniqueKey))).thenReturn(CompletableFuture.failedFuture(new HazelcastClientOfflineException()));
+
+        assertFalse(service.isDuplicateAsync(cacheName, uniqueKey).toCompletableFuture().join());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testBloomFilterSkipsLookupsOfNewKeys() throws InterruptedException {
+        final var cacheName = "test";
+
+        cacheProperties.setEnabled(true);
+        cacheProperties.getDeDuplication().setEnabled(true);
+        cacheProperties.getDeDuplication().setTtlInSeconds(1);
+        cacheProperties.getDeDuplication().getBloomFilter().setEnabled(true);
+
+        var meterRegistry = new SimpleMeterRegistry();
+        service.bindTo(meterRegistry);
+
+        IMap<String, String> mockedCache = mockCache();
+        doReturn(mockedCache).when(hazelcastInstance).getMap(eq(cacheName));
+        when(mockedCache.containsKey(any())).thenReturn(false);
+
+        // the filter does not answer on its own until it has been running for the ttl
+        assertFalse(service.isDuplicate(cacheName, "new-key"));
+        verify(mockedCache, times(1)).containsKey(eq("new-key"));
+        verify(mockedCache, times(1)).addEntryListener(any(MapListener.class), eq(false));
+
+        Thread.sleep(1100);
+
+        service.track(cacheName, "tracked-key", "val");
+        when(mockedCache.containsKey(eq("tracked-key"))).thenReturn(true);
+
+        assertFalse(service.isDuplicate(cacheName, "other-new-key"));
+        verify(mockedCache, never()).containsKey(eq("other-new-key"));
+
+        assertTrue(service.isDuplicate(cacheName, "tracked-key"));
+        verify(mockedCache, times(1)).containsKey(eq("tracked-key"));
+
+        assertEquals(1.0, meterRegistry.get("deduplication_bloom_filter_skipped_lookups").functionCounter().count());
+        assertTrue(meterRegistry.get("deduplication_bloom_filter_memory_bytes").gauge().value() > 0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCompactKeyEncoding() {
+        final var cacheName = "test";
+        final var key = UUID.randomUUID() + "--" + UUID.randomUUID();
+        final var value = UUID.randomUUID().toString();
+
+        cacheProperties.setEnabled(true);
+        cacheProperties.getDeDuplication().setEnabled(true);
+        cacheProperties.getDeDuplication().setKeyEncoding(CacheProperties.KeyEncoding.COMPACT);
+
+        var mockedCache = (IMap<Object, Object>) Mockito.mock(IMap.class);
+        doReturn(mockedCache).when(hazelcastInstance).getMap(eq(cacheName));
+
+        var realMap = new HashMap<ByteBuffer, byte[]>();
+        when(mockedCache.put(any(), any(), anyLong(), eq(TimeUnit.SECONDS), anyLong(), eq(TimeUnit.SECONDS)))
+                .then(i -> realMap.put(ByteBuffer.wrap(i.getArgument(0)), i.getArgument(1)));
+        when(mockedCache.containsKey(any())).then(i -> realMap.containsKey(ByteBuffer.wrap(i.getArgument(0))));
+        when(mockedCache.get(any())).then(i -> realMap.get(ByteBuffer.wrap(i.getArgument(0))));
+
+        assertFalse(service.isDuplicate(cacheName, key));
+        assertNull(service.track(cacheName, key, value));
+        assertTrue(service.isDuplicate(cacheName, key));
+        assertEquals(value, service.get(cacheName, key));
+
+        var compactEntry = realMap.entrySet().iterator().next();
+        assertEquals(32, compactEntry.getKey().remaining());
+        assertEquals(17, compactEntry.getValue().length);
+        verify(mockedCache, never()).containsKey(eq(key));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDualKeyEncodingReadsBothFormats() {
+        final var cacheName = "test";
+        final var oldKey = UUID.randomUUID() + "--" + UUID.randomUUID();
+        final var newKey = UUID.randomUUID() + "--" + UUID.randomUUID();
+
+        cacheProperties.setEnabled(true);
+        cacheProperties.getDeDuplication().setEnabled(true);
+        cacheProperties.getDeDuplication().setKeyEncoding(CacheProperties.KeyEncoding.DUAL);
+
+        var mockedCache = (IMap<Object, Object>) Mockito.mock(IMap.class);
+        doReturn(mockedCache).when(hazelcastInstance).getMap(eq(cacheName));
+
+        // entries written before the migration only exist in the string format
+        var realMap = new HashMap<Object, Object>();
+        realMap.put(oldKey, "old-value");
+
+        when(mockedCache.put(any(), any(), anyLong(), eq(TimeUnit.SECONDS), anyLong(), eq(TimeUnit.SECONDS)))
+                .then(i -> realMap.put(normalize(i.getArgument(0)), i.getArgument(1)));
+        when(mockedCache.containsKey(any())).then(i -> realMap.containsKey(normalize(i.getArgument(0))));
+        when(mockedCache.get(any())).then(i -> realMap.get(normalize(i.getArgument(0))));
+
+        assertTrue(service.isDuplicate(cacheName, oldKey));
+        assertEquals("old-value", service.get(cacheName, oldKey));
+
+        assertFalse(service.isDuplicate(cacheName, newKey));
+        service.track(cacheName, newKey, "new-value");
+        assertTrue(service.isDuplicate(cacheName, newKey));
+        assertEquals("new-value", service.get(cacheName, newKey));
+
+        // new entries are written in both formats, so that instances that still use strings find them
+        assertEquals("new-value", realMap.get(newKey));
+        assertEquals(3, realMap.size());
+    }
+
+    private static Object normalize(Object key) {
+        return key instanceof byte[] bytes ? ByteBuffer.wrap(bytes) : key;
+    }
 }
@@ -0,0 +1,137 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.cache.index;
+
+import com.hazelcast.core.EntryEvent;
+import com.hazelcast.core.HazelcastJsonValue;
+import de.telekom.eni.pandora.horizon.cache.listener.SubscriptionResourceEvent;
+import de.telekom.eni.pandora.horizon.cache.service.JsonCacheService;
+import de.telekom.eni.pandora.horizon.exception.JsonCacheException;
+import de.telekom.eni.pandora.horizon.kubernetes.resource.Subscription;
+import de.telekom.eni.pandora.horizon.kubernetes.resource.SubscriptionResource;
+import de.telekom.eni.pandora.horizon.kubernetes.resource.SubscriptionResourceSpec;
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SubscriptionIndexTest {
+
+    private SubscriptionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SubscriptionIndex();
+        index.initialize(List.of(
+                createSubscriptionResource("sub-1", "pandora.smoketest.v1", "subscriber-1", "callback"),
+                createSubscriptionResource("sub-2", "pandora.smoketest.v1", "subscriber-2", "sse"),
+                createSubscriptionResource("sub-3", "pandora.other.v1", "subscriber-1", "server_sent_event")
+        ));
+    }
+
+    @Test
+    void lookups() {
+        assertEquals(3, index.size());
+        assertTrue(index.findBySubscriptionId("sub-1").isPresent());
+        assertEquals(2, index.findByType("pandora.smoketest.v1").size());
+        assertEquals(2, index.findBySubscriberId("subscriber-1").size());
+        assertEquals(1, index.findByDeliveryType(DeliveryType.CALLBACK).size());
+        assertEquals(2, index.findByDeliveryType(DeliveryType.SERVER_SENT_EVENT).size());
+        assertTrue(index.findByType("unknown").isEmpty());
+    }
+
+    @Test
+    void upsertMovesSubscriptionBetweenIndices() {
+        index.upsert(createSubscriptionResource("sub-1", "pandora.other.v1", "subscriber-1", "sse"));
+
+        assertEquals(3, index.size());
+        assertEquals(List.of("sub-2"), subscriptionIds(index.findByType("pandora.smoketest.v1")));
+        assertEquals(2, index.findByType("pandora.other.v1").size());
+        assertTrue(index.findByDeliveryType(DeliveryType.CALLBACK).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void subscriptionResourceEvents() {
+        EntryEvent<String, HazelcastJsonValue> entryEvent = mock(EntryEvent.class);
+        when(entryEvent.getKey()).thenReturn("sub-4");
+
+        var added = createSubscriptionResource("sub-4", "pandora.smoketest.v1", "subscriber-3", "callback");
+        index.onSubscriptionResourceEvent(new SubscriptionResourceEvent(added, null, entryEvent));
+
+        assertEquals(3, index.findByType("pandora.smoketest.v1").size());
+        assertEquals(2, index.findByDeliveryType(DeliveryType.CALLBACK).size());
+
+        index.onSubscriptionResourceEvent(new SubscriptionResourceEvent(null, added, entryEvent));
+
+        assertTrue(index.findBySubscriptionId("sub-4").isEmpty());
+        assertTrue(index.findBySubscriberId("subscriber-3").isEmpty());
+        assertEquals(2, index.findByType("pandora.smoketest.v1").size());
+    }
+
+    @Test
+    void resourceEventHandler() {
+        var handler = index.asResourceEventHandler();
+
+        handler.onDelete(createSubscriptionResource("sub-2", "pandora.smoketest.v1", "subscriber-2", "sse"), false);
+
+        assertEquals(2, index.size());
+        assertEquals(List.of("sub-1"), subscriptionIds(index.findByType("pandora.smoketest.v1")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void initializeKeepsUpdatesArrivingWhileLoading() throws JsonCacheException {
+        JsonCacheService<SubscriptionResource> subscriptionCache = mock(JsonCacheService.class);
+        when(subscriptionCache.getAll()).thenAnswer(invocation -> {
+            // the current contents stay readable while loading
+            assertEquals(3, index.size());
+            assertEquals(2, index.findByType("pandora.smoketest.v1").size());
+
+            index.upsert(createSubscriptionResource("sub-4", "pandora.smoketest.v1", "subscriber-3", "callback"));
+            index.remove("sub-1");
+
+            // loaded before the updates arrived
+            return List.of(
+                    createSubscriptionResource("sub-1", "pandora.smoketest.v1", "subscriber-1", "callback"),
+                    createSubscriptionResource("sub-2", "pandora.smoketest.v1", "subscriber-2", "sse")
+            );
+        });
+
+        index.initialize(subscriptionCache);
+
+        assertEquals(List.of("sub-2", "sub-4"), subscriptionIds(index.findByType("pandora.smoketest.v1")).stream().sorted().toList());
+        assertTrue(index.findBySubscriptionId("sub-1").isEmpty());
+        assertTrue(index.findBySubscriptionId("sub-3").isEmpty());
+
+        // updates after the load are not applied again by the next one
+        index.initialize(List.of());
+        assertEquals(0, index.size());
+    }
+
+    private static List<String> subscriptionIds(List<SubscriptionResource> resources) {
+        return resources.stream().map(r -> r.getSpec().getSubscription().getSubscriptionId()).toList();
+    }
+
+    private static SubscriptionResource createSubscriptionResource(String subscriptionId, String type, String subscriberId, String deliveryType) {
+        var subscription = new Subscription();
+        subscription.setSubscriptionId(subscriptionId);
+        subscription.setType(type);
+        subscription.setSubscriberId(subscriberId);
+        subscription.setDeliveryType(deliveryType);
+
+        var spec = new SubscriptionResourceSpec();
+        spec.setSubscription(subscription);
+
+        var resource = new SubscriptionResource();
+        resource.setSpec(spec);
+        return resource;
+    }
+}
@@ -7,10 +7,15 @@ package de.telekom.eni.pandora.horizon.cache.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hazelcast.client.HazelcastClientOfflineException;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.EntryEvent;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.HazelcastJsonValue;
 import com.hazelcast.map.IMap;
 import de.telekom.eni.pandora.horizon.cache.fallback.SubscriptionCacheMongoFallback;
+import de.telekom.eni.pandora.horizon.cache.listener.SubscriptionResourceEventBroadcaster;
+import de.telekom.eni.pandora.horizon.cache.util.NearCache;
 import de.telekom.eni.pandora.horizon.cache.util.Query;
 import de.telekom.eni.pandora.horizon.exception.JsonCacheException;
 import de.telekom.eni.pandora.horizon.kubernetes.resource.Subscription;
@@ -25,6 +30,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
@@ -72,7 +78,7 @@ class JsonCacheServiceTest {
                 .addMatcher("spec.subscription.subscriptionId", TEST_SUBSCRIPTION_ID)
                 .build();
 
-        when(mockMap.values(query.toSqlPredicate())).thenReturn(List.of(mockValue));
+        when(mockMap.values(query.toPredicate())).thenReturn(List.of(mockValue));
         when(mockMap.size()).thenReturn(1);
 
         // Call method to test
@@ -80,7 +86,7 @@ class JsonCacheServiceTest {
 
         // Verify results
         verify(hazelcastInstance, times(1)).getMap(TEST_MAP_NAME);
-        verify(mockMap, times(1)).values(query.toSqlPredicate());
+        verify(mockMap, times(1)).values(query.toPredicate());
         assertFalse(result.isEmpty(), "Result should be filled");
         assertEquals(TEST_SUBSCRIPTION_ID, result.getFirst().getSpec().getSubscription().getSubscriptionId(), "SubscriptionId should match");
     }
@@ -267,7 +273,7 @@ class JsonCacheServiceTest {
                 .addMatcher("spec.subscription.subscriptionId", TEST_SUBSCRIPTION_ID)
                 .build();
 
-        when(mockMap.values(query.toSqlPredicate())).thenReturn(List.of(hazelcastJsonValue));
+        when(mockMap.values(query.toPredicate())).thenReturn(List.of(hazelcastJsonValue));
         when(mockMap.size()).thenReturn(1);
 
         // Call method getQuery to map cache subscriptions
@@ -320,6 +326,127 @@ class JsonCacheServiceTest {
 
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetByKeyNearCache() throws JsonCacheException {
+
+        // Prepare test data and simulate Hazelcast
+        IMap<String, HazelcastJsonValue> mockMap = mock(IMap.class);
+        when(hazelcastInstance.<String, HazelcastJsonValue>getMap(TEST_MAP_NAME)).thenReturn(mockMap);
+
+        HazelcastJsonValue mockValue = new HazelcastJsonValue("{\"spec\":{\"subscription\":{\"subscriptionId\":\"123\"}}}");
+        when(mockMap.get(TEST_SUBSCRIPTION_ID)).thenReturn(mockValue);
+
+        var broadcaster = new SubscriptionResourceEventBroadcaster(new ObjectMapper(), mock(ApplicationEventPublisher.class));
+        jsonCacheService.setJsonEntryMapEventBroadcaster(broadcaster);
+        jsonCacheService.setNearCache(new NearCache<>(100, Duration.ofMinutes(1)));
+
+        // Call method to test twice, the second call should be served locally
+        Optional<SubscriptionResource> first = jsonCacheService.getByKey(TEST_SUBSCRIPTION_ID);
+        Optional<SubscriptionResource> second = jsonCacheService.getByKey(TEST_SUBSCRIPTION_ID);
+
+        verify(mockMap, times(1)).get(TEST_SUBSCRIPTION_ID);
+        verify(mockMap, never()).size();
+        assertTrue(first.isPresent(), "Result should be present");
+        assertSame(first.get(), second.get(), "Second result should come from the near cache");
+
+        // Simulate an update of the entry within the cluster
+        EntryEvent<String, HazelcastJsonValue> entryEvent = mock(EntryEvent.class);
+        when(entryEvent.getKey()).thenReturn(TEST_SUBSCRIPTION_ID);
+        broadcaster.entryUpdated(entryEvent);
+
+        Optional<SubscriptionResource> third = jsonCacheService.getByKey(TEST_SUBSCRIPTION_ID);
+
+        verify(mockMap, times(2)).get(TEST_SUBSCRIPTION_ID);
+        assertNotSame(first.get(), third.get(), "Result should be loaded again after invalidation");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetByKeyNearCacheDropsValuesInvalidatedWhileReading() throws JsonCacheException {
+
+        // Prepare test data and simulate Hazelcast
+        IMap<String, HazelcastJsonValue> mockMap = mock(IMap.class);
+        when(hazelcastInstance.<String, HazelcastJsonValue>getMap(TEST_MAP_NAME)).thenReturn(mockMap);
+
+        var broadcaster = new SubscriptionResourceEventBroadcaster(new ObjectMapper(), mock(ApplicationEventPublisher.class));
+        jsonCacheService.setJsonEntryMapEventBroadcaster(broadcaster);
+        jsonCacheService.setNearCache(new NearCache<>(100, Duration.ofMinutes(1)));
+
+        // The entry is updated within the cluster after the old value has been read, but before it is cached
+        EntryEvent<String, HazelcastJsonValue> entryEvent = mock(EntryEvent.class);
+        when(entryEvent.getKey()).thenReturn(TEST_SUBSCRIPTION_ID);
+
+        HazelcastJsonValue oldValue = new HazelcastJsonValue("{\"spec\":{\"subscription\":{\"subscriptionId\":\"123\",\"type\":\"old\"}}}");
+        HazelcastJsonValue newValue = new HazelcastJsonValue("{\"spec\":{\"subscription\":{\"subscriptionId\":\"123\",\"type\":\"new\"}}}");
+        when(mockMap.get(TEST_SUBSCRIPTION_ID)).thenAnswer(invocation -> {
+            broadcaster.entryUpdated(entryEvent);
+            return oldValue;
+        }).thenReturn(newValue);
+
+        // Call method to test twice, the old value must not have been cached
+        Optional<SubscriptionResource> first = jsonCacheService.getByKey(TEST_SUBSCRIPTION_ID);
+        Optional<SubscriptionResource> second = jsonCacheService.getByKey(TEST_SUBSCRIPTION_ID);
+
+        verify(mockMap, times(2)).get(TEST_SUBSCRIPTION_ID);
+        assertEquals("old", first.orElseThrow().getSpec().getSubscription().getType());
+        assertEquals("new", second.orElseThrow().getSpec().getSubscription().getType());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetByKeyFallbackWhenOperationFails() throws JsonCacheException {
+
+        // Prepare test data and simulate a Hazelcast client that went offline after the map has been resolved
+        IMap<String, HazelcastJsonValue> mockMap = mock(IMap.class);
+        when(hazelcastInstance.<String, HazelcastJsonValue>getMap(TEST_MAP_NAME)).thenReturn(mockMap);
+        when(mockMap.get(TEST_SUBSCRIPTION_ID)).thenThrow(new HazelcastClientOfflineException());
+
+        SubscriptionMongoDocument mockDocument = createMockSubscriptionDocument(TEST_SUBSCRIPTION_ID, TEST_SUBSCRIPTION_TYPE);
+        when(subscriptionsMongoRepo.findBySubscriptionId(TEST_SUBSCRIPTION_ID)).thenReturn(List.of(mockDocument));
+
+        // Call method to test
+        Optional<SubscriptionResource> result = jsonCacheService.getByKey(TEST_SUBSCRIPTION_ID);
+
+        // Verify result
+        verify(subscriptionsMongoRepo, times(1)).findBySubscriptionId(TEST_SUBSCRIPTION_ID);
+        assertTrue(result.isPresent(), "Result should be present");
+        assertEquals(TEST_SUBSCRIPTION_ID, result.get().getSpec().getSubscription().getSubscriptionId(), "SubscriptionId should match");
+    }
+
+    @Test
+    void testIsServedByIndex() {
+        jsonCacheService.setIndexConfigs(List.of(
+                new IndexConfig(IndexType.HASH, "spec.subscription.type"),
+                new IndexConfig(IndexType.HASH, "spec.subscription.subscriberId", "spec.subscription.deliveryType"),
+                new IndexConfig(IndexType.SORTED, "spec.subscription.publisherId", "spec.subscription.createdAt")
+        ));
+
+        var byType = Query.builder(SubscriptionResource.class)
+                .addMatcher("spec.subscription.type", TEST_SUBSCRIPTION_TYPE)
+                .addMatcher("spec.subscription.subscriptionId", TEST_SUBSCRIPTION_ID)
+                .build();
+        var bySubscriberId = Query.builder(SubscriptionResource.class)
+                .addMatcher("spec.subscription.subscriberId", "testSubscriberId")
+                .build();
+        var bySubscriberIdAndDeliveryType = Query.builder(SubscriptionResource.class)
+                .addMatcher("spec.subscription.subscriberId", "testSubscriberId")
+                .addMatcher("spec.subscription.deliveryType", "callback")
+                .build();
+        var byPublisherId = Query.builder(SubscriptionResource.class)
+                .addMatcher("spec.subscription.publisherId", "testPublisherId")
+                .build();
+        var bySubscriptionId = Query.builder(SubscriptionResource.class)
+                .addMatcher("spec.subscription.subscriptionId", TEST_SUBSCRIPTION_ID)
+                .build();
+
+        assertTrue(jsonCacheService.isServedByIndex(byType));
+        assertFalse(jsonCacheService.isServedByIndex(bySubscriberId), "Composite hash indexes require all attributes");
+        assertTrue(jsonCacheService.isServedByIndex(bySubscriberIdAndDeliveryType));
+        assertTrue(jsonCacheService.isServedByIndex(byPublisherId), "Sorted indexes can be used by prefix");
+        assertFalse(jsonCacheService.isServedByIndex(bySubscriptionId));
+    }
+
     // Helper method to create a mock SubscriptionMongoDocument
     @SuppressWarnings("SameParameterValue")
     private SubscriptionMongoDocument createMockSubscriptionDocument(String subscriptionId, String type) {
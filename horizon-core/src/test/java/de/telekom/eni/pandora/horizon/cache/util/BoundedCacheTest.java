@@ -0,0 +1,49 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.cache.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void getReturnsPutValue() {
+        var cache = new BoundedCache<String, String>(10, clock::get);
+        cache.put("foo", "bar");
+
+        assertEquals("bar", cache.get("foo"));
+        assertNull(cache.get("unknown"));
+
+        cache.remove("foo");
+        assertNull(cache.get("foo"));
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvicted() {
+        var cache = new BoundedCache<Integer, Integer>(10, clock::get);
+        for (int i = 0; i < 10; i++) {
+            clock.incrementAndGet();
+            cache.put(i, i);
+        }
+
+        // touch the oldest entry so it becomes the most recently used one
+        clock.incrementAndGet();
+        cache.get(0);
+
+        clock.incrementAndGet();
+        cache.put(10, 10);
+
+        assertTrue(cache.size() <= 10);
+        assertEquals(0, cache.get(0));
+        assertEquals(10, cache.get(10));
+        assertNull(cache.get(1));
+    }
+}
@@ -0,0 +1,55 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.cache.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactKeyEncoderTest {
+
+    @Test
+    void uuidKeysArePacked() {
+        var uuid = UUID.randomUUID();
+        var subscriptionId = UUID.randomUUID();
+
+        var encoded = CompactKeyEncoder.encodeKey(uuid + "--" + subscriptionId);
+        assertEquals(32, encoded.length);
+
+        var buffer = ByteBuffer.wrap(encoded);
+        assertEquals(uuid, new UUID(buffer.getLong(), buffer.getLong()));
+        assertEquals(subscriptionId, new UUID(buffer.getLong(), buffer.getLong()));
+    }
+
+    @Test
+    void otherKeysAreHashed() {
+        var uuid = UUID.randomUUID().toString();
+
+        var encoded = CompactKeyEncoder.encodeKey(uuid + "--eni--pandora--subscription");
+        assertEquals(32, encoded.length);
+        assertArrayEquals(encoded, CompactKeyEncoder.encodeKey(uuid + "--eni--pandora--subscription"));
+        assertFalse(Arrays.equals(encoded, CompactKeyEncoder.encodeKey(uuid + "--eni--pandora--other-subscription")));
+
+        // upper case UUIDs are not canonical and would not decode to the same string
+        assertFalse(Arrays.equals(CompactKeyEncoder.encodeKey(uuid), CompactKeyEncoder.encodeKey(uuid.toUpperCase())));
+        assertEquals(16, CompactKeyEncoder.encodeKey("my-unique-key").length);
+    }
+
+    @Test
+    void valuesCanBeDecoded() {
+        var uuid = UUID.randomUUID().toString();
+        assertEquals(17, CompactKeyEncoder.encodeValue(uuid).length);
+        assertEquals(uuid, CompactKeyEncoder.decodeValue(CompactKeyEncoder.encodeValue(uuid)));
+
+        assertEquals(uuid.toUpperCase(), CompactKeyEncoder.decodeValue(CompactKeyEncoder.encodeValue(uuid.toUpperCase())));
+        assertEquals("välue", CompactKeyEncoder.decodeValue(CompactKeyEncoder.encodeValue("välue")));
+        assertEquals("", CompactKeyEncoder.decodeValue(CompactKeyEncoder.encodeValue("")));
+        assertNull(CompactKeyEncoder.decodeValue(null));
+    }
+}
@@ -0,0 +1,53 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.cache.util;
+
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastJsonValue;
+import de.telekom.eni.pandora.horizon.cache.config.CacheProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(HazelcastTestInstance.class)
+class MapIndexProvisionerTest {
+
+    private static final String MAP_NAME = "index-provisioner-test";
+
+    @Test
+    void provisionConfiguredIndexes() {
+        var indexProperties = new CacheProperties.IndexProperties();
+        indexProperties.setEnabled(true);
+        indexProperties.getDefinitions().put(MAP_NAME, List.of(
+                new CacheProperties.IndexDefinition(IndexType.HASH, List.of("spec.subscription.type")),
+                new CacheProperties.IndexDefinition(IndexType.SORTED, List.of("spec.subscription.subscriberId", "spec.subscription.createdAt"))
+        ));
+
+        var map = HazelcastTestInstance.getHazelcastInstance().<String, HazelcastJsonValue>getMap(MAP_NAME);
+        var provisioner = new MapIndexProvisioner(indexProperties);
+
+        var indexConfigs = provisioner.provision(map);
+        assertEquals(2, indexConfigs.size());
+
+        // provisioning again on startup of another instance must not fail
+        assertEquals(2, provisioner.provision(map).size());
+
+        map.put("1", new HazelcastJsonValue("{\"spec\":{\"subscription\":{\"type\":\"pandora.smoketest.v1\"}}}"));
+        var query = Query.builder(Object.class).addMatcher("spec.subscription.type", "pandora.smoketest.v1").build();
+        assertEquals(1, map.values(query.toPredicate()).size());
+    }
+
+    @Test
+    void provisionNothingWhenDisabled() {
+        var indexProperties = new CacheProperties.IndexProperties();
+
+        var map = HazelcastTestInstance.getHazelcastInstance().<String, HazelcastJsonValue>getMap("subscriptions.subscriber.horizon.telekom.de.v1");
+
+        assertTrue(new MapIndexProvisioner(indexProperties).provision(map).isEmpty());
+    }
+}
@@ -0,0 +1,92 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.cache.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NearCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void getReturnsPutValue() {
+        var nearCache = new NearCache<String>(10, Duration.ofSeconds(10), clock::get);
+        nearCache.put("foo", "bar");
+
+        assertEquals("bar", nearCache.get("foo").orElseThrow());
+        assertTrue(nearCache.get("unknown").isEmpty());
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        var nearCache = new NearCache<String>(10, Duration.ofSeconds(10), clock::get);
+        nearCache.put("foo", "bar");
+
+        clock.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertTrue(nearCache.get("foo").isPresent());
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertTrue(nearCache.get("foo").isEmpty());
+        assertEquals(0, nearCache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedEntriesAreEvicted() {
+        var nearCache = new NearCache<Integer>(10, Duration.ofSeconds(10), clock::get);
+        for (int i = 0; i < 10; i++) {
+            clock.incrementAndGet();
+            nearCache.put(String.valueOf(i), i);
+        }
+
+        // touch the oldest entry so it becomes the most recently used one
+        clock.incrementAndGet();
+        nearCache.get("0");
+
+        clock.incrementAndGet();
+        nearCache.put("10", 10);
+
+        assertTrue(nearCache.size() <= 10);
+        assertTrue(nearCache.get("0").isPresent());
+        assertTrue(nearCache.get("10").isPresent());
+        assertTrue(nearCache.get("1").isEmpty());
+    }
+
+    @Test
+    void valuesInvalidatedWhileLoadingAreNotCached() {
+        var nearCache = new NearCache<String>(10, Duration.ofSeconds(10), clock::get);
+
+        var stamp = nearCache.stamp("foo");
+        nearCache.invalidate("foo");
+        assertFalse(nearCache.put("foo", "stale", stamp));
+        assertTrue(nearCache.get("foo").isEmpty());
+
+        stamp = nearCache.stamp("foo");
+        nearCache.invalidateAll();
+        assertFalse(nearCache.put("foo", "stale", stamp));
+        assertTrue(nearCache.get("foo").isEmpty());
+
+        assertTrue(nearCache.put("foo", "bar", nearCache.stamp("foo")));
+        assertEquals("bar", nearCache.get("foo").orElseThrow());
+    }
+
+    @Test
+    void invalidateRemovesEntries() {
+        var nearCache = new NearCache<String>(10, Duration.ofSeconds(10), clock::get);
+        nearCache.put("foo", "bar");
+        nearCache.put("hello", "world");
+
+        nearCache.invalidate("foo");
+        assertTrue(nearCache.get("foo").isEmpty());
+        assertTrue(nearCache.get("hello").isPresent());
+
+        nearCache.invalidateAll();
+        assertEquals(0, nearCache.size());
+    }
+}
@@ -4,16 +4,26 @@
 
 package de.telekom.eni.pandora.horizon.cache.util;
 
+import com.hazelcast.core.HazelcastJsonValue;
+import com.hazelcast.query.impl.predicates.AndPredicate;
+import com.hazelcast.query.impl.predicates.EqualPredicate;
+import com.hazelcast.query.impl.predicates.InPredicate;
 import de.telekom.eni.pandora.horizon.kubernetes.resource.Subscription;
+import de.telekom.eni.pandora.horizon.kubernetes.resource.SubscriptionResource;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.extension.ExtendWith;
 
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.HashSet;
+import java.util.List;
+
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.*;
 
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@ExtendWith(HazelcastTestInstance.class)
 class QueryTest {
 
     static Query query;
@@ -36,5 +46,73 @@ class QueryTest {
         assertEquals(expectation, query.toString());
     }
 
+    @Test
+    @Order(3)
+    void toPredicate() {
+        assertInstanceOf(AndPredicate.class, query.toPredicate());
+
+        var single = Query.builder(Subscription.class).addMatcher("hello", "world").build();
+        assertInstanceOf(EqualPredicate.class, single.toPredicate());
+
+        var multiple = Query.builder(Subscription.class).addMatchers("foo", "bar", "notBar").build();
+        assertInstanceOf(InPredicate.class, multiple.toPredicate());
+    }
+
+    @Test
+    @Order(4)
+    void toPredicateIsCached() {
+        var sameQuery = Query.builder(Subscription.class)
+                .addMatchers("foo", "bar", "notBar")
+                .addMatcher("hello", "world")
+                .build();
+
+        assertSame(query.toPredicate(), sameQuery.toPredicate());
+    }
+
+    @Test
+    @Order(5)
+    void frequentPredicatesStayCached() {
+        var frequent = query.toPredicate();
+        for (int i = 0; i < 2 * Query.MAX_CACHED_PREDICATES; i++) {
+            Query.builder(Subscription.class).addMatcher("rare", i).build().toPredicate();
+            assertSame(frequent, query.toPredicate());
+        }
+    }
+
+    @Test
+    @Order(6)
+    void toPredicateMatchesSqlPredicate() {
+        var map = HazelcastTestInstance.getHazelcastInstance().<String, HazelcastJsonValue>getMap("query-test");
+        map.put("1", subscriptionJson("1", "pandora.smoketest.v1", "callback", true));
+        map.put("2", subscriptionJson("2", "pandora.smoketest.v1", "sse", false));
+        map.put("3", subscriptionJson("3", "pandora.other.v1", "callback", false));
+        map.put("4", subscriptionJson("4", "pandora.other.v1", "server_sent_event", true));
+
+        var queries = List.of(
+                Query.builder(SubscriptionResource.class).addMatcher("spec.subscription.type", "pandora.smoketest.v1").build(),
+                Query.builder(SubscriptionResource.class).addMatchers("spec.subscription.deliveryType", "sse", "server_sent_event").build(),
+                Query.builder(SubscriptionResource.class).addMatcher("spec.subscription.circuitBreakerOptOut", true).build(),
+                Query.builder(SubscriptionResource.class)
+                        .addMatcher("spec.subscription.type", "pandora.other.v1")
+                        .addMatchers("spec.subscription.deliveryType", "callback", "sse")
+                        .build()
+        );
+
+        for (var q : queries) {
+            var expected = new HashSet<>(map.keySet(q.toSqlPredicate()));
+            var actual = new HashSet<>(map.keySet(q.toPredicate()));
+
+            assertFalse(expected.isEmpty(), q.toString());
+            assertEquals(expected, actual, q.toString());
+        }
+    }
+
+    private static HazelcastJsonValue subscriptionJson(String subscriptionId, String type, String deliveryType, boolean circuitBreakerOptOut) {
+        return new HazelcastJsonValue(format(
+                "{\"spec\":{\"subscription\":{\"subscriptionId\":\"%s\",\"type\":\"%s\",\"deliveryType\":\"%s\",\"circuitBreakerOptOut\":%s}}}",
+                subscriptionId, type, deliveryType, circuitBreakerOptOut
+        ));
+    }
+
 
 }
\ No newline at end of file
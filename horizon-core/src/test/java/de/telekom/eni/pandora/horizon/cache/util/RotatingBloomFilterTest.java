@@ -0,0 +1,87 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.cache.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RotatingBloomFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void addedKeysAreContained() {
+        var filter = new RotatingBloomFilter(10_000, 0.01, 4, Duration.ofMinutes(30), clock::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("key-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("key-" + i));
+        }
+    }
+
+    @Test
+    void falsePositiveRateIsBounded() {
+        var filter = new RotatingBloomFilter(10_000, 0.01, 4, Duration.ofMinutes(30), clock::get);
+
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(UUID.randomUUID() + "--" + UUID.randomUUID());
+        }
+
+        var falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(UUID.randomUUID() + "--" + UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        // a single window has been used, so the configured probability applies with some tolerance
+        assertTrue(falsePositives < 200, "Too many false positives: " + falsePositives);
+    }
+
+    @Test
+    void keysAreForgottenAfterLifetime() {
+        var filter = new RotatingBloomFilter(1_000, 0.01, 4, Duration.ofSeconds(30), clock::get);
+        assertFalse(filter.isWarm());
+
+        filter.put("foo");
+
+        // window length is 10 seconds, the key has to survive the whole lifetime
+        clock.addAndGet(Duration.ofSeconds(30).toMillis());
+        assertTrue(filter.isWarm());
+        assertTrue(filter.mightContain("foo"));
+
+        clock.addAndGet(Duration.ofSeconds(10).toMillis());
+        assertFalse(filter.mightContain("foo"));
+    }
+
+    @Test
+    void skippedWindowsAreCleared() {
+        var filter = new RotatingBloomFilter(1_000, 0.01, 4, Duration.ofSeconds(30), clock::get);
+        filter.put("foo");
+
+        clock.addAndGet(Duration.ofHours(1).toMillis());
+        assertFalse(filter.mightContain("foo"));
+
+        filter.put("bar");
+        assertTrue(filter.mightContain("bar"));
+    }
+
+    @Test
+    void memoryMatchesConfiguration() {
+        var filter = new RotatingBloomFilter(1_000_000, 0.01, 4, Duration.ofMinutes(30), clock::get);
+
+        // about 9.6 bits per key for one percent, times four windows
+        assertTrue(filter.getMemoryInBytes() > 4 * 1_150_000L);
+        assertTrue(filter.getMemoryInBytes() < 4 * 1_250_000L);
+    }
+}
@@ -0,0 +1,96 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.json;
+
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import de.telekom.eni.pandora.horizon.model.event.Event;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HorizonJsonCodecTest {
+
+    @Test
+    void readersAndWritersAreBuiltOnce() {
+        var codec = new HorizonJsonCodec(false);
+
+        assertSame(codec.readerFor(SubscriptionEventMessage.class), codec.readerFor(SubscriptionEventMessage.class));
+        assertSame(codec.writerFor(SubscriptionEventMessage.class), codec.writerFor(SubscriptionEventMessage.class));
+        assertSame(codec.writerFor(Instant.class), codec.writerFor(Instant.class));
+    }
+
+    @Test
+    void javaTimeTypesAreSupported() throws Exception {
+        var codec = new HorizonJsonCodec(false);
+        var instant = Instant.parse("2024-01-01T12:00:00Z");
+
+        var json = codec.writerFor(Instant.class).writeValueAsString(instant);
+        assertEquals(instant, codec.readerFor(Instant.class).readValue(json));
+    }
+
+    @Test
+    void subscriptionEventMessageRoundTrip() throws Exception {
+        for (var blackbird : new boolean[]{false, true}) {
+            var codec = new HorizonJsonCodec(blackbird);
+
+            var event = new Event();
+            event.setId("event-1");
+            event.setType("pandora.json.v1");
+            event.setData(Map.of("foo", "bar"));
+            var message = new SubscriptionEventMessage(event, "integration", DeliveryType.CALLBACK, "subscription-1", "multiplexed-from");
+
+            var json = codec.writerFor(SubscriptionEventMessage.class).writeValueAsBytes(message);
+            SubscriptionEventMessage read = codec.readerFor(SubscriptionEventMessage.class).readValue(json);
+
+            assertEquals(message.getUuid(), read.getUuid());
+            assertEquals("subscription-1", read.getSubscriptionId());
+            assertEquals(DeliveryType.CALLBACK, read.getDeliveryType());
+            assertEquals(Map.of("foo", "bar"), read.getEvent().getData());
+        }
+    }
+
+    @Test
+    void rawDataIsPassedThrough() throws Exception {
+        var codec = new HorizonJsonCodec(false);
+        var data = Map.of("nested", Map.of("list", List.of(1, 2.5, "three"), "text", "ä \"quoted\" }"));
+        var json = codec.writerFor(SubscriptionEventMessage.class).writeValueAsBytes(createMessage(data));
+
+        for (var read : List.of(
+                codec.readWithRawData(json, SubscriptionEventMessage.class),
+                codec.readWithRawData(new String(json, StandardCharsets.UTF_8), SubscriptionEventMessage.class))) {
+            var rawData = assertInstanceOf(RawJson.class, read.getEvent().getData());
+            assertEquals(data, rawData.readAs(Map.class));
+
+            var written = codec.writerFor(SubscriptionEventMessage.class).writeValueAsBytes(read);
+            assertEquals(codec.getObjectMapper().readTree(json), codec.getObjectMapper().readTree(written));
+        }
+
+        SubscriptionEventMessage read = codec.readerFor(SubscriptionEventMessage.class).readValue(json);
+        assertEquals(data, read.getEvent().getData());
+    }
+
+    @Test
+    void scalarRawData() throws Exception {
+        var codec = new HorizonJsonCodec(false);
+        var json = codec.writerFor(SubscriptionEventMessage.class).writeValueAsBytes(createMessage("text"));
+
+        var read = codec.readWithRawData(json, SubscriptionEventMessage.class);
+        assertEquals(RawJson.of("\"text\""), read.getEvent().getData());
+    }
+
+    private static SubscriptionEventMessage createMessage(Object data) {
+        var event = new Event();
+        event.setId("event-1");
+        event.setType("pandora.json.v1");
+        event.setData(data);
+        return new SubscriptionEventMessage(event, "integration", DeliveryType.CALLBACK, "subscription-1", "multiplexed-from");
+    }
+}
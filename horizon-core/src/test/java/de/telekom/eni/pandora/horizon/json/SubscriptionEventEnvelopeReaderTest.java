@@ -0,0 +1,116 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.json;
+
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import de.telekom.eni.pandora.horizon.model.event.Event;
+import de.telekom.eni.pandora.horizon.model.event.Status;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import de.telekom.eni.pandora.horizon.model.meta.EventRetentionTime;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubscriptionEventEnvelopeReaderTest {
+
+    private final HorizonJsonCodec jsonCodec = new HorizonJsonCodec(false);
+
+    private final SubscriptionEventEnvelopeReader reader = new SubscriptionEventEnvelopeReader(jsonCodec);
+
+    @Test
+    void readsRoutingFieldsAndDefersData() throws Exception {
+        var data = Map.of("nested", Map.of("list", List.of(1, 2, 3), "text", "{\"quoted\": [\"brackets\"]}"), "umlaut", "äöü");
+        var message = createMessage(data);
+        var json = jsonCodec.writerFor(SubscriptionEventMessage.class).writeValueAsBytes(message);
+
+        var envelope = reader.read(json);
+
+        assertEquals(message.getUuid(), envelope.getUuid());
+        assertEquals("integration", envelope.getEnvironment());
+        assertEquals("subscription-1", envelope.getSubscriptionId());
+        assertEquals(DeliveryType.SERVER_SENT_EVENT, envelope.getDeliveryType());
+        assertEquals("multiplexed-from", envelope.getMultiplexedFrom());
+        assertEquals(Status.PROCESSED, envelope.getStatus());
+        assertEquals("event-1", envelope.getEventId());
+        assertEquals("pandora.envelope.v1", envelope.getEventType());
+
+        assertTrue(envelope.hasRawData());
+        assertEquals(jsonCodec.getObjectMapper().readTree(jsonCodec.writerFor(Object.class).writeValueAsBytes(data)),
+                jsonCodec.getObjectMapper().readTree(envelope.getRawDataBytes()));
+        assertEquals(envelope.getRawDataBytes().length, envelope.getRawData().remaining());
+        assertEquals(data, envelope.getData());
+        assertSame(envelope.getData(), envelope.getData());
+    }
+
+    @Test
+    void readsScalarAndArrayData() throws Exception {
+        var scalar = reader.read(jsonCodec.writerFor(SubscriptionEventMessage.class).writeValueAsBytes(createMessage("text")));
+        assertFalse(scalar.hasRawData());
+        assertNull(scalar.getRawData());
+        assertEquals("text", scalar.getData());
+
+        var array = reader.read(jsonCodec.writerFor(SubscriptionEventMessage.class).writeValueAsBytes(createMessage(List.of("a", "b"))));
+        assertTrue(array.hasRawData());
+        assertEquals("[\"a\",\"b\"]", new String(array.getRawDataBytes(), StandardCharsets.UTF_8));
+        assertEquals(List.of("a", "b"), array.getData());
+
+        var withoutData = reader.read("{\"uuid\": \"uuid-1\", \"event\": {\"id\": \"event-1\", \"data\": null}}");
+        assertEquals("uuid-1", withoutData.getUuid());
+        assertNull(withoutData.getData());
+        assertNull(withoutData.getSubscriptionId());
+    }
+
+    @Test
+    void slicesStringsByCharsAndBytesByBytes() throws Exception {
+        // multi-byte characters before the data move its byte offset, but not its char offset
+        var json = "{\"uuid\": \"üü-1\", \"event\": {\"id\": \"äöü\", \"data\": {\"list\": [\"ß\"]}}}";
+
+        for (var envelope : List.of(reader.read(json), reader.read(json.getBytes(StandardCharsets.UTF_8)))) {
+            assertEquals("üü-1", envelope.getUuid());
+            assertEquals("{\"list\": [\"ß\"]}", new String(envelope.getRawDataBytes(), StandardCharsets.UTF_8));
+            assertEquals(envelope.getRawDataBytes().length, envelope.getRawData().remaining());
+            assertEquals(Map.of("list", List.of("ß")), envelope.getData());
+            assertEquals("üü-1", envelope.toSubscriptionEventMessage().getUuid());
+        }
+
+        var read = jsonCodec.readWithRawData(json, SubscriptionEventMessage.class);
+        assertEquals(RawJson.of("{\"list\": [\"ß\"]}"), read.getEvent().getData());
+    }
+
+    @Test
+    void readsTheWholeMessageOnDemand() throws Exception {
+        var message = createMessage(Map.of("foo", "bar"));
+        var envelope = reader.read(jsonCodec.writerFor(SubscriptionEventMessage.class).writeValueAsBytes(message));
+
+        var read = envelope.toSubscriptionEventMessage();
+        assertEquals(message.getUuid(), read.getUuid());
+        assertEquals(message.getHttpHeaders(), read.getHttpHeaders());
+        assertEquals(Map.of("foo", "bar"), read.getEvent().getData());
+    }
+
+    @Test
+    void rejectsNonObjects() {
+        assertThrows(MismatchedInputException.class, () -> reader.read("[]"));
+    }
+
+    private static SubscriptionEventMessage createMessage(Object data) {
+        var event = new Event();
+        event.setId("event-1");
+        event.setType("pandora.envelope.v1");
+        event.setData(data);
+
+        var message = new SubscriptionEventMessage(event, "integration", DeliveryType.SERVER_SENT_EVENT, "subscription-1",
+                "multiplexed-from", EventRetentionTime.DEFAULT, new ArrayList<>(List.of("scope")),
+                Map.of("callback-url", "https://example.com"), Map.of("x-b3-traceid", List.of("trace-1")));
+        message.setStatus(Status.PROCESSED);
+        return message;
+    }
+}
@@ -0,0 +1,90 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.kafka.compression;
+
+import com.github.luben.zstd.Zstd;
+import de.telekom.eni.pandora.horizon.json.HorizonJsonCodec;
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import de.telekom.eni.pandora.horizon.model.event.Event;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import de.telekom.eni.pandora.horizon.model.meta.EventRetentionTime;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZstdDictionaryCompressorTest {
+
+    private static byte[] trainDictionary() throws Exception {
+        var samples = new ArrayList<byte[]>();
+        for (int i = 0; i < 1_000; i++) {
+            samples.add(serialize(createMessage(i)));
+        }
+
+        return ZstdDictionaryCompressor.train(samples, 4_096);
+    }
+
+    @Test
+    void testRoundTrip() throws Exception {
+        var compressor = new ZstdDictionaryCompressor(trainDictionary(), 3);
+        var value = serialize(createMessage(4711));
+
+        var compressed = compressor.compress(value);
+
+        assertTrue(ZstdDictionaryCompressor.isCompressed(compressed));
+        assertFalse(ZstdDictionaryCompressor.isCompressed(value));
+        assertTrue(compressed.length < Zstd.compress(value, 3).length);
+        assertArrayEquals(value, compressor.decompress(compressed));
+    }
+
+    @Test
+    void testOtherDictionaryIsRejected() throws Exception {
+        var compressor = new ZstdDictionaryCompressor(trainDictionary(), 3);
+        var compressed = compressor.compress(serialize(createMessage(1)));
+
+        var samples = new ArrayList<byte[]>();
+        for (int i = 0; i < 1_000; i++) {
+            samples.add(("{\"other\": \"sample " + UUID.randomUUID() + "\", \"index\": " + i + "}").getBytes());
+        }
+        var otherCompressor = new ZstdDictionaryCompressor(ZstdDictionaryCompressor.train(samples, 4_096), 3);
+
+        assertNotEquals(compressor.getDictionaryId(), otherCompressor.getDictionaryId());
+        assertThrows(IllegalArgumentException.class, () -> otherCompressor.decompress(compressed));
+        assertThrows(IllegalArgumentException.class, () -> new ZstdDictionaryCompressor(new byte[]{1, 2, 3}, 3));
+    }
+
+    @Test
+    void testValuesLargerThanTheMaximumAreRejected() throws Exception {
+        var dictionary = trainDictionary();
+        var value = serialize(createMessage(1));
+        var compressed = new ZstdDictionaryCompressor(dictionary, 3).compress(value);
+
+        var compressor = new ZstdDictionaryCompressor(dictionary, 3, value.length - 1);
+
+        var e = assertThrows(IllegalArgumentException.class, () -> compressor.decompress(compressed));
+        assertTrue(e.getMessage().contains("exceeds the maximum"));
+        assertArrayEquals(value, new ZstdDictionaryCompressor(dictionary, 3, value.length).decompress(compressed));
+        assertThrows(IllegalArgumentException.class, () -> new ZstdDictionaryCompressor(dictionary, 3, 0));
+    }
+
+    private static SubscriptionEventMessage createMessage(int index) {
+        var event = new Event();
+        event.setId(UUID.randomUUID().toString());
+        event.setType("pandora.compression.v" + (index % 3));
+        event.setData(Map.of("index", index, "text", "some value " + UUID.randomUUID()));
+
+        return new SubscriptionEventMessage(event, "integration", DeliveryType.CALLBACK, UUID.randomUUID().toString(),
+                "multiplexed-from", EventRetentionTime.DEFAULT, new ArrayList<>(List.of("scope")),
+                Map.of("callback-url", "https://example.com/callback"), Map.of("x-b3-traceid", List.of(UUID.randomUUID().toString())));
+    }
+
+    private static byte[] serialize(SubscriptionEventMessage message) throws Exception {
+        return HorizonJsonCodec.getDefault().writerFor(SubscriptionEventMessage.class).writeValueAsBytes(message);
+    }
+}
@@ -0,0 +1,90 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.kafka.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import de.telekom.eni.pandora.horizon.model.event.Event;
+import de.telekom.eni.pandora.horizon.model.event.MessageType;
+import de.telekom.eni.pandora.horizon.model.event.Status;
+import de.telekom.eni.pandora.horizon.model.event.StatusMessage;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import de.telekom.eni.pandora.horizon.model.meta.EventRetentionTime;
+import de.telekom.eni.pandora.horizon.model.meta.HorizonComponentId;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ByteArrayEventWriterTest {
+
+    private static final String TOPIC_NAME = "subscribed";
+
+    private KafkaTemplate<String, byte[]> kafkaTemplate;
+
+    private ByteArrayEventWriter eventWriter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+
+        eventWriter = new ByteArrayEventWriter(kafkaTemplate, HorizonComponentId.MULTIPLEXER);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testValueMatchesStringSerialization() throws Exception {
+        var event = new Event();
+        event.setId("123");
+        event.setType("foobar");
+        event.setData(Map.of("umlaut", "äöü"));
+
+        var msg = new SubscriptionEventMessage(event, "env", DeliveryType.CALLBACK, "foo", "bar", EventRetentionTime.TTL_1_DAY);
+
+        eventWriter.send(TOPIC_NAME, msg);
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+
+        var record = captor.getValue();
+        assertEquals(msg.getUuid(), record.key());
+        assertArrayEquals(new ObjectMapper().writeValueAsString(msg).getBytes(StandardCharsets.UTF_8), record.value());
+        assertEquals(MessageType.MESSAGE.name(), new String(record.headers().lastHeader(AbstractEventWriter.HEADER_TYPE).value(), StandardCharsets.UTF_8));
+        assertEquals(HorizonComponentId.MULTIPLEXER.getClientId(), new String(record.headers().lastHeader(AbstractEventWriter.HEADER_CLIENT_ID).value(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSendAllUsesMessageSpecificTypeHeader() throws Exception {
+        var event = new Event();
+        event.setId("123");
+        event.setType("foobar");
+
+        var subscriptionEventMessage = new SubscriptionEventMessage(event, "env", DeliveryType.CALLBACK, "foo", "bar");
+        var statusMessage = new StatusMessage("456", "123", Status.DELIVERED, DeliveryType.CALLBACK);
+
+        eventWriter.sendAll(TOPIC_NAME, List.of(subscriptionEventMessage, statusMessage));
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(2)).send(captor.capture());
+
+        var records = captor.getAllValues();
+        assertEquals(MessageType.MESSAGE.name(), new String(records.get(0).headers().lastHeader(AbstractEventWriter.HEADER_TYPE).value(), StandardCharsets.UTF_8));
+        assertEquals(MessageType.METADATA.name(), new String(records.get(1).headers().lastHeader(AbstractEventWriter.HEADER_TYPE).value(), StandardCharsets.UTF_8));
+        assertArrayEquals(new ObjectMapper().writeValueAsBytes(statusMessage), records.get(1).value());
+    }
+}
@@ -29,9 +29,14 @@ import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -100,6 +105,35 @@ public class EventWriterTest {
 
     }
 
+    @Test
+    public void sendAllTest() throws InterruptedException, JsonProcessingException, ExecutionException, TimeoutException {
+        var messages = new ArrayList<SubscriptionEventMessage>();
+        for (int i = 0; i < 3; i++) {
+            var event = new Event();
+            event.setId(String.valueOf(i));
+            event.setType("foobar");
+
+            messages.add(new SubscriptionEventMessage(event, "env", DeliveryType.CALLBACK, "foo", "bar", EventRetentionTime.TTL_1_DAY));
+        }
+
+        var results = eventWriter.sendAll(TOPIC_NAME, messages).get(10, TimeUnit.SECONDS);
+        assertEquals(messages.size(), results.size());
+        for (int i = 0; i < messages.size(); i++) {
+            assertEquals(messages.get(i).getUuid(), results.get(i).getProducerRecord().key());
+        }
+
+        var receivedKeys = new HashSet<String>();
+        for (int i = 0; i < messages.size(); i++) {
+            ConsumerRecord<String, String> record = messageRecordsMap.poll(3, TimeUnit.SECONDS);
+            assertNotNull(record);
+            assertEquals(MessageType.MESSAGE.name(), new String(record.headers().lastHeader("type").value(), StandardCharsets.UTF_8));
+            assertEquals(HorizonComponentId.UNSET, HorizonComponentId.fromGroupId(new String(record.headers().lastHeader("clientId").value(), StandardCharsets.UTF_8)));
+            receivedKeys.add(record.key());
+        }
+
+        assertEquals(messages.stream().map(SubscriptionEventMessage::getUuid).collect(Collectors.toSet()), receivedKeys);
+    }
+
     @DynamicPropertySource
     static void dynamicProperties(DynamicPropertyRegistry registry) {
         registry.add("horizon.kafka.partitionCount", () -> 1);
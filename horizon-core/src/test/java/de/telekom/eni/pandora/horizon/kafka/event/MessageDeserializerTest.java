@@ -0,0 +1,148 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.kafka.event;
+
+import de.telekom.eni.pandora.horizon.json.HorizonJsonCodec;
+import de.telekom.eni.pandora.horizon.json.RawJson;
+import de.telekom.eni.pandora.horizon.json.WireFormat;
+import de.telekom.eni.pandora.horizon.kafka.compression.ZstdDictionaryCompressor;
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import de.telekom.eni.pandora.horizon.model.event.Event;
+import de.telekom.eni.pandora.horizon.model.event.Status;
+import de.telekom.eni.pandora.horizon.model.event.StatusMessage;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import de.telekom.eni.pandora.horizon.model.meta.EventRetentionTime;
+import de.telekom.eni.pandora.horizon.model.meta.HorizonComponentId;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MessageDeserializerTest {
+
+    private static final String TOPIC_NAME = "subscribed";
+
+    private final HorizonJsonCodec jsonCodec = new HorizonJsonCodec(false);
+
+    @Test
+    void testSmileRecordsAreLabeledAndRead() throws Exception {
+        var message = createMessage();
+
+        var smileRecord = write(WireFormat.SMILE, message);
+        var jsonRecord = write(WireFormat.JSON, message);
+
+        assertEquals("smile", new String(smileRecord.headers().lastHeader(AbstractEventWriter.HEADER_WIRE_FORMAT).value(), StandardCharsets.UTF_8));
+        assertNull(jsonRecord.headers().lastHeader(AbstractEventWriter.HEADER_WIRE_FORMAT));
+        assertTrue(smileRecord.value().length < jsonRecord.value().length);
+
+        var deserializer = new MessageDeserializer<>(SubscriptionEventMessage.class, jsonCodec, false);
+        for (var record : List.of(smileRecord, jsonRecord)) {
+            var read = deserializer.deserialize(TOPIC_NAME, record.headers(), record.value());
+
+            assertEquals(message.getUuid(), read.getUuid());
+            assertEquals(EventRetentionTime.TTL_1_DAY, read.getEventRetentionTime());
+            assertEquals(Map.of("umlaut", "äöü"), read.getEvent().getData());
+        }
+    }
+
+    @Test
+    void testFormatIsDetectedWithoutHeaders() throws Exception {
+        var statusMessage = new StatusMessage("456", "123", Status.DELIVERED, DeliveryType.CALLBACK);
+        var deserializer = new MessageDeserializer<>(StatusMessage.class, jsonCodec, false);
+
+        for (var wireFormat : WireFormat.values()) {
+            var value = jsonCodec.writerFor(StatusMessage.class, wireFormat).writeValueAsBytes(statusMessage);
+            assertEquals(wireFormat, WireFormat.detect(value));
+            assertEquals(Status.DELIVERED, deserializer.deserialize(TOPIC_NAME, value).getStatus());
+        }
+    }
+
+    @Test
+    void testRawDataIsKeptForJsonAndEncodedForSmile() throws Exception {
+        var record = write(WireFormat.JSON, createMessage());
+
+        var read = new MessageDeserializer<>(SubscriptionEventMessage.class, jsonCodec, true).deserialize(TOPIC_NAME, record.headers(), record.value());
+        assertInstanceOf(RawJson.class, read.getEvent().getData());
+
+        var smileRecord = write(WireFormat.SMILE, read);
+        var readFromSmile = new MessageDeserializer<>(SubscriptionEventMessage.class, jsonCodec, true).deserialize(TOPIC_NAME, smileRecord.headers(), smileRecord.value());
+        assertEquals(Map.of("umlaut", "äöü"), readFromSmile.getEvent().getData());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCompressedRecordsAreDecompressed() throws Exception {
+        var samples = new ArrayList<byte[]>();
+        for (int i = 0; i < 1_000; i++) {
+            var sample = createMessage();
+            sample.setSubscriptionId(UUID.randomUUID().toString());
+            samples.add(jsonCodec.writerFor(SubscriptionEventMessage.class, WireFormat.SMILE).writeValueAsBytes(sample));
+        }
+        var compressor = new ZstdDictionaryCompressor(ZstdDictionaryCompressor.train(samples, 4_096), 3);
+
+        KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+        var eventWriter = new ByteArrayEventWriter(kafkaTemplate, HorizonComponentId.MULTIPLEXER, jsonCodec, WireFormat.SMILE);
+        eventWriter.setCompressor(compressor);
+
+        var message = createMessage();
+        eventWriter.send(TOPIC_NAME, message);
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        var record = captor.getValue();
+        assertEquals(ZstdDictionaryCompressor.COMPRESSION_TYPE, new String(record.headers().lastHeader(AbstractEventWriter.HEADER_COMPRESSION).value(), StandardCharsets.UTF_8));
+
+        var deserializer = new MessageDeserializer<>(SubscriptionEventMessage.class, jsonCodec, false);
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC_NAME, record.headers(), record.value()));
+
+        deserializer.setCompressor(compressor);
+        assertEquals(message.getUuid(), deserializer.deserialize(TOPIC_NAME, record.headers(), record.value()).getUuid());
+        assertEquals(message.getUuid(), deserializer.deserialize(TOPIC_NAME, record.value()).getUuid());
+    }
+
+    @Test
+    void testUnknownWireFormatIsRejected() {
+        var headers = new RecordHeaders();
+        headers.add(AbstractEventWriter.HEADER_WIRE_FORMAT, "avro".getBytes(StandardCharsets.UTF_8));
+
+        var deserializer = new MessageDeserializer<>(SubscriptionEventMessage.class);
+        assertThrows(SerializationException.class, () -> deserializer.deserialize(TOPIC_NAME, headers, new byte[]{0}));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ProducerRecord<String, byte[]> write(WireFormat wireFormat, SubscriptionEventMessage message) throws Exception {
+        KafkaTemplate<String, byte[]> kafkaTemplate = mock(KafkaTemplate.class);
+        when(kafkaTemplate.send(any(ProducerRecord.class))).thenReturn(new CompletableFuture<>());
+
+        new ByteArrayEventWriter(kafkaTemplate, HorizonComponentId.MULTIPLEXER, jsonCodec, wireFormat).send(TOPIC_NAME, message);
+
+        ArgumentCaptor<ProducerRecord<String, byte[]>> captor = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate).send(captor.capture());
+        return captor.getValue();
+    }
+
+    private static SubscriptionEventMessage createMessage() {
+        var event = new Event();
+        event.setId("123");
+        event.setType("foobar");
+        event.setData(Map.of("umlaut", "äöü"));
+
+        return new SubscriptionEventMessage(event, "env", DeliveryType.CALLBACK, "foo", "bar", EventRetentionTime.TTL_1_DAY);
+    }
+}
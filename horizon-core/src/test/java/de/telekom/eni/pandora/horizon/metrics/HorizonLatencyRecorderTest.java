@@ -0,0 +1,104 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.metrics;
+
+import de.telekom.eni.pandora.horizon.kafka.event.AbstractEventWriter;
+import de.telekom.eni.pandora.horizon.metrics.config.MetricsProperties;
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import de.telekom.eni.pandora.horizon.model.event.Event;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import de.telekom.eni.pandora.horizon.model.meta.HorizonComponentId;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeader;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static de.telekom.eni.pandora.horizon.metrics.HorizonMetricsConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HorizonLatencyRecorderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final MetricsProperties.LatencyProperties properties = new MetricsProperties.LatencyProperties();
+
+    private final HorizonLatencyRecorder latencyRecorder = new HorizonLatencyRecorder(registry, properties);
+
+    @Test
+    void hopLatencyIsRecordedPerComponent() {
+        var producedAt = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now().minusMillis(250));
+
+        var consumerRecord = new ConsumerRecord<String, String>("subscribed", 0, 0, "key", "value");
+        consumerRecord.headers().add(AbstractEventWriter.HEADER_CLIENT_ID, "multiplexer".getBytes(StandardCharsets.UTF_8));
+        consumerRecord.headers().add(HorizonLatencyRecorder.HEADER_PRODUCE_TIMESTAMP, ByteBuffer.allocate(Long.BYTES).putLong(producedAt).array());
+
+        latencyRecorder.recordHop(consumerRecord, HorizonComponentId.DUDE);
+
+        var timer = registry.get(METRIC_HOP_LATENCY).tag(TAG_SOURCE, "multiplexer").tag(TAG_DESTINATION, "dude").timer();
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 250);
+
+        // records of producers without timestamp are skipped
+        latencyRecorder.recordHop(new ConsumerRecord<>("subscribed", 0, 1, "key", "value"), HorizonComponentId.DUDE);
+        assertEquals(1, timer.count());
+    }
+
+    @Test
+    void producedTimestampCanBeRead() {
+        var before = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+        var header = HorizonLatencyRecorder.createProduceTimestampHeader();
+
+        var consumerRecord = new ConsumerRecord<String, String>("subscribed", 0, 0, "key", "value");
+        consumerRecord.headers().add(header);
+
+        var timestamp = HorizonLatencyRecorder.getProduceTimestamp(consumerRecord.headers());
+        assertTrue(timestamp >= before);
+        assertTrue(timestamp - before < 1_000_000);
+
+        consumerRecord.headers().add(new RecordHeader(HorizonLatencyRecorder.HEADER_PRODUCE_TIMESTAMP, "invalid".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(-1, HorizonLatencyRecorder.getProduceTimestamp(consumerRecord.headers()));
+    }
+
+    @Test
+    void endToEndLatencyIsRecordedFromStartTime() {
+        properties.setPercentiles(List.of(0.5, 0.99));
+
+        var event = new Event();
+        event.setType("pandora.latency.v1");
+
+        var message = new SubscriptionEventMessage(event, "integration", DeliveryType.CALLBACK, "subscription", "multiplexed-from");
+        message.getAdditionalFields().put(AdditionalFields.START_TIME_TRUSTED.getValue(), Instant.now().minusSeconds(1).toEpochMilli());
+        latencyRecorder.recordEndToEnd(message, HorizonComponentId.DUDE);
+
+        message.getAdditionalFields().put(AdditionalFields.START_TIME_TRUSTED.getValue(), Instant.now().minusSeconds(1).toString());
+        latencyRecorder.recordEndToEnd(message, HorizonComponentId.DUDE);
+
+        message.getAdditionalFields().remove(AdditionalFields.START_TIME_TRUSTED.getValue());
+        latencyRecorder.recordEndToEnd(message, HorizonComponentId.DUDE);
+
+        var timer = registry.get(METRIC_END_TO_END_LATENCY).tag(TAG_SOURCE, "producer").tag(TAG_DESTINATION, "dude").timer();
+        assertEquals(2, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 2000);
+        assertEquals(2, timer.takeSnapshot().percentileValues().length);
+    }
+
+    @Test
+    void nothingIsRecordedWhenDisabled() {
+        properties.setEnabled(false);
+
+        var consumerRecord = new ConsumerRecord<String, String>("subscribed", 0, 0, "key", "value");
+        consumerRecord.headers().add(HorizonLatencyRecorder.createProduceTimestampHeader());
+        latencyRecorder.recordHop(consumerRecord, HorizonComponentId.DUDE);
+
+        assertNull(registry.find(METRIC_HOP_LATENCY).timer());
+    }
+}
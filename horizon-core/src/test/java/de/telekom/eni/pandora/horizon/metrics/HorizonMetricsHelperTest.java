@@ -0,0 +1,131 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.metrics;
+
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import de.telekom.eni.pandora.horizon.model.event.Event;
+import de.telekom.eni.pandora.horizon.model.event.PublishedEventMessage;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static de.telekom.eni.pandora.horizon.metrics.HorizonMetricsConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HorizonMetricsHelperTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final HorizonMetricsHelper metricsHelper = new HorizonMetricsHelper(registry);
+
+    @Test
+    void subscriptionEventMessageTags() {
+        var callback = createMessage(DeliveryType.CALLBACK, "subscription-1");
+        callback.getAdditionalFields().put("callback-url", "https://example.com/callback");
+        callback.getAdditionalFields().put("subscriber-id", "subscriber");
+
+        assertEquals(Tags.of(
+                TAG_ENVIRONMENT, "integration",
+                TAG_EVENT_TYPE, "pandora.metrics.v1",
+                TAG_SUBSCRIPTION_ID, "subscription-1",
+                TAG_DELIVERY_TYPE, "callback",
+                TAG_CALLBACK_URL, "https://example.com/callback",
+                TAG_SUBSCRIBER_ID, "subscriber"
+        ), metricsHelper.buildTagsFromSubscriptionEventMessage(callback));
+
+        var sse = createMessage(DeliveryType.SERVER_SENT_EVENT, "subscription-2");
+        assertEquals(Tags.of(
+                TAG_ENVIRONMENT, "integration",
+                TAG_EVENT_TYPE, "pandora.metrics.v1",
+                TAG_SUBSCRIPTION_ID, "subscription-2",
+                TAG_DELIVERY_TYPE, "server_sent_event",
+                TAG_CALLBACK_URL, "none",
+                TAG_SUBSCRIBER_ID, "none"
+        ), metricsHelper.buildTagsFromSubscriptionEventMessage(sse));
+
+        var withoutAdditionalFields = createMessage(DeliveryType.CALLBACK, "subscription-3");
+        withoutAdditionalFields.setAdditionalFields(null);
+        assertEquals(Tags.of(
+                TAG_ENVIRONMENT, "integration",
+                TAG_EVENT_TYPE, "pandora.metrics.v1",
+                TAG_SUBSCRIPTION_ID, "subscription-3",
+                TAG_DELIVERY_TYPE, "callback"
+        ), metricsHelper.buildTagsFromSubscriptionEventMessage(withoutAdditionalFields));
+    }
+
+    @Test
+    void tagsAndMetersAreCached() {
+        var first = createMessage(DeliveryType.CALLBACK, "subscription-1");
+        var second = createMessage(DeliveryType.CALLBACK, "subscription-1");
+
+        assertSame(metricsHelper.buildTagsFromSubscriptionEventMessage(first), metricsHelper.buildTagsFromSubscriptionEventMessage(second));
+
+        var counter = metricsHelper.getCounter(METRIC_MULTIPLEXED_EVENTS, first);
+        assertSame(counter, metricsHelper.getCounter(METRIC_MULTIPLEXED_EVENTS, second));
+        assertNotSame(counter, metricsHelper.getCounter(METRIC_MULTIPLEXED_EVENTS, createMessage(DeliveryType.CALLBACK, "subscription-2")));
+
+        counter.increment();
+        metricsHelper.getCounter(METRIC_MULTIPLEXED_EVENTS, second).increment();
+        assertEquals(2, registry.get(METRIC_MULTIPLEXED_EVENTS).tag(TAG_SUBSCRIPTION_ID, "subscription-1").counter().count());
+
+        var published = new PublishedEventMessage(createEvent(), "integration");
+        assertSame(metricsHelper.getTimer(METRIC_PUBLISHED_EVENTS, published), metricsHelper.getTimer(METRIC_PUBLISHED_EVENTS, published));
+        assertEquals(Tags.of(TAG_ENVIRONMENT, "integration", TAG_EVENT_TYPE, "pandora.metrics.v1"), metricsHelper.buildTagsFromPublishedEventMessage(published));
+    }
+
+    @Test
+    void changedTagsOfASubscriptionAreNotServedFromTheCache() {
+        var message = createMessage(DeliveryType.CALLBACK, "subscription-1");
+        message.getAdditionalFields().put("callback-url", "https://example.com/old");
+        var counter = metricsHelper.getCounter(METRIC_MULTIPLEXED_EVENTS, message);
+
+        message.getAdditionalFields().put("callback-url", "https://example.com/new");
+        var changed = metricsHelper.getCounter(METRIC_MULTIPLEXED_EVENTS, message);
+
+        assertNotSame(counter, changed);
+        assertEquals("https://example.com/new", changed.getId().getTag(TAG_CALLBACK_URL));
+        assertSame(changed, metricsHelper.getCounter(METRIC_MULTIPLEXED_EVENTS, message));
+    }
+
+    @Test
+    void publishedMessagesOfOneTypeAreCachedPerEnvironment() {
+        var integration = new PublishedEventMessage(createEvent(), "integration");
+        var playground = new PublishedEventMessage(createEvent(), "playground");
+
+        var integrationTimer = metricsHelper.getTimer(METRIC_PUBLISHED_EVENTS, integration);
+        var playgroundTimer = metricsHelper.getTimer(METRIC_PUBLISHED_EVENTS, playground);
+
+        assertNotSame(integrationTimer, playgroundTimer);
+        assertEquals("playground", playgroundTimer.getId().getTag(TAG_ENVIRONMENT));
+        assertSame(integrationTimer, metricsHelper.getTimer(METRIC_PUBLISHED_EVENTS, integration));
+        assertSame(playgroundTimer, metricsHelper.getTimer(METRIC_PUBLISHED_EVENTS, playground));
+    }
+
+    @Test
+    void cacheIsBounded() {
+        var frequent = createMessage(DeliveryType.CALLBACK, "subscription-frequent");
+        var frequentTags = metricsHelper.buildTagsFromSubscriptionEventMessage(frequent);
+
+        for (int i = 0; i <= 2 * HorizonMetricsHelper.MAX_CACHED_TAGS; i++) {
+            metricsHelper.buildTagsFromSubscriptionEventMessage(createMessage(DeliveryType.CALLBACK, "subscription-" + i));
+            assertSame(frequentTags, metricsHelper.buildTagsFromSubscriptionEventMessage(frequent));
+        }
+
+        var message = createMessage(DeliveryType.CALLBACK, "subscription-0");
+        assertEquals("subscription-0", metricsHelper.buildTagsFromSubscriptionEventMessage(message).stream()
+                .filter(tag -> tag.getKey().equals(TAG_SUBSCRIPTION_ID)).findFirst().orElseThrow().getValue());
+    }
+
+    private static SubscriptionEventMessage createMessage(DeliveryType deliveryType, String subscriptionId) {
+        return new SubscriptionEventMessage(createEvent(), "integration", deliveryType, subscriptionId, "multiplexed-from");
+    }
+
+    private static Event createEvent() {
+        var event = new Event();
+        event.setType("pandora.metrics.v1");
+        return event;
+    }
+}
@@ -0,0 +1,49 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.model.event;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatusTest {
+
+    @ParameterizedTest
+    @EnumSource(value = Status.class, names = {"PROCESSED", "WAITING", "FAILED", "DELIVERING"})
+    void testNonFinalStatusMayRepeat(Status status) {
+        assertTrue(status.canTransitionTo(status));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Status.class, names = {"DELIVERED", "DROPPED", "DUPLICATE"})
+    void testFinalStatusIsNotLeft(Status status) {
+        for (var next : Status.values()) {
+            assertFalse(status.canTransitionTo(next), () -> status + " -> " + next);
+        }
+    }
+
+    @Test
+    void testLateUpdatesOfADeliveryAreNotApplied() {
+        assertFalse(Status.DELIVERING.canTransitionTo(Status.WAITING));
+        assertFalse(Status.FAILED.canTransitionTo(Status.DELIVERING));
+        assertFalse(Status.FAILED.canTransitionTo(Status.DELIVERED));
+        assertFalse(Status.WAITING.canTransitionTo(Status.DELIVERING));
+        assertFalse(Status.WAITING.canTransitionTo(Status.FAILED));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = Status.class, names = {"WAITING", "FAILED", "DELIVERING"})
+    void testRepublishedEventsStartOver(Status status) {
+        assertTrue(status.canTransitionTo(Status.PROCESSED));
+    }
+
+    @Test
+    void testOnlyProcessedEventsAreDropped() {
+        assertTrue(Status.PROCESSED.canTransitionTo(Status.DROPPED));
+        assertFalse(Status.FAILED.canTransitionTo(Status.DROPPED));
+    }
+}
@@ -8,11 +8,13 @@ package de.telekom.eni.pandora.horizon.mongo;
 import de.telekom.eni.pandora.horizon.autoconfigure.mongo.MongoAutoConfiguration;
 import de.telekom.eni.pandora.horizon.model.db.Coordinates;
 import de.telekom.eni.pandora.horizon.model.db.PartialEvent;
+import de.telekom.eni.pandora.horizon.model.db.StateError;
 import de.telekom.eni.pandora.horizon.model.db.StateProperty;
 import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
 import de.telekom.eni.pandora.horizon.model.event.Status;
 import de.telekom.eni.pandora.horizon.model.meta.EventRetentionTime;
 import de.telekom.eni.pandora.horizon.mongo.model.MessageStateMongoDocument;
+import de.telekom.eni.pandora.horizon.mongo.model.StateCoordinatesView;
 import de.telekom.eni.pandora.horizon.mongo.repository.MessageStateMongoRepo;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -27,6 +29,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -35,6 +39,7 @@ import java.sql.Time;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -268,6 +273,86 @@ public class MessageStateMongoDocumentTest {
         assertEquals(expectedDocsCount, result.size());
     }
 
+    @Test
+    @Order(12)
+    @DisplayName("Transition the status of a StatusMessage without replacing it")
+    void testTransitionStatus() {
+        var document = createDummyStateWithStatus(Status.PROCESSED, null);
+        document.getProperties().put("callback-url", "https://localhost/callback");
+        messageStateMongoRepo.save(document);
+
+        assertTrue(messageStateMongoRepo.transitionStatus(document.getUuid(), Status.DELIVERING, null));
+        assertTrue(messageStateMongoRepo.transitionStatus(document.getUuid(), Status.FAILED, StateError.fromException(new IllegalArgumentException("callback failed"))));
+        // a redelivery that fails again
+        assertTrue(messageStateMongoRepo.transitionStatus(document.getUuid(), Status.FAILED, StateError.fromException(new IllegalStateException("callback failed"))));
+        // arrives after the failure and must not overwrite it
+        assertFalse(messageStateMongoRepo.transitionStatus(document.getUuid(), Status.DELIVERING, null));
+
+        // republished and delivered
+        assertTrue(messageStateMongoRepo.transitionStatus(document.getUuid(), Status.PROCESSED, null));
+        assertTrue(messageStateMongoRepo.transitionStatus(document.getUuid(), Status.DELIVERING, null));
+        assertTrue(messageStateMongoRepo.transitionStatus(document.getUuid(), Status.DELIVERED, null));
+
+        // arrives after the final status and must not overwrite it
+        assertFalse(messageStateMongoRepo.transitionStatus(document.getUuid(), Status.DELIVERING, null));
+        assertFalse(messageStateMongoRepo.transitionStatus(UUID.randomUUID().toString(), Status.DELIVERING, null));
+
+        var found = mongoTemplate.findOne(Query.query(Criteria.where("uuid").is(document.getUuid())), MessageStateMongoDocument.class);
+        assertNotNull(found);
+        assertEquals(Status.DELIVERED, found.getStatus());
+        assertEquals(IllegalStateException.class.getName(), found.getError().getType());
+        assertEquals("https://localhost/callback", found.getProperties().get("callback-url"));
+        assertEquals(document.getEvent().getId(), found.getEvent().getId());
+        assertTrue(found.getModified().getTime() >= document.getModified().getTime());
+    }
+
+    @Test
+    @Order(13)
+    @DisplayName("Transition the status of a StatusMessage that only stores its uuid as _id")
+    void testTransitionStatusById() {
+        var uuid = UUID.randomUUID().toString();
+        var collectionName = mongoTemplate.getCollectionName(MessageStateMongoDocument.class);
+        mongoTemplate.insert(new org.bson.Document("_id", uuid).append("status", Status.PROCESSED.name()), collectionName);
+
+        assertTrue(messageStateMongoRepo.transitionStatus(uuid, Status.DELIVERING, null));
+
+        var found = mongoTemplate.findById(uuid, MessageStateMongoDocument.class);
+        assertNotNull(found);
+        assertEquals(uuid, found.getUuid());
+        assertEquals(Status.DELIVERING, found.getStatus());
+    }
+
+    @Test
+    @Order(14)
+    @DisplayName("Search for the coordinates of inserted StatusMessages by Status and Partition")
+    void testFindCoordinatesByPartitionAndStatus() {
+        // a state that only stores its uuid as _id
+        var uuid = UUID.randomUUID().toString();
+        mongoTemplate.insert(new org.bson.Document("_id", uuid)
+                .append("status", Status.PROCESSED.name())
+                .append("coordinates", new org.bson.Document("partition", testPartition).append("offset", 1L)), mongoTemplate.getCollectionName(MessageStateMongoDocument.class));
+
+        final List<Status> requiredStatus = List.of(Status.PROCESSED, Status.DELIVERED);
+        var expectedMessages = messageStateMongoRepo.findByPartitionAndStatus(testPartition, requiredStatus).stream()
+                .collect(Collectors.toMap(MessageStateMongoDocument::getUuid, message -> message));
+
+        List<StateCoordinatesView> foundCoordinates = messageStateMongoRepo.findCoordinatesByPartitionAndStatus(testPartition, requiredStatus);
+        assertFalse(foundCoordinates.isEmpty());
+        assertEquals(expectedMessages.size(), foundCoordinates.size());
+        for (StateCoordinatesView coordinates : foundCoordinates) {
+            var expected = expectedMessages.get(coordinates.uuid());
+            assertNotNull(expected);
+            assertEquals(expected.getCoordinates(), coordinates.coordinates());
+            assertEquals(expected.getSubscriptionId(), coordinates.subscriptionId());
+            assertEquals(expected.getStatus(), coordinates.status());
+        }
+        assertTrue(foundCoordinates.stream().anyMatch(coordinates -> uuid.equals(coordinates.uuid())));
+
+        var slice = messageStateMongoRepo.findCoordinatesByStatusIn(requiredStatus, PageRequest.of(0, 1));
+        assertEquals(1, slice.getNumberOfElements());
+        assertTrue(slice.hasNext());
+    }
+
     static MessageStateMongoDocument createDummyStateWithStatus(Status status, String multiplexedFrom) {
         return createDummyStateWithStatus(UUID.randomUUID().toString(), status, multiplexedFrom);
     }
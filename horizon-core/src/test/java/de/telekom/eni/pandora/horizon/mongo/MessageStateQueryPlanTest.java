@@ -0,0 +1,220 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.mongo;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import de.telekom.eni.pandora.horizon.model.event.Status;
+import de.telekom.eni.pandora.horizon.mongo.model.MessageStateMongoDocument;
+import de.telekom.eni.pandora.horizon.mongo.repository.MessageStateMongoRepo;
+import de.telekom.eni.pandora.horizon.mongo.service.MessageStateIndexCreator;
+import de.telekom.eni.pandora.horizon.mongo.service.MessageStateScanner;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs every query of the {@link MessageStateMongoRepo} against a real MongoDB, as the in-memory test server has no
+ * query planner, and verifies that none of them scans the whole collection. The pages of the
+ * {@link MessageStateScanner} must additionally be read in key order from an index instead of being sorted in memory.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class MessageStateQueryPlanTest {
+
+    @Container
+    static final MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    private static final List<BsonDocument> findCommands = Collections.synchronizedList(new ArrayList<>());
+
+    private static MongoClient mongoClient;
+
+    private static MongoTemplate mongoTemplate;
+
+    private static MessageStateMongoRepo messageStateMongoRepo;
+
+    @BeforeAll
+    static void setUp() {
+        var settings = MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(mongoDBContainer.getReplicaSetUrl()))
+                .addCommandListener(new CommandListener() {
+                    @Override
+                    public void commandStarted(CommandStartedEvent event) {
+                        if ("find".equals(event.getCommandName())) {
+                            findCommands.add(event.getCommand().clone());
+                        }
+                    }
+                })
+                .build();
+
+        mongoClient = MongoClients.create(settings);
+        mongoTemplate = new MongoTemplate(mongoClient, "test");
+        messageStateMongoRepo = new MongoRepositoryFactory(mongoTemplate).getRepository(MessageStateMongoRepo.class);
+
+        new MessageStateIndexCreator(mongoTemplate).ensureIndexes();
+    }
+
+    @AfterAll
+    static void tearDown() {
+        mongoClient.close();
+    }
+
+    @BeforeEach
+    void clearCommands() {
+        findCommands.clear();
+    }
+
+    @Test
+    void testEnsureIndexesIsIdempotent() {
+        new MessageStateIndexCreator(mongoTemplate).ensureIndexes();
+
+        var indexNames = mongoTemplate.indexOps(MessageStateMongoDocument.class).getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .toList();
+        assertTrue(indexNames.containsAll(List.of("uuid", "status_timestamp_id", "deliveryType_status_timestamp",
+                "subscriptionId_status_timestamp_id", "multiplexedFrom")), indexNames::toString);
+    }
+
+    static Stream<Method> queryMethods() {
+        return Arrays.stream(MessageStateMongoRepo.class.getDeclaredMethods())
+                .filter(method -> Modifier.isAbstract(method.getModifiers()))
+                .filter(method -> !method.isAnnotationPresent(Update.class))
+                .sorted(Comparator.comparing(Method::toGenericString));
+    }
+
+    @ParameterizedTest
+    @MethodSource("queryMethods")
+    void testQueryDoesNotScanCollection(Method method) throws Exception {
+        var arguments = Arrays.stream(method.getGenericParameterTypes()).map(MessageStateQueryPlanTest::createArgument).toArray();
+        method.invoke(messageStateMongoRepo, arguments);
+
+        assertFalse(findCommands.isEmpty(), "No find command has been sent");
+        for (var findCommand : List.copyOf(findCommands)) {
+            var winningPlan = explain(findCommand).get("queryPlanner", Document.class).get("winningPlan");
+            assertFalse(containsStage(winningPlan, "COLLSCAN"), () -> "COLLSCAN for " + findCommand.get("filter") + ": " + winningPlan);
+        }
+    }
+
+    @Test
+    void testScanWaitingOrWithCallbackExceptionPagesUseIndex() {
+        var subscriptionId = saveStates(Status.WAITING, 5);
+
+        var scanned = new MessageStateScanner(mongoTemplate)
+                .scanWaitingOrWithCallbackException(List.of(Status.WAITING, Status.FAILED), List.of(subscriptionId), new Date(), 2, "status")
+                .toList();
+
+        assertEquals(5, scanned.size());
+        assertPagesUseIndex(3);
+    }
+
+    @Test
+    void testScanStatusInPlusCallbackUrlNotFoundExceptionPagesUseIndex() {
+        var subscriptionId = saveStates(Status.FAILED, 5);
+
+        var scanned = new MessageStateScanner(mongoTemplate)
+                .scanStatusInPlusCallbackUrlNotFoundException(List.of(Status.FAILED), List.of(subscriptionId), new Date(), 2, "status")
+                .toList();
+
+        assertEquals(5, scanned.size());
+        assertPagesUseIndex(3);
+    }
+
+    private static String saveStates(Status status, int count) {
+        var subscriptionId = UUID.randomUUID().toString();
+        for (int i = 0; i < count; i++) {
+            var document = MessageStateMongoDocumentTest.createDummyStateWithStatus(subscriptionId, status, null);
+            document.setModified(new Date(0));
+            mongoTemplate.save(document);
+        }
+
+        return subscriptionId;
+    }
+
+    // every page is read in key order from an index, without scanning the collection or sorting in memory
+    private static void assertPagesUseIndex(int pages) {
+        assertEquals(pages, findCommands.size());
+        for (var findCommand : List.copyOf(findCommands)) {
+            var winningPlan = explain(findCommand).get("queryPlanner", Document.class).get("winningPlan");
+            assertFalse(containsStage(winningPlan, "COLLSCAN"), () -> "COLLSCAN for " + findCommand.get("filter") + ": " + winningPlan);
+            assertFalse(containsStage(winningPlan, "SORT"), () -> "SORT for " + findCommand.get("filter") + ": " + winningPlan);
+        }
+    }
+
+    private static Document explain(BsonDocument findCommand) {
+        var explainable = new BsonDocument();
+        for (var key : List.of("find", "filter", "sort", "projection", "skip", "limit")) {
+            if (findCommand.containsKey(key)) {
+                explainable.put(key, findCommand.get(key));
+            }
+        }
+
+        return mongoClient.getDatabase("test").runCommand(new BsonDocument("explain", explainable)
+                .append("verbosity", new BsonString("queryPlanner")));
+    }
+
+    private static boolean containsStage(Object plan, String stage) {
+        if (plan instanceof Map<?, ?> map) {
+            return stage.equals(map.get("stage")) || map.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (plan instanceof Collection<?> collection) {
+            return collection.stream().anyMatch(value -> containsStage(value, stage));
+        }
+
+        return false;
+    }
+
+    private static Object createArgument(Type type) {
+        if (type instanceof ParameterizedType parameterizedType) {
+            var elementType = parameterizedType.getActualTypeArguments()[0];
+            return elementType == Status.class ? List.of(Status.PROCESSED, Status.WAITING) : List.of(createArgument(elementType));
+        }
+
+        if (type == Status.class) {
+            return Status.PROCESSED;
+        } else if (type == DeliveryType.class) {
+            return DeliveryType.CALLBACK;
+        } else if (type == String.class) {
+            return "sample";
+        } else if (type == Date.class) {
+            return new Date();
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == Pageable.class) {
+            return PageRequest.of(0, 10);
+        }
+
+        throw new IllegalArgumentException("No sample argument for " + type);
+    }
+}
@@ -0,0 +1,148 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.mongo;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import de.telekom.eni.pandora.horizon.model.db.StateError;
+import de.telekom.eni.pandora.horizon.model.event.Status;
+import de.telekom.eni.pandora.horizon.mongo.model.MessageStateMongoDocument;
+import de.telekom.eni.pandora.horizon.mongo.service.MessageStateScanner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageStateScannerTest {
+
+    private MongoServer mongoServer;
+
+    private MongoClient mongoClient;
+
+    private MongoTemplate mongoTemplate;
+
+    private MessageStateScanner scanner;
+
+    @BeforeEach
+    void setUp() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        mongoServer.bind();
+        mongoClient = MongoClients.create(mongoServer.getConnectionString());
+        mongoTemplate = new MongoTemplate(mongoClient, "test");
+        scanner = new MessageStateScanner(mongoTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoClient.close();
+        mongoServer.shutdown();
+    }
+
+    @Test
+    void testAllStatesAreStreamedInKeyOrder() {
+        // several states share a timestamp, so that pages end in the middle of a timestamp
+        for (int i = 0; i < 25; i++) {
+            var document = MessageStateMongoDocumentTest.createDummyStateWithStatus("subscription-id", Status.WAITING, null);
+            document.setTimestamp(new Date(1_000L * (i / 4)));
+            mongoTemplate.save(document);
+        }
+
+        var scanned = scanner.scan(Criteria.where("status").is(Status.WAITING), 10).toList();
+
+        assertEquals(25, scanned.size());
+        assertEquals(25, scanned.stream().map(MessageStateMongoDocument::getUuid).distinct().count());
+        assertEquals(scanned.stream().sorted(Comparator.comparing(MessageStateMongoDocument::getTimestamp)).toList(), scanned);
+    }
+
+    @Test
+    void testStatesWithStringAndGeneratedIdsOfOneTimestampAreAllStreamed() {
+        // string ids are sorted before object ids, so the first page ends on a string id within the timestamp
+        var timestamp = new Date(1_000L);
+        for (int i = 0; i < 6; i++) {
+            var document = MessageStateMongoDocumentTest.createDummyStateWithStatus("subscription-id", Status.WAITING, null);
+            document.setTimestamp(timestamp);
+            if (i % 2 == 0) {
+                document.setUuid(document.getUuid());
+            }
+            mongoTemplate.save(document);
+        }
+
+        var scanned = scanner.scan(Criteria.where("status").is(Status.WAITING), 3).toList();
+
+        assertEquals(6, scanned.size());
+        assertEquals(6, scanned.stream().map(MessageStateMongoDocument::getUuid).distinct().count());
+    }
+
+    @Test
+    void testOnlyRequestedFieldsAreRead() {
+        mongoTemplate.save(MessageStateMongoDocumentTest.createDummyStateWithStatus("subscription-id", Status.WAITING, "multiplexed-from"));
+
+        var scanned = scanner.scan(new Criteria(), 10, "status").toList();
+
+        assertEquals(1, scanned.size());
+        assertEquals(Status.WAITING, scanned.getFirst().getStatus());
+        assertNotNull(scanned.getFirst().getUuid());
+        assertNotNull(scanned.getFirst().getTimestamp());
+        assertNull(scanned.getFirst().getMultiplexedFrom());
+        assertNull(scanned.getFirst().getSubscriptionId());
+    }
+
+    @Test
+    void testPagesAreOnlyReadWhileConsumed() {
+        for (int i = 0; i < 10; i++) {
+            mongoTemplate.save(MessageStateMongoDocumentTest.createDummyStateWithStatus("subscription-id", Status.WAITING, null));
+        }
+
+        var stream = scanner.scan(new Criteria(), 5);
+        mongoTemplate.save(MessageStateMongoDocumentTest.createDummyStateWithStatus("subscription-id", Status.WAITING, null));
+
+        assertEquals(11, stream.count());
+    }
+
+    @Test
+    void testPageSizeMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> scanner.scan(new Criteria(), 0));
+    }
+
+    @Test
+    void testScanWaitingOrWithCallbackException() {
+        var waiting = MessageStateMongoDocumentTest.createDummyStateWithStatus("subscription-id", Status.WAITING, null);
+        var failed = MessageStateMongoDocumentTest.createDummyStateWithStatus("subscription-id", Status.FAILED, null);
+        var otherSubscription = MessageStateMongoDocumentTest.createDummyStateWithStatus("other-subscription-id", Status.WAITING, null);
+        mongoTemplate.save(waiting);
+        mongoTemplate.save(failed);
+        mongoTemplate.save(otherSubscription);
+
+        var scanned = scanner.scanWaitingOrWithCallbackException(List.of(Status.WAITING, Status.FAILED), List.of("subscription-id"), new Date(), 10)
+                .map(MessageStateMongoDocument::getUuid)
+                .toList();
+
+        assertEquals(List.of(waiting.getUuid()), scanned);
+    }
+
+    @Test
+    void testScanStatusInPlusCallbackUrlNotFoundException() {
+        var failed = MessageStateMongoDocumentTest.createDummyStateWithStatus("subscription-id", Status.FAILED, null);
+        var failedWithOtherError = MessageStateMongoDocumentTest.createDummyStateWithStatus("subscription-id", Status.FAILED, null);
+        failedWithOtherError.setError(StateError.fromException(new IllegalStateException()));
+        mongoTemplate.save(failed);
+        mongoTemplate.save(failedWithOtherError);
+
+        var scanned = scanner.scanStatusInPlusCallbackUrlNotFoundException(List.of(Status.FAILED), List.of("subscription-id"), new Date(), 10)
+                .map(MessageStateMongoDocument::getUuid)
+                .toList();
+
+        assertEquals(List.of(failed.getUuid()), scanned);
+    }
+}
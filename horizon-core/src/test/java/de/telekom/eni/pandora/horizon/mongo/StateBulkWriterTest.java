@@ -0,0 +1,237 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.mongo;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import de.telekom.eni.pandora.horizon.model.db.Coordinates;
+import de.telekom.eni.pandora.horizon.model.db.PartialEvent;
+import de.telekom.eni.pandora.horizon.model.db.StateError;
+import de.telekom.eni.pandora.horizon.model.event.DeliveryType;
+import de.telekom.eni.pandora.horizon.model.event.Status;
+import de.telekom.eni.pandora.horizon.model.meta.EventRetentionTime;
+import de.telekom.eni.pandora.horizon.mongo.config.MongoProperties;
+import de.telekom.eni.pandora.horizon.mongo.model.MessageStateMongoDocument;
+import de.telekom.eni.pandora.horizon.mongo.service.StateBulkWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static de.telekom.eni.pandora.horizon.metrics.HorizonMetricsConstants.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateBulkWriterTest {
+
+    private MongoServer mongoServer;
+
+    private MongoClient mongoClient;
+
+    private MongoTemplate mongoTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        mongoServer = new MongoServer(new MemoryBackend());
+        mongoServer.bind();
+        mongoClient = MongoClients.create(mongoServer.getConnectionString());
+        mongoTemplate = new MongoTemplate(mongoClient, "test");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoClient.close();
+        mongoServer.shutdown();
+    }
+
+    private StateBulkWriter createWriter(int batchSize, long flushIntervalMs, int maxPending, long maxBlockMs) {
+        var properties = new MongoProperties.BulkWriteProperties();
+        properties.setBatchSize(batchSize);
+        properties.setFlushIntervalMs(flushIntervalMs);
+        properties.setMaxPending(maxPending);
+        properties.setMaxBlockMs(maxBlockMs);
+
+        return new StateBulkWriter(mongoTemplate, properties, meterRegistry);
+    }
+
+    @Test
+    void testTransitionsOfTheSameUuidAreCoalesced() throws Exception {
+        try (var writer = createWriter(100, 60_000, 1_000, 1_000)) {
+            var futures = List.of(
+                    writer.upsert(createDocument("uuid-1", Status.PROCESSED)),
+                    writer.updateStatus("uuid-1", Status.DELIVERING, null),
+                    writer.updateStatus("uuid-1", Status.FAILED, StateError.fromException(new IllegalStateException("callback failed"))),
+                    writer.upsert(createDocument("uuid-2", Status.PROCESSED))
+            );
+
+            assertEquals(2, writer.getPendingCount());
+            writer.close();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        }
+
+        var state = findState("uuid-1");
+        assertNotNull(state);
+        assertEquals(Status.FAILED, state.getStatus());
+        assertEquals(IllegalStateException.class.getName(), state.getError().getType());
+        assertEquals(2, mongoTemplate.count(new Query(), MessageStateMongoDocument.class));
+
+        assertEquals(2, meterRegistry.get(METRIC_STATE_BULK_WRITE_COALESCED).counter().count());
+        assertEquals(1, meterRegistry.get(METRIC_STATE_BULK_WRITE_BATCH_SIZE).summary().count());
+        assertEquals(2, meterRegistry.get(METRIC_STATE_BULK_WRITE_BATCH_SIZE).summary().totalAmount());
+        assertEquals(1, meterRegistry.get(METRIC_STATE_BULK_WRITE_FLUSH_LATENCY).tag(TAG_OUTCOME, "success").timer().count());
+    }
+
+    @Test
+    void testStatusUpdateOfWrittenState() throws Exception {
+        try (var writer = createWriter(1, 60_000, 1_000, 1_000)) {
+            writer.upsert(createDocument("uuid-1", Status.PROCESSED)).get(5, TimeUnit.SECONDS);
+            writer.updateStatus("uuid-1", Status.DELIVERED, null).get(5, TimeUnit.SECONDS);
+        }
+
+        var state = findState("uuid-1");
+        assertNotNull(state);
+        assertEquals(Status.DELIVERED, state.getStatus());
+        assertEquals("subscription-id", state.getSubscriptionId());
+        assertNull(state.getError());
+    }
+
+    @Test
+    void testWritesOfSavedStatesDoNotDuplicateThem() throws Exception {
+        // saved as created by the components, with a generated _id
+        mongoTemplate.save(createDocument("uuid-1", Status.PROCESSED));
+        mongoTemplate.save(createDocument("uuid-2", Status.PROCESSED));
+
+        try (var writer = createWriter(100, 60_000, 1_000, 1_000)) {
+            var futures = List.of(
+                    writer.updateStatus("uuid-1", Status.DELIVERED, null),
+                    writer.upsert(createDocument("uuid-2", Status.WAITING))
+            );
+
+            writer.close();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(2, mongoTemplate.count(new Query(), MessageStateMongoDocument.class));
+        assertEquals(Status.DELIVERED, findState("uuid-1").getStatus());
+        assertEquals(Status.WAITING, findState("uuid-2").getStatus());
+    }
+
+    @Test
+    void testWritesOfStatesStoringTheirUuidAsIdDoNotDuplicateThem() throws Exception {
+        var collectionName = mongoTemplate.getCollectionName(MessageStateMongoDocument.class);
+        mongoTemplate.insert(new org.bson.Document("_id", "uuid-1").append("status", Status.PROCESSED.name()), collectionName);
+        mongoTemplate.insert(new org.bson.Document("_id", "uuid-2").append("status", Status.PROCESSED.name()), collectionName);
+
+        try (var writer = createWriter(100, 60_000, 1_000, 1_000)) {
+            var futures = List.of(
+                    writer.updateStatus("uuid-1", Status.DELIVERED, null),
+                    writer.upsert(createDocument("uuid-2", Status.WAITING))
+            );
+
+            writer.close();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(2, mongoTemplate.count(new Query(), MessageStateMongoDocument.class));
+        assertEquals(Status.DELIVERED, mongoTemplate.findById("uuid-1", MessageStateMongoDocument.class).getStatus());
+        assertEquals(Status.WAITING, mongoTemplate.findById("uuid-2", MessageStateMongoDocument.class).getStatus());
+    }
+
+    @Test
+    void testTransitionsThatAreNotAllowedAreDropped() throws Exception {
+        try (var writer = createWriter(100, 60_000, 1_000, 1_000)) {
+            mongoTemplate.save(createDocument("uuid-1", Status.DELIVERED));
+            writer.upsert(createDocument("uuid-2", Status.PROCESSED));
+            writer.updateStatus("uuid-2", Status.DROPPED, null);
+            var futures = List.of(
+                    writer.updateStatus("uuid-1", Status.DELIVERING, null),
+                    writer.updateStatus("uuid-2", Status.DELIVERING, null)
+            );
+
+            writer.close();
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(Status.DELIVERED, findState("uuid-1").getStatus());
+        assertEquals(Status.DROPPED, findState("uuid-2").getStatus());
+        assertEquals(1, meterRegistry.get(METRIC_STATE_BULK_WRITE_DROPPED_TRANSITIONS).counter().count());
+    }
+
+    @Test
+    void testFlushOnBatchSize() throws Exception {
+        try (var writer = createWriter(10, 60_000, 1_000, 1_000)) {
+            CompletableFuture<Void> last = null;
+            for (int i = 0; i < 10; i++) {
+                last = writer.upsert(createDocument("uuid-" + i, Status.PROCESSED));
+            }
+
+            last.get(5, TimeUnit.SECONDS);
+            assertEquals(10, mongoTemplate.count(new Query(), MessageStateMongoDocument.class));
+        }
+    }
+
+    @Test
+    void testFlushOnInterval() throws Exception {
+        try (var writer = createWriter(1_000, 50, 1_000, 1_000)) {
+            writer.upsert(createDocument("uuid-1", Status.PROCESSED)).get(5, TimeUnit.SECONDS);
+
+            assertNotNull(findState("uuid-1"));
+            assertEquals(0, writer.getPendingCount());
+        }
+    }
+
+    @Test
+    void testWritesAreRejectedWhenTheBufferIsFull() throws Exception {
+        try (var writer = createWriter(1_000, 60_000, 2, 50)) {
+            writer.upsert(createDocument("uuid-1", Status.PROCESSED));
+            writer.upsert(createDocument("uuid-2", Status.PROCESSED));
+
+            // writes of buffered uuids are coalesced and do not need room
+            assertFalse(writer.updateStatus("uuid-1", Status.WAITING, null).isCompletedExceptionally());
+
+            var rejected = writer.upsert(createDocument("uuid-3", Status.PROCESSED));
+            var e = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(RejectedExecutionException.class, e.getCause());
+            assertEquals(1, meterRegistry.get(METRIC_STATE_BULK_WRITE_REJECTED).counter().count());
+            assertEquals(2, meterRegistry.get(METRIC_STATE_BULK_WRITE_PENDING).gauge().value());
+        }
+    }
+
+    @Test
+    void testWritesAfterCloseAreRejected() {
+        var writer = createWriter(1_000, 60_000, 1_000, 1_000);
+        writer.close();
+
+        var rejected = writer.updateStatus("uuid-1", Status.DELIVERED, null);
+        var e = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+    }
+
+    private static MessageStateMongoDocument createDocument(String uuid, Status status) {
+        var now = new Date();
+        return new MessageStateMongoDocument(uuid, new Coordinates(0, 0), status, "integration", DeliveryType.CALLBACK,
+                "subscription-id", new PartialEvent("event-id", "pandora.horizon.test.v1"), new HashMap<>(), null,
+                EventRetentionTime.DEFAULT, now, now, null, null, null, null);
+    }
+
+    private MessageStateMongoDocument findState(String uuid) {
+        return mongoTemplate.findOne(Query.query(Criteria.where("uuid").is(uuid)), MessageStateMongoDocument.class);
+    }
+}
@@ -4,6 +4,7 @@
 
 package de.telekom.eni.pandora.horizon.autoconfigure;
 
+import de.telekom.eni.pandora.horizon.autoconfigure.auth.OAuth2AutoConfiguration;
 import de.telekom.eni.pandora.horizon.autoconfigure.cache.CacheAutoConfiguration;
 import de.telekom.eni.pandora.horizon.autoconfigure.cache.JsonCacheAutoconfiguration;
 import de.telekom.eni.pandora.horizon.autoconfigure.kafka.KafkaAutoConfiguration;
@@ -12,6 +13,8 @@ import de.telekom.eni.pandora.horizon.autoconfigure.mongo.MongoAutoConfiguration
 import de.telekom.eni.pandora.horizon.autoconfigure.tracing.HorizonTracerAutoConfiguration;
 import de.telekom.eni.pandora.horizon.cache.config.CacheProperties;
 import de.telekom.eni.pandora.horizon.cache.service.DeDuplicationService;
+import de.telekom.eni.pandora.horizon.json.HorizonJsonCodec;
+import de.telekom.eni.pandora.horizon.json.config.JsonProperties;
 import org.springframework.boot.actuate.autoconfigure.tracing.TracingProperties;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -20,14 +23,15 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
 @Configuration
-@EnableConfigurationProperties({TracingProperties.class, CacheProperties.class})
+@EnableConfigurationProperties({TracingProperties.class, CacheProperties.class, JsonProperties.class})
 @Import(value = {
         HorizonMetricsHelperAutoConfiguration.class,
         HorizonTracerAutoConfiguration.class,
         CacheAutoConfiguration.class,
         MongoAutoConfiguration.class,
         KafkaAutoConfiguration.class,
-        JsonCacheAutoconfiguration.class
+        JsonCacheAutoconfiguration.class,
+        OAuth2AutoConfiguration.class
 })
 public class HorizonAutoConfiguration {
 
@@ -36,4 +40,10 @@ public class HorizonAutoConfiguration {
     public DeDuplicationService deDuplicationService(CacheProperties cacheProperties) {
         return new DeDuplicationService(null, cacheProperties);
     }
+
+    @ConditionalOnMissingBean(HorizonJsonCodec.class)
+    @Bean
+    public HorizonJsonCodec horizonJsonCodec(JsonProperties jsonProperties) {
+        return new HorizonJsonCodec(jsonProperties.isBlackbird());
+    }
 }
@@ -5,17 +5,14 @@
 package de.telekom.eni.pandora.horizon.autoconfigure;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
 import de.telekom.eni.pandora.horizon.exception.CouldNotConstructKubernetesClientException;
+import de.telekom.eni.pandora.horizon.json.HorizonJsonCodec;
 import de.telekom.eni.pandora.horizon.kubernetes.InformerStoreInitHandler;
 import de.telekom.eni.pandora.horizon.kubernetes.KubernetesClientWrapper;
 import de.telekom.eni.pandora.horizon.kubernetes.PodResourceListener;
 import de.telekom.eni.pandora.horizon.kubernetes.resource.SubscriptionResource;
 import de.telekom.eni.pandora.horizon.kubernetes.util.RoverToken;
-import de.telekom.jsonfilter.operator.Operator;
-import de.telekom.jsonfilter.serde.OperatorDeserializer;
-import de.telekom.jsonfilter.serde.OperatorSerializer;
 import io.fabric8.kubernetes.api.model.Pod;
 import io.fabric8.kubernetes.client.Config;
 import io.fabric8.kubernetes.client.ConfigBuilder;
@@ -165,10 +162,7 @@ public class KubernetesClientConfiguration {
 
         log.info("Using cluster {}", client.getConfiguration().getMasterUrl());
 
-        SimpleModule operatorModule = new SimpleModule();
-        operatorModule.addDeserializer(Operator.class, new OperatorDeserializer());
-        operatorModule.addSerializer(Operator.class, new OperatorSerializer());
-        Serialization.jsonMapper().registerModule(operatorModule);
+        Serialization.jsonMapper().registerModule(HorizonJsonCodec.operatorModule());
 
         return client;
     }
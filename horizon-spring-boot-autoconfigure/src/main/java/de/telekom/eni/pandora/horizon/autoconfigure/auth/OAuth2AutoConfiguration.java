@@ -0,0 +1,39 @@
+// Copyright 2024 Deutsche Telekom IT GmbH
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package de.telekom.eni.pandora.horizon.autoconfigure.auth;
+
+import de.telekom.eni.pandora.horizon.auth.OAuth2TokenCache;
+import de.telekom.eni.pandora.horizon.auth.OAuth2TokenClient;
+import de.telekom.eni.pandora.horizon.auth.config.OAuth2Properties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(OAuth2Properties.class)
+@ConditionalOnProperty(value = "horizon.auth.accessTokenUrl")
+public class OAuth2AutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OAuth2TokenClient oAuth2TokenClient(OAuth2Properties oAuth2Properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new OAuth2TokenClient(oAuth2Properties.getAccessTokenUrl(), oAuth2Properties.getClientId(),
+                Duration.ofMillis(oAuth2Properties.getConnectTimeoutMs()), Duration.ofMillis(oAuth2Properties.getRequestTimeoutMs()),
+                meterRegistry.getIfAvailable());
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(value = "horizon.auth.clientSecret")
+    public OAuth2TokenCache oAuth2TokenCache(OAuth2TokenClient oAuth2TokenClient, OAuth2Properties oAuth2Properties) {
+        return new OAuth2TokenCache(oAuth2TokenClient, oAuth2Properties.getClientSecret());
+    }
+}
@@ -4,27 +4,31 @@
 
 package de.telekom.eni.pandora.horizon.autoconfigure.cache;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.module.SimpleModule;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.HazelcastJsonValue;
 import com.hazelcast.map.IMap;
+import de.telekom.eni.pandora.horizon.cache.config.CacheProperties;
 import de.telekom.eni.pandora.horizon.cache.fallback.SubscriptionCacheMongoFallback;
+import de.telekom.eni.pandora.horizon.cache.index.SubscriptionIndex;
 import de.telekom.eni.pandora.horizon.cache.listener.SubscriptionResourceEventBroadcaster;
 import de.telekom.eni.pandora.horizon.cache.service.JsonCacheService;
+import de.telekom.eni.pandora.horizon.cache.util.MapIndexProvisioner;
+import de.telekom.eni.pandora.horizon.cache.util.NearCache;
+import de.telekom.eni.pandora.horizon.exception.JsonCacheException;
+import de.telekom.eni.pandora.horizon.json.HorizonJsonCodec;
 import de.telekom.eni.pandora.horizon.kubernetes.resource.SubscriptionResource;
 import de.telekom.eni.pandora.horizon.model.meta.CircuitBreakerMessage;
 import de.telekom.eni.pandora.horizon.mongo.config.MongoProperties;
 import de.telekom.eni.pandora.horizon.mongo.repository.SubscriptionsMongoRepo;
-import de.telekom.jsonfilter.operator.Operator;
-import de.telekom.jsonfilter.serde.OperatorDeserializer;
-import de.telekom.jsonfilter.serde.OperatorSerializer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+import java.time.Duration;
 
 @Slf4j
 @Configuration
@@ -35,16 +39,9 @@ public class JsonCacheAutoconfiguration {
 
     private static final String CIRCUITBREAKER_MAP = "circuit-breakers";
 
-    private static final ObjectMapper DEFAULT_MAPPER = new ObjectMapper();
-
     @Bean
-    public JsonCacheService<SubscriptionResource> subscriptionCache(HazelcastInstance hazelcastInstance, ApplicationEventPublisher applicationEventPublisher, SubscriptionsMongoRepo subscriptionsMongoRepo, MongoProperties mongoProperties) {
-        var module = new SimpleModule();
-        module.addSerializer(Operator.class, new OperatorSerializer());
-        module.addDeserializer(Operator.class, new OperatorDeserializer());
-
-        var mapper = new ObjectMapper();
-        mapper.registerModule(module);
+    public JsonCacheService<SubscriptionResource> subscriptionCache(HazelcastInstance hazelcastInstance, ApplicationEventPublisher applicationEventPublisher, SubscriptionsMongoRepo subscriptionsMongoRepo, MongoProperties mongoProperties, CacheProperties cacheProperties, HorizonJsonCodec horizonJsonCodec) {
+        var mapper = horizonJsonCodec.getObjectMapper();
 
         IMap<String, HazelcastJsonValue> map = null;
 
@@ -57,13 +54,48 @@ public class JsonCacheAutoconfiguration {
         }
 
         var svc = new JsonCacheService<>(SubscriptionResource.class, map, mapper, hazelcastInstance,SUBSCRIPTION_RESOURCE_V1);
+        svc.setIndexConfigs(new MapIndexProvisioner(cacheProperties.getIndex()).provision(map));
         svc.setJsonCacheFallback(new SubscriptionCacheMongoFallback(subscriptionsMongoRepo, mongoProperties));
         svc.setJsonEntryMapEventBroadcaster(new SubscriptionResourceEventBroadcaster(mapper, applicationEventPublisher));
+
+        var nearCacheProperties = cacheProperties.getNearCache();
+        if (nearCacheProperties.isEnabled()) {
+            svc.setNearCache(new NearCache<>(nearCacheProperties.getMaxSize(), Duration.ofSeconds(nearCacheProperties.getTtlInSeconds())));
+        }
+
         return svc;
     }
 
     @Bean
-    public JsonCacheService<CircuitBreakerMessage> circuitBreakerCache(HazelcastInstance hazelcastInstance) {
+    @ConditionalOnProperty(value = "horizon.cache.subscriptionIndex.enabled")
+    public SubscriptionIndex subscriptionIndex(JsonCacheService<SubscriptionResource> subscriptionCache) {
+        var index = new SubscriptionIndex();
+
+        try {
+            index.initialize(subscriptionCache);
+        } catch (JsonCacheException e) {
+            log.error("Could not initialize subscription index, it will only be filled by subsequent subscription events", e);
+        }
+
+        return index;
+    }
+
+    // the event listener of the index is only active once the context has been refreshed, events published in between
+    // are not received and the index is therefore loaded once more
+    @Bean
+    @ConditionalOnProperty(value = "horizon.cache.subscriptionIndex.enabled")
+    public ApplicationListener<ContextRefreshedEvent> subscriptionIndexInitializer(SubscriptionIndex subscriptionIndex, JsonCacheService<SubscriptionResource> subscriptionCache) {
+        return event -> {
+            try {
+                subscriptionIndex.initialize(subscriptionCache);
+            } catch (JsonCacheException e) {
+                log.error("Could not initialize subscription index after startup, subscription events published during startup might be missing", e);
+            }
+        };
+    }
+
+    @Bean
+    public JsonCacheService<CircuitBreakerMessage> circuitBreakerCache(HazelcastInstance hazelcastInstance, CacheProperties cacheProperties, HorizonJsonCodec horizonJsonCodec) {
         IMap<String, HazelcastJsonValue> map = null;
 
         try {
@@ -73,10 +105,9 @@ public class JsonCacheAutoconfiguration {
             log.error("Hazelcast map {} is not available", CIRCUITBREAKER_MAP);
         }
 
-        var mapper = new ObjectMapper();
-        mapper.registerModule(new JavaTimeModule());
-
-        return new JsonCacheService<>(CircuitBreakerMessage.class, map, mapper, hazelcastInstance, CIRCUITBREAKER_MAP);
+        var svc = new JsonCacheService<>(CircuitBreakerMessage.class, map, horizonJsonCodec.getObjectMapper(), hazelcastInstance, CIRCUITBREAKER_MAP);
+        svc.setIndexConfigs(new MapIndexProvisioner(cacheProperties.getIndex()).provision(map));
+        return svc;
     }
 
 }
@@ -4,22 +4,37 @@
 
 package de.telekom.eni.pandora.horizon.autoconfigure.kafka;
 
+import de.telekom.eni.pandora.horizon.json.HorizonJsonCodec;
+import de.telekom.eni.pandora.horizon.kafka.compression.ZstdDictionaryCompressor;
 import de.telekom.eni.pandora.horizon.kafka.config.KafkaProperties;
+import de.telekom.eni.pandora.horizon.kafka.config.ProducerProfile;
+import de.telekom.eni.pandora.horizon.kafka.event.ByteArrayEventWriter;
 import de.telekom.eni.pandora.horizon.kafka.event.EventWriter;
+import de.telekom.eni.pandora.horizon.kafka.event.MessageDeserializer;
+import de.telekom.eni.pandora.horizon.model.event.StatusMessage;
+import de.telekom.eni.pandora.horizon.model.event.SubscriptionEventMessage;
 import de.telekom.eni.pandora.horizon.model.meta.HorizonComponentId;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.Serializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.kafka.core.*;
 
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @Getter
@@ -27,34 +42,50 @@ import java.util.HashMap;
 @EnableConfigurationProperties(KafkaProperties.class)
 public class KafkaAutoConfiguration {
 
-    private ProducerFactory<String, String> producerFactory(KafkaProperties kafkaProperties) {
+    /**
+     * @param compressedValues whether the values are already compressed by the {@link ZstdDictionaryCompressor}, in
+     *                         which case the producer does not compress the batches again
+     */
+    private <V> ProducerFactory<String, V> producerFactory(KafkaProperties kafkaProperties, Class<? extends Serializer<V>> valueSerializer, boolean compressedValues) {
         log.debug("Initialized new ProducerFactory");
 
         var props = new HashMap<String, Object>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaProperties.getBootstrapServers());
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer);
         props.put(ProducerConfig.ACKS_CONFIG, kafkaProperties.getAcks());
         props.put(ProducerConfig.MAX_REQUEST_SIZE_CONFIG, kafkaProperties.getMaxRequestSize());
         props.put(ProducerConfig.REQUEST_TIMEOUT_MS_CONFIG, kafkaProperties.getRequestTimeoutMs());
         props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, kafkaProperties.getDeliveryTimeoutMs());
-        props.put(ProducerConfig.BATCH_SIZE_CONFIG, kafkaProperties.getBatchSize());
 
-        final var compression = kafkaProperties.getCompression();
-        log.info("Compression is {}", compression.isEnabled() ? "enabled" : "disabled");
-        if (compression.isEnabled()) {
-            log.debug("Using compression: " + compression.getType());
-            props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression.getType());
+        final var profile = kafkaProperties.getProducerProfile();
+        if (profile != ProducerProfile.CUSTOM) {
+            log.info("Using producer profile {}", profile);
+            props.put(ProducerConfig.LINGER_MS_CONFIG, profile.getLingerMs());
+            props.put(ProducerConfig.BATCH_SIZE_CONFIG, profile.getBatchSize());
+            props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, profile.getCompressionType());
+        } else {
             props.put(ProducerConfig.LINGER_MS_CONFIG, kafkaProperties.getLingerMs());
+            props.put(ProducerConfig.BATCH_SIZE_CONFIG, kafkaProperties.getBatchSize());
+
+            final var compression = kafkaProperties.getCompression();
+            log.info("Compression is {}", compression.isEnabled() ? "enabled" : "disabled");
+            if (compression.isEnabled()) {
+                log.debug("Using compression: " + compression.getType());
+                props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, compression.getType());
+            }
+        }
+
+        if (compressedValues && !"none".equals(props.getOrDefault(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none"))) {
+            // compressed values barely shrink any further, compressing them again only costs cpu on both sides
+            log.info("Disabling {} batch compression, as the values are compressed with a zstd dictionary", props.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+            props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none");
         }
 
         return new DefaultKafkaProducerFactory<>(props);
     }
 
-    @Bean
-    public ConsumerFactory<String, String> consumerFactory(KafkaProperties kafkaProperties) {
-        log.debug("Initialized new consumer factory");
-
+    private Map<String, Object> consumerProperties(KafkaProperties kafkaProperties) {
         var props = new HashMap<String, Object>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, kafkaProperties.getBootstrapServers());
 
@@ -66,21 +97,79 @@ public class KafkaAutoConfiguration {
         props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, kafkaProperties.getIsolationLevel());
         props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, kafkaProperties.getMaxPollRecords());
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new StringDeserializer());
+        return props;
+    }
+
+    @Bean
+    @Primary
+    public ConsumerFactory<String, String> consumerFactory(KafkaProperties kafkaProperties) {
+        log.debug("Initialized new consumer factory");
+
+        return new DefaultKafkaConsumerFactory<>(consumerProperties(kafkaProperties), new StringDeserializer(), new StringDeserializer());
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "horizon.kafka.byteArrayValues")
+    public ConsumerFactory<String, SubscriptionEventMessage> subscriptionEventMessageConsumerFactory(KafkaProperties kafkaProperties, HorizonJsonCodec horizonJsonCodec, ObjectProvider<ZstdDictionaryCompressor> compressor) {
+        log.debug("Initialized new subscription event message consumer factory");
+
+        // reads the values of the ByteArrayEventWriter in every wire format, as well as the json of the EventWriter
+        var deserializer = new MessageDeserializer<>(SubscriptionEventMessage.class, horizonJsonCodec, false);
+        compressor.ifAvailable(deserializer::setCompressor);
+        return new DefaultKafkaConsumerFactory<>(consumerProperties(kafkaProperties), new StringDeserializer(), deserializer);
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "horizon.kafka.byteArrayValues")
+    public ConsumerFactory<String, StatusMessage> statusMessageConsumerFactory(KafkaProperties kafkaProperties, HorizonJsonCodec horizonJsonCodec, ObjectProvider<ZstdDictionaryCompressor> compressor) {
+        log.debug("Initialized new status message consumer factory");
+
+        // status messages are written by the ByteArrayEventWriter as well, so their topics can use any wire format too
+        var deserializer = new MessageDeserializer<>(StatusMessage.class, horizonJsonCodec, false);
+        compressor.ifAvailable(deserializer::setCompressor);
+        return new DefaultKafkaConsumerFactory<>(consumerProperties(kafkaProperties), new StringDeserializer(), deserializer);
     }
 
     @Bean(name="kafkaTemplate")
     public KafkaTemplate<String,String> kafkaTemplate(KafkaProperties kafkaProperties, ConsumerFactory<String, String> consumerFactory) {
         log.debug("Initialized new kafka template");
 
-        var kafkaTemplate = new KafkaTemplate<>(producerFactory(kafkaProperties));
+        var kafkaTemplate = new KafkaTemplate<>(producerFactory(kafkaProperties, StringSerializer.class, false));
         kafkaTemplate.setConsumerFactory(consumerFactory);
         return kafkaTemplate;
     }
 
     @Bean
-    public EventWriter eventWriter(@Qualifier("kafkaTemplate") KafkaTemplate<String,String> kafkaTemplate, KafkaProperties kafkaProperties) {
-        return new EventWriter(kafkaTemplate, HorizonComponentId.fromGroupId(kafkaProperties.getGroupId()));
+    public EventWriter eventWriter(@Qualifier("kafkaTemplate") KafkaTemplate<String,String> kafkaTemplate, KafkaProperties kafkaProperties, HorizonJsonCodec horizonJsonCodec) {
+        return new EventWriter(kafkaTemplate, HorizonComponentId.fromGroupId(kafkaProperties.getGroupId()), horizonJsonCodec);
+    }
+
+    @Bean(name="byteArrayKafkaTemplate")
+    @ConditionalOnProperty(value = "horizon.kafka.byteArrayValues")
+    public KafkaTemplate<String, byte[]> byteArrayKafkaTemplate(KafkaProperties kafkaProperties) {
+        log.debug("Initialized new byte array kafka template");
+
+        return new KafkaTemplate<>(producerFactory(kafkaProperties, ByteArraySerializer.class, kafkaProperties.getCompression().getDictionary().isEnabled()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "horizon.kafka.byteArrayValues")
+    public ByteArrayEventWriter byteArrayEventWriter(@Qualifier("byteArrayKafkaTemplate") KafkaTemplate<String, byte[]> byteArrayKafkaTemplate, KafkaProperties kafkaProperties, HorizonJsonCodec horizonJsonCodec, ObjectProvider<ZstdDictionaryCompressor> compressor) {
+        var eventWriter = new ByteArrayEventWriter(byteArrayKafkaTemplate, HorizonComponentId.fromGroupId(kafkaProperties.getGroupId()), horizonJsonCodec, kafkaProperties.getWireFormat());
+        compressor.ifAvailable(eventWriter::setCompressor);
+        return eventWriter;
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "horizon.kafka.compression.dictionary.enabled")
+    public ZstdDictionaryCompressor zstdDictionaryCompressor(KafkaProperties kafkaProperties, ResourceLoader resourceLoader) throws IOException {
+        var dictionary = kafkaProperties.getCompression().getDictionary();
+        log.info("Compressing record values with zstd dictionary {}", dictionary.getLocation());
+
+        // values that are not compressed per record cannot exceed the max request size of the producer either
+        var maxDecompressedSize = dictionary.getMaxDecompressedSize() != null ? dictionary.getMaxDecompressedSize() : Integer.parseInt(kafkaProperties.getMaxRequestSize());
+
+        return new ZstdDictionaryCompressor(resourceLoader.getResource(dictionary.getLocation()).getContentAsByteArray(), dictionary.getLevel(), maxDecompressedSize);
     }
 
 }
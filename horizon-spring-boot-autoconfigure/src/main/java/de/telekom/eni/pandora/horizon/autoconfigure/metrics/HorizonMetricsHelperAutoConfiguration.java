@@ -4,7 +4,9 @@
 
 package de.telekom.eni.pandora.horizon.autoconfigure.metrics;
 
+import de.telekom.eni.pandora.horizon.metrics.HorizonLatencyRecorder;
 import de.telekom.eni.pandora.horizon.metrics.HorizonMetricsHelper;
+import de.telekom.eni.pandora.horizon.metrics.config.MetricsProperties;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
 import org.springframework.boot.actuate.autoconfigure.tracing.TracingProperties;
@@ -15,7 +17,7 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
 @Configuration
-@EnableConfigurationProperties({TracingProperties.class})
+@EnableConfigurationProperties({TracingProperties.class, MetricsProperties.class})
 @Import(value = {
         CompositeMeterRegistryAutoConfiguration.class
 })
@@ -26,4 +28,10 @@ public class HorizonMetricsHelperAutoConfiguration {
     public HorizonMetricsHelper horizonMetricsHelper(MeterRegistry meterRegistry) {
         return new HorizonMetricsHelper(meterRegistry);
     }
+
+    @ConditionalOnClass(MeterRegistry.class)
+    @Bean
+    public HorizonLatencyRecorder horizonLatencyRecorder(MeterRegistry meterRegistry, MetricsProperties metricsProperties) {
+        return new HorizonLatencyRecorder(meterRegistry, metricsProperties.getLatency());
+    }
 }
@@ -11,7 +11,12 @@ import com.mongodb.client.MongoClients;
 import de.telekom.eni.pandora.horizon.mongo.config.MongoProperties;
 import de.telekom.eni.pandora.horizon.mongo.repository.MessageStateMongoRepo;
 import de.telekom.eni.pandora.horizon.mongo.repository.SubscriptionsMongoRepo;
+import de.telekom.eni.pandora.horizon.mongo.service.MessageStateIndexCreator;
+import de.telekom.eni.pandora.horizon.mongo.service.MessageStateScanner;
+import de.telekom.eni.pandora.horizon.mongo.service.StateBulkWriter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -68,9 +73,26 @@ public class MongoAutoConfiguration {
         return mongoRepositoryFactory.getRepository(MessageStateMongoRepo.class);
     }
 
+    @Bean
+    public MessageStateScanner messageStateScanner(@Qualifier("mongoStatusTemplate") MongoTemplate mongoStatusTemplate) {
+        return new MessageStateScanner(mongoStatusTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(value = "horizon.mongo.ensureIndexes")
+    public MessageStateIndexCreator messageStateIndexCreator(@Qualifier("mongoStatusTemplate") MongoTemplate mongoStatusTemplate) {
+        return new MessageStateIndexCreator(mongoStatusTemplate);
+    }
+
     @Bean
     public SubscriptionsMongoRepo getSubscriptionsRepo(@Qualifier("mongoConfigTemplate") MongoTemplate mongoConfigTemplate) {
         MongoRepositoryFactory mongoRepositoryFactory = new MongoRepositoryFactory(mongoConfigTemplate);
         return mongoRepositoryFactory.getRepository(SubscriptionsMongoRepo.class);
     }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(value = "horizon.mongo.bulkWrite.enabled")
+    public StateBulkWriter stateBulkWriter(@Qualifier("mongoStatusTemplate") MongoTemplate mongoStatusTemplate, MongoProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new StateBulkWriter(mongoStatusTemplate, properties.getBulkWrite(), meterRegistry.getIfAvailable());
+    }
 }
\ No newline at end of file